@@ -2,8 +2,10 @@ package de.spring.tutorial;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ApiGatewayMainApp {
     public static void main(String[] args) {
         SpringApplication.run(ApiGatewayMainApp.class, args);
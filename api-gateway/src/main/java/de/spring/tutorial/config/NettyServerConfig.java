@@ -0,0 +1,136 @@
+package de.spring.tutorial.config;
+
+import io.netty.handler.ssl.OpenSsl;
+import io.netty.handler.ssl.OpenSslSessionContext;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.ssl.SslBundle;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.Http11SslContextSpec;
+import reactor.netty.http.Http2SslContextSpec;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.tcp.AbstractProtocolSslContextSpec;
+
+import javax.net.ssl.SSLException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Konfiguration des Netty-Servers, über den die Clients das Gateway erreichen.
+ * <p>
+ * Transport: Reactor Netty verwendet io_uring bzw. epoll, sobald die nativen Bibliotheken auf dem Classpath
+ * liegen, sonst NIO. epoll für linux-x86_64 ist immer dabei, io_uring kommt mit {@code mvn -Pnative,io-uring}.
+ * Mit {@code -Dreactor.netty.native=false} lässt sich der native Transport abschalten.
+ * <p>
+ * TLS: Mit {@code app.tls.enabled} (Profil {@code tls}) terminiert das Gateway TLS selbst, ein vorgelagerter
+ * Proxy entfällt. Zertifikat und Schlüssel kommen aus dem SSL-Bundle {@code app.tls.bundle}
+ * ({@code spring.ssl.bundle.*}). Die TLS-Implementierung wählt {@code app.tls.provider}: OpenSSL über
+ * netty-tcnative (BoringSSL, Maven-Profil {@code native}) oder die JDK-Implementierung. Über
+ * den Session-Cache und Session-Tickets können Clients eine Sitzung ohne vollständigen Handshake fortsetzen;
+ * Cache und Ticket-Schlüssel gelten je Knoten. HTTP/2 wird per ALPN ausgehandelt, HTTP/1.1 bleibt möglich.
+ * <p>
+ * Die Anpassungen gelten nur für den Server des Gateways, nicht für den Management-Port.
+ */
+@Slf4j
+@Configuration
+public class NettyServerConfig {
+
+    /**
+     * Schreibt beim Start, welcher Transport verwendet wird (z.B. {@code EpollServerSocketChannel}).
+     *
+     * @return der Customizer für den Netty-Server
+     */
+    @Bean
+    public WebServerFactoryCustomizer<NettyReactiveWebServerFactory> nettyTransportLogger() {
+        return factory -> factory.addServerCustomizers(httpServer -> httpServer.doOnBound(server ->
+                log.info("Netty-Transport: {}", server.channel().getClass().getSimpleName())));
+    }
+
+    /**
+     * Aktiviert TLS und HTTP/2 für den Server des Gateways.
+     *
+     * @param sslBundles die konfigurierten SSL-Bundles
+     * @param bundleName Name des Bundles mit Zertifikat und privatem Schlüssel
+     * @param provider TLS-Implementierung: {@code auto} (OpenSSL, falls verfügbar), {@code openssl} oder {@code jdk}
+     * @param http2 ob HTTP/2 per ALPN angeboten wird
+     * @param sessionCacheSize maximale Anzahl an Sitzungen im Session-Cache
+     * @param sessionTimeout Dauer, für die eine Sitzung fortgesetzt werden kann
+     * @return der Customizer für den Netty-Server
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.tls.enabled", havingValue = "true")
+    public WebServerFactoryCustomizer<NettyReactiveWebServerFactory> nettyTlsCustomizer(
+            SslBundles sslBundles,
+            @Value("${app.tls.bundle}") String bundleName,
+            @Value("${app.tls.provider:auto}") String provider,
+            @Value("${app.tls.http2:true}") boolean http2,
+            @Value("${app.tls.session-cache-size:20480}") long sessionCacheSize,
+            @Value("${app.tls.session-timeout:1h}") Duration sessionTimeout) {
+        SslBundle bundle = sslBundles.getBundle(bundleName);
+        io.netty.handler.ssl.SslProvider sslProvider = resolveProvider(provider);
+
+        Consumer<SslContextBuilder> configurer = builder -> {
+            builder.sslProvider(sslProvider)
+                    .sessionCacheSize(sessionCacheSize)
+                    .sessionTimeout(sessionTimeout.toSeconds());
+            if (bundle.getOptions().getEnabledProtocols() != null) {
+                builder.protocols(bundle.getOptions().getEnabledProtocols());
+            }
+        };
+        AbstractProtocolSslContextSpec<?> sslContextSpec = http2
+                ? Http2SslContextSpec.forServer(bundle.getManagers().getKeyManagerFactory()).configure(configurer)
+                : Http11SslContextSpec.forServer(bundle.getManagers().getKeyManagerFactory()).configure(configurer);
+        SslContext sslContext = build(sslContextSpec);
+        HttpProtocol[] protocols = http2
+                ? new HttpProtocol[]{HttpProtocol.H2, HttpProtocol.HTTP11}
+                : new HttpProtocol[]{HttpProtocol.HTTP11};
+
+        log.info("TLS mit {}, HTTP/2 {}",
+                sslProvider == io.netty.handler.ssl.SslProvider.JDK ? "JDK" : OpenSsl.versionString(),
+                http2 ? "aktiv" : "inaktiv");
+        return factory -> factory.addServerCustomizers(httpServer -> httpServer
+                .secure(spec -> spec.sslContext(sslContext))
+                .protocol(protocols));
+    }
+
+    /**
+     * Erzeugt den {@link SslContext}. Netty schaltet bei OpenSSL Session-Tickets ab; ohne Tickets könnten
+     * TLS-1.3-Clients eine Sitzung nicht fortsetzen. Die Ticket-Schlüssel erzeugt OpenSSL zufällig je Knoten.
+     */
+    private static SslContext build(AbstractProtocolSslContextSpec<?> sslContextSpec) {
+        try {
+            SslContext sslContext = sslContextSpec.sslContext();
+            if (sslContext.sessionContext() instanceof OpenSslSessionContext sessionContext) {
+                sessionContext.setTicketKeys();
+            }
+            return sslContext;
+        } catch (SSLException e) {
+            throw new IllegalStateException("TLS-Kontext für das Gateway konnte nicht erzeugt werden", e);
+        }
+    }
+
+    private static io.netty.handler.ssl.SslProvider resolveProvider(String provider) {
+        return switch (provider.toLowerCase(Locale.ROOT)) {
+            case "auto" -> OpenSsl.isAvailable()
+                    ? io.netty.handler.ssl.SslProvider.OPENSSL
+                    : io.netty.handler.ssl.SslProvider.JDK;
+            case "openssl" -> {
+                if (!OpenSsl.isAvailable()) {
+                    throw new IllegalStateException("OpenSSL ist nicht verfügbar (netty-tcnative fehlt, "
+                            + "mvn -Pnative): " + OpenSsl.unavailabilityCause());
+                }
+                yield io.netty.handler.ssl.SslProvider.OPENSSL;
+            }
+            case "jdk" -> io.netty.handler.ssl.SslProvider.JDK;
+            default -> throw new IllegalArgumentException("Unbekannte TLS-Implementierung: " + provider);
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package de.spring.tutorial.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.spring.tutorial.tracing.FileSpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Konfiguration des Tracings.
+ * <p>
+ * Das Gateway beginnt den Trace eines Requests und entscheidet über die Aufzeichnung
+ * ({@code management.tracing.sampling.probability}). Spans für den eingehenden Request und den Aufruf des
+ * Services liefern Spring Boot und Spring Cloud Gateway; der Kontext wird per {@code traceparent}-Header an
+ * die Services weitergegeben. Ergänzt wird hier der Export in eine lokale Datei.
+ */
+@Configuration
+public class TracingConfig {
+
+    /**
+     * Exporter, der die Spans in die unter {@code app.tracing.file} angegebene Datei schreibt.
+     * Ohne die Property werden die Spans nur an einen gegebenenfalls konfigurierten Collector exportiert.
+     *
+     * @param file die Datei für die Spans
+     * @param objectMapper Mapper für die JSON-Darstellung der Spans
+     * @return der Exporter
+     */
+    @Bean
+    @ConditionalOnProperty("app.tracing.file")
+    public FileSpanExporter fileSpanExporter(@Value("${app.tracing.file}") Path file, ObjectMapper objectMapper) {
+        return new FileSpanExporter(file, objectMapper);
+    }
+}
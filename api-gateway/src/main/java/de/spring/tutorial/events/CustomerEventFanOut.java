@@ -0,0 +1,179 @@
+package de.spring.tutorial.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gemeinsamer Ereignisstrom der Kundenänderungen für alle Abonnements dieses Gateways.
+ * <p>
+ * Statt einer Upstream-Verbindung je Abonnent hält das Gateway genau einen Outbox-Stream
+ * ({@code /customers/events/stream}) zum Customer-Service offen und verteilt dessen Ereignisse an alle
+ * Abonnenten; gefiltert wird je Abonnent im Gateway. Der Stream wird mit dem ersten Abonnenten geöffnet und
+ * nach dem letzten erst nach {@code linger} geschlossen, damit kurz getrennte Clients ihn wiederverwenden.
+ * Bricht er ab, wird er mit {@code Last-Event-ID} ab dem zuletzt empfangenen Offset neu geöffnet.
+ * <p>
+ * Der Customer-Service verlangt auch für diesen Stream ein JWT. Da er keinem einzelnen Benutzer gehört, meldet
+ * sich das Gateway dafür mit einem eigenen Dienstkonto beim Auth-Service an ({@code service-email},
+ * {@code service-password}); ohne Passwort sind Abonnements nicht verfügbar.
+ */
+@Slf4j
+@Component
+public class CustomerEventFanOut {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final String streamUri;
+    private final String loginUri;
+    private final String serviceEmail;
+    private final String servicePassword;
+    private final Flux<CustomerEventMessage> events;
+    private volatile String serviceToken;
+
+    /**
+     * Ereignis des gemeinsamen Streams, wie es an die Abonnenten weitergegeben wird.
+     *
+     * @param customerId ID des betroffenen Kunden, {@code 0} für Heartbeats
+     * @param id Offset des Ereignisses ({@code sequence}), {@code null} für Heartbeats
+     * @param event Typ des Ereignisses, {@code null} für Heartbeats
+     * @param data Ereignis als JSON, {@code null} für Heartbeats
+     */
+    public record CustomerEventMessage(long customerId, String id, String event, String data) {
+
+        static final CustomerEventMessage HEARTBEAT = new CustomerEventMessage(0, null, null, null);
+
+        /**
+         * @return {@code true} für Heartbeats, die an alle Abonnenten gehen
+         */
+        public boolean isHeartbeat() {
+            return data == null;
+        }
+    }
+
+    /**
+     * Konstruktor für den {@link CustomerEventFanOut}.
+     *
+     * @param webClientBuilder Builder für den WebClient
+     * @param objectMapper ObjectMapper zum Lesen der Kunden-ID aus den Ereignissen
+     * @param streamUri URI des Outbox-Streams im Customer-Service
+     * @param loginUri URI der Anmeldung im Auth-Service
+     * @param serviceEmail E-Mail-Adresse des Dienstkontos des Gateways
+     * @param servicePassword Passwort des Dienstkontos; leer, wenn Abonnements nicht angeboten werden
+     * @param linger Zeit, die der Stream nach dem letzten Abonnenten noch offen bleibt
+     */
+    public CustomerEventFanOut(WebClient.Builder webClientBuilder, ObjectMapper objectMapper,
+                               @Value("${app.customer-events.stream-uri}") String streamUri,
+                               @Value("${app.customer-events.login-uri}") String loginUri,
+                               @Value("${app.customer-events.service-email}") String serviceEmail,
+                               @Value("${app.customer-events.service-password:}") String servicePassword,
+                               @Value("${app.customer-events.linger:30s}") Duration linger) {
+        this.webClient = webClientBuilder.build();
+        this.objectMapper = objectMapper;
+        this.streamUri = streamUri;
+        this.loginUri = loginUri;
+        this.serviceEmail = serviceEmail;
+        this.servicePassword = servicePassword;
+        this.events = Flux.defer(() -> {
+                    AtomicLong lastSequence = new AtomicLong();
+                    return connect(lastSequence)
+                            .repeat()
+                            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                                    .maxBackoff(MAX_BACKOFF)
+                                    .doBeforeRetry(signal -> log.warn("Outbox-Stream unterbrochen, neuer Versuch: {}",
+                                            signal.failure().getMessage())));
+                })
+                .publish()
+                .refCount(1, linger);
+    }
+
+    /**
+     * @return {@code true}, wenn ein Dienstkonto für den gemeinsamen Stream konfiguriert ist
+     */
+    public boolean isAvailable() {
+        return !servicePassword.isEmpty();
+    }
+
+    /**
+     * Liefert den gemeinsamen Ereignisstrom. Der erste Abonnent öffnet die Verbindung zum Customer-Service.
+     * Der Strom wartet nicht auf langsame Abonnenten; diese müssen selbst puffern.
+     *
+     * @return alle Kundenereignisse ab dem Abonnieren, dazu die Heartbeats des Customer-Service
+     */
+    public Flux<CustomerEventMessage> events() {
+        return events;
+    }
+
+    /**
+     * Öffnet den Outbox-Stream einmal, ab dem zuletzt empfangenen Offset oder (beim ersten Mal) ab jetzt.
+     */
+    private Flux<CustomerEventMessage> connect(AtomicLong lastSequence) {
+        return token().flatMapMany(token -> webClient.get().uri(streamUri)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .headers(headers -> {
+                            headers.setBearerAuth(token);
+                            if (lastSequence.get() > 0) {
+                                headers.set("Last-Event-ID", Long.toString(lastSequence.get()));
+                            }
+                        })
+                        .retrieve()
+                        .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {
+                        }))
+                .doOnSubscribe(subscription -> log.debug("Outbox-Stream wird geöffnet (Offset {})", lastSequence.get()))
+                .doOnError(WebClientResponseException.Unauthorized.class, ex -> serviceToken = null)
+                .map(event -> toMessage(event, lastSequence));
+    }
+
+    private CustomerEventMessage toMessage(ServerSentEvent<String> event, AtomicLong lastSequence) {
+        if (event.data() == null) {
+            return CustomerEventMessage.HEARTBEAT;
+        }
+        if (event.id() != null) {
+            lastSequence.set(Long.parseLong(event.id()));
+        }
+        try {
+            long customerId = objectMapper.readTree(event.data()).path("customerId").asLong();
+            return new CustomerEventMessage(customerId, event.id(), event.event(), event.data());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Ungültiges Kundenereignis " + event.id(), ex);
+        }
+    }
+
+    /**
+     * Liefert das JWT des Dienstkontos; nach einer Ablehnung durch den Customer-Service wird es neu angefordert.
+     */
+    private Mono<String> token() {
+        String token = serviceToken;
+        if (token != null) {
+            return Mono.just(token);
+        }
+        if (!isAvailable()) {
+            return Mono.error(new IllegalStateException("Kein Dienstkonto für den Outbox-Stream konfiguriert"));
+        }
+        return webClient.post().uri(loginUri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.ACCEPT, MediaType.ALL_VALUE)
+                .bodyValue(Map.of("email", serviceEmail, "password", servicePassword))
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(TIMEOUT)
+                .doOnNext(loaded -> serviceToken = loaded);
+    }
+}
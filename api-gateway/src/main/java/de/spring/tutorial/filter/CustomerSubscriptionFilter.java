@@ -0,0 +1,211 @@
+package de.spring.tutorial.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.spring.tutorial.events.CustomerEventFanOut;
+import de.spring.tutorial.events.CustomerEventFanOut.CustomerEventMessage;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Filter, der Abonnements auf einzelne Kunden ({@code GET /customers/events/subscribe?ids=1,2,3}) im Gateway
+ * beantwortet, statt sie an den Customer-Service weiterzuleiten.
+ * <p>
+ * Die Ereignisse stammen aus dem gemeinsamen Stream des {@link CustomerEventFanOut}; ein Abonnent belegt damit
+ * weder eine Upstream-Verbindung noch einen Platz im Verbindungspool, sondern nur seine Warteschlange im Gateway.
+ * Zu Beginn wird der aktuelle Stand jedes Kunden als {@code SNAPSHOT} gesendet, geladen mit einer Sammelabfrage
+ * ({@code /customers/lookup}) und dem Token des Abonnenten; Ereignisse, die währenddessen eintreffen, werden
+ * danach zugestellt. Läuft die Warteschlange eines langsamen Abonnenten über, wird sein Stream beendet und er
+ * erhält beim Wiederverbinden einen neuen Stand.
+ * <p>
+ * Das Token wird vorher vom {@link de.spring.tutorial.security.JwtAuthenticationFilter} der Route geprüft.
+ */
+@Slf4j
+@Component
+public class CustomerSubscriptionFilter extends AbstractGatewayFilterFactory<CustomerSubscriptionFilter.Config> {
+
+    private static final String SNAPSHOT_EVENT = "SNAPSHOT";
+    private static final byte[] HEARTBEAT = ":heartbeat\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final CustomerEventFanOut customerEventFanOut;
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final String lookupUri;
+
+    /**
+     * Konstruktor für den {@link CustomerSubscriptionFilter}.
+     *
+     * @param customerEventFanOut gemeinsamer Ereignisstrom der Kundenänderungen
+     * @param webClientBuilder Builder für den WebClient der Sammelabfrage
+     * @param objectMapper ObjectMapper zum Lesen der Sammelabfrage
+     * @param lookupUri URI der Sammelabfrage im Customer-Service
+     */
+    public CustomerSubscriptionFilter(CustomerEventFanOut customerEventFanOut, WebClient.Builder webClientBuilder,
+                                      ObjectMapper objectMapper,
+                                      @Value("${app.customer-events.lookup-uri}") String lookupUri) {
+        super(Config.class);
+        this.customerEventFanOut = customerEventFanOut;
+        this.webClient = webClientBuilder.build();
+        this.objectMapper = objectMapper;
+        this.lookupUri = lookupUri;
+    }
+
+    /**
+     * Wendet den Filter mit der angegebenen Konfiguration an. Die Anfrage wird nicht weitergeleitet.
+     *
+     * @param config Die Konfiguration mit maximaler Anzahl an IDs und Größe der Warteschlange.
+     * @return Ein {@link GatewayFilter}, der das Abonnement als Server-Sent Events beantwortet.
+     */
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            ServerHttpResponse response = exchange.getResponse();
+            if (!customerEventFanOut.isAvailable()) {
+                response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                return response.setComplete();
+            }
+            Set<Long> ids = parseIds(exchange.getRequest().getQueryParams().get("ids"));
+            if (ids == null || ids.isEmpty() || ids.size() > config.getMaxIds()) {
+                response.setStatusCode(HttpStatus.BAD_REQUEST);
+                return response.setComplete();
+            }
+
+            response.getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+            response.getHeaders().setCacheControl(CacheControl.noCache());
+            String authorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            return response.writeAndFlushWith(subscribe(ids, authorization, config.getQueueCapacity())
+                    .map(message -> Mono.just(encode(response, message))));
+        };
+    }
+
+    /**
+     * Erzeugt die Nachrichten eines Abonnements: zuerst die Snapshots, dann die gefilterten Ereignisse.
+     * Der gemeinsame Stream wird schon vor der Sammelabfrage abonniert, damit keine Änderung verloren geht.
+     */
+    private Flux<CustomerEventMessage> subscribe(Set<Long> ids, String authorization, int queueCapacity) {
+        return Flux.defer(() -> {
+            Sinks.Many<CustomerEventMessage> queue = Sinks.many().unicast()
+                    .onBackpressureBuffer(Queues.<CustomerEventMessage>get(queueCapacity).get());
+            Disposable live = customerEventFanOut.events()
+                    .filter(message -> message.isHeartbeat() || ids.contains(message.customerId()))
+                    .subscribe(message -> {
+                        if (queue.tryEmitNext(message).isFailure()) {
+                            log.debug("Warteschlange eines Abonnements übergelaufen, Stream wird beendet");
+                            queue.tryEmitError(new IllegalStateException("Warteschlange des Abonnements übergelaufen"));
+                        }
+                    }, queue::tryEmitError, queue::tryEmitComplete);
+            return Flux.concat(snapshots(ids, authorization), queue.asFlux())
+                    .doFinally(signal -> live.dispose());
+        });
+    }
+
+    /**
+     * Lädt den aktuellen Stand der abonnierten Kunden mit dem Token des Abonnenten.
+     */
+    private Flux<CustomerEventMessage> snapshots(Set<Long> ids, String authorization) {
+        return webClient.post().uri(lookupUri)
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("ids", ids))
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(Duration.ofSeconds(5))
+                .flatMapMany(lookup -> Flux.fromIterable(lookup.path("ids")))
+                .map(customer -> new CustomerEventMessage(customer.path("id").asLong(), null, SNAPSHOT_EVENT,
+                        writeJson(customer)));
+    }
+
+    private String writeJson(JsonNode node) {
+        try {
+            return objectMapper.writeValueAsString(node);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Kodiert eine Nachricht im Format von Server-Sent Events.
+     */
+    private static DataBuffer encode(ServerHttpResponse response, CustomerEventMessage message) {
+        if (message.isHeartbeat()) {
+            return response.bufferFactory().wrap(HEARTBEAT);
+        }
+        StringBuilder event = new StringBuilder(message.data().length() + 64);
+        if (message.id() != null) {
+            event.append("id:").append(message.id()).append('\n');
+        }
+        event.append("event:").append(message.event()).append('\n');
+        for (String line : message.data().split("\n", -1)) {
+            event.append("data:").append(line).append('\n');
+        }
+        event.append('\n');
+        return response.bufferFactory().wrap(event.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Liest die IDs aus dem Parameter {@code ids} (kommagetrennt und/oder wiederholt).
+     *
+     * @return die IDs oder {@code null}, wenn eine ID keine Zahl ist
+     */
+    private static Set<Long> parseIds(List<String> values) {
+        Set<Long> ids = new HashSet<>();
+        if (values == null) {
+            return ids;
+        }
+        try {
+            for (String value : values) {
+                for (String id : value.split(",")) {
+                    if (!id.isBlank()) {
+                        ids.add(Long.parseLong(id.trim()));
+                    }
+                }
+            }
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+        return ids;
+    }
+
+    /**
+     * Konfiguration des Filters.
+     */
+    @Getter
+    @Setter
+    public static class Config {
+
+        /**
+         * Maximale Anzahl an Kunden-IDs pro Abonnement.
+         */
+        private int maxIds = 200;
+
+        /**
+         * Maximale Anzahl an Ereignissen, die pro Abonnent zwischengespeichert werden.
+         */
+        private int queueCapacity = 1000;
+    }
+}
@@ -0,0 +1,217 @@
+package de.spring.tutorial.filter;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Filter zum Zusammenfassen gleichzeitiger, identischer GET-Anfragen (Single-Flight).
+ * <p>
+ * Die erste Anfrage zu einem Schlüssel wird an den Service weitergeleitet; alle weiteren Anfragen mit
+ * gleichem Pfad, gleicher Query und gleichem Authorization-Header, die eintreffen, solange diese Anfrage
+ * noch läuft, warten auf deren Antwort und erhalten eine Kopie davon. Die Antwort wird nur bis zur
+ * konfigurierten Größe mitgeschnitten. Ist sie größer, schlägt die erste Anfrage fehl oder wird die
+ * Wartezeit überschritten, leiten die wartenden Anfragen selbst an den Service weiter.
+ * <p>
+ * Der Filter läuft vor dem {@link NettyWriteResponseFilter}, da er dessen Schreibvorgang mitschneiden muss.
+ * Die Prüfung des Tokens erfolgt weiterhin in der ersten Anfrage; wartende Anfragen teilen sich deren
+ * Antwort nur bei identischem Authorization-Header.
+ */
+@Slf4j
+@Component
+public class RequestCoalescingFilter extends AbstractGatewayFilterFactory<RequestCoalescingFilter.Config> {
+
+    private final ConcurrentHashMap<String, CompletableFuture<CoalescedResponse>> inFlightRequests = new ConcurrentHashMap<>();
+
+    public RequestCoalescingFilter() {
+        super(Config.class);
+    }
+
+    /**
+     * Wendet den Filter mit der angegebenen Konfiguration an.
+     *
+     * @param config Die Konfiguration mit maximaler Antwortgröße und Wartezeit.
+     * @return Ein {@link GatewayFilter}, der identische gleichzeitige GET-Anfragen zusammenfasst.
+     */
+    @Override
+    public GatewayFilter apply(Config config) {
+        int maxBodyBytes = (int) config.getMaxBodySize().toBytes();
+        GatewayFilter filter = (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            if (request.getMethod() != HttpMethod.GET || authorization == null) {
+                return chain.filter(exchange);
+            }
+
+            String key = coalescingKey(request, authorization);
+            CompletableFuture<CoalescedResponse> flight = new CompletableFuture<>();
+            CompletableFuture<CoalescedResponse> inFlight = inFlightRequests.putIfAbsent(key, flight);
+
+            if (inFlight == null) {
+                return chain.filter(exchange.mutate().response(new RecordingResponse(exchange.getResponse(), key, flight, maxBodyBytes)).build())
+                        .doFinally(signal -> finish(key, flight, null));
+            }
+
+            log.debug("Anfrage {} wird mit laufender Anfrage zusammengefasst", request.getPath());
+            return Mono.fromFuture(inFlight, true)
+                    .timeout(config.getTimeout())
+                    .map(Optional::of)
+                    .onErrorReturn(TimeoutException.class, Optional.empty())
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(response -> response.isPresent()
+                            ? write(exchange.getResponse(), response.get())
+                            : chain.filter(exchange));
+        };
+        return new OrderedGatewayFilter(filter, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    /**
+     * Bildet den Schlüssel, unter dem identische Anfragen zusammengefasst werden.
+     * Accept und Accept-Encoding gehören dazu, da sie die Darstellung der Antwort bestimmen.
+     */
+    private String coalescingKey(ServerHttpRequest request, String authorization) {
+        HttpHeaders headers = request.getHeaders();
+        return request.getURI().getRawPath() + '?' + request.getURI().getRawQuery()
+                + '\n' + authorization
+                + '\n' + headers.getFirst(HttpHeaders.ACCEPT)
+                + '\n' + headers.getFirst(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    /**
+     * Beendet eine laufende Anfrage und gibt ihr Ergebnis an die wartenden Anfragen weiter.
+     * {@code null} bedeutet, dass die Antwort nicht geteilt werden kann.
+     */
+    private void finish(String key, CompletableFuture<CoalescedResponse> flight, CoalescedResponse response) {
+        inFlightRequests.remove(key, flight);
+        flight.complete(response);
+    }
+
+    /**
+     * Schreibt die geteilte Antwort in die Antwort einer wartenden Anfrage.
+     */
+    private Mono<Void> write(ServerHttpResponse response, CoalescedResponse coalesced) {
+        response.setStatusCode(coalesced.status());
+        response.getHeaders().putAll(coalesced.headers());
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(coalesced.body())));
+    }
+
+    /**
+     * Mitgeschnittene Antwort einer zusammengefassten Anfrage.
+     */
+    private record CoalescedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    /**
+     * Antwort der ersten Anfrage, die den Body beim Weiterreichen an den Client bis zur maximalen Größe mitschneidet.
+     */
+    private class RecordingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final CompletableFuture<CoalescedResponse> flight;
+        private final int maxBodyBytes;
+
+        RecordingResponse(ServerHttpResponse delegate, String key,
+                          CompletableFuture<CoalescedResponse> flight, int maxBodyBytes) {
+            super(delegate);
+            this.key = key;
+            this.flight = flight;
+            this.maxBodyBytes = maxBodyBytes;
+        }
+
+        /**
+         * Schneidet den Body mit. Sobald feststeht, dass die Antwort zu groß ist (laut Content-Length oder
+         * mitgeschnittener Größe), werden die wartenden Anfragen sofort freigegeben, statt sie bis zum Ende
+         * der Übertragung warten zu lassen.
+         */
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (getHeaders().getContentLength() > maxBodyBytes) {
+                finish(key, flight, null);
+                return super.writeWith(body);
+            }
+            List<byte[]> chunks = new ArrayList<>();
+            int[] size = {0};
+            Flux<? extends DataBuffer> recorded = Flux.from(body)
+                    .doOnNext(buffer -> {
+                        if (size[0] > maxBodyBytes) {
+                            return;
+                        }
+                        int length = buffer.readableByteCount();
+                        size[0] += length;
+                        if (size[0] > maxBodyBytes) {
+                            chunks.clear();
+                            finish(key, flight, null);
+                            return;
+                        }
+                        byte[] chunk = new byte[length];
+                        buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(chunk), 0, length);
+                        chunks.add(chunk);
+                    })
+                    .doOnComplete(() -> finish(key, flight, size[0] <= maxBodyBytes ? toResponse(chunks, size[0]) : null));
+            return super.writeWith(recorded);
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            finish(key, flight, null);
+            return super.writeAndFlushWith(body);
+        }
+
+        private CoalescedResponse toResponse(List<byte[]> chunks, int size) {
+            byte[] body = new byte[size];
+            int position = 0;
+            for (byte[] chunk : chunks) {
+                System.arraycopy(chunk, 0, body, position, chunk.length);
+                position += chunk.length;
+            }
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(getHeaders());
+            headers.remove(HttpHeaders.SET_COOKIE);
+            return new CoalescedResponse(getStatusCode(), HttpHeaders.readOnlyHttpHeaders(headers), body);
+        }
+    }
+
+    /**
+     * Konfiguration des Filters.
+     */
+    @Getter
+    @Setter
+    public static class Config {
+
+        /**
+         * Maximale Größe einer Antwort, die mit wartenden Anfragen geteilt wird.
+         */
+        private DataSize maxBodySize = DataSize.ofKilobytes(256);
+
+        /**
+         * Maximale Wartezeit auf die laufende Anfrage, bevor selbst weitergeleitet wird.
+         */
+        private Duration timeout = Duration.ofSeconds(5);
+    }
+}
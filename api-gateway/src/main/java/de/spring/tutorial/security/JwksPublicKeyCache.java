@@ -0,0 +1,126 @@
+package de.spring.tutorial.security;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cache der öffentlichen Signaturschlüssel des Auth-Service, indiziert nach ihrer Kennung ({@code kid}).
+ * <p>
+ * Die Schlüssel werden nicht-blockierend aus dem JWKS des Auth-Service geladen und regelmäßig aktualisiert.
+ * Bei einer unbekannten Kennung wird das JWKS höchstens einmal pro Mindestabstand neu geladen; gleichzeitige
+ * Anfragen teilen sich dabei denselben Ladevorgang.
+ */
+@Slf4j
+@Component
+public class JwksPublicKeyCache {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final WebClient webClient;
+    private final String jwksUri;
+    private final long minRefreshIntervalMillis;
+    private final AtomicReference<Refresh> lastRefresh = new AtomicReference<>();
+    private volatile Map<String, PublicKey> keys = Map.of();
+
+    /**
+     * Ein gestarteter Ladevorgang; {@code result} wird zwischengespeichert und kann mehrfach abonniert werden.
+     */
+    private record Refresh(long startedAtMillis, Mono<Void> result) {
+    }
+
+    /**
+     * Konstruktor für den {@link JwksPublicKeyCache}.
+     *
+     * @param webClientBuilder Builder für den WebClient
+     * @param jwksUri URI des JWKS im Auth-Service
+     * @param minRefreshIntervalMillis Mindestabstand zwischen zwei Ladevorgängen bei unbekannter Kennung in Millisekunden
+     */
+    public JwksPublicKeyCache(WebClient.Builder webClientBuilder,
+                              @Value("${app.jwt.jwks-uri}") String jwksUri,
+                              @Value("${app.jwt.jwks-min-refresh-interval-ms:10000}") long minRefreshIntervalMillis) {
+        this.webClient = webClientBuilder.build();
+        this.jwksUri = jwksUri;
+        this.minRefreshIntervalMillis = minRefreshIntervalMillis;
+    }
+
+    /**
+     * Liefert den öffentlichen Schlüssel zur angegebenen Kennung aus dem Cache.
+     *
+     * @param kid die Kennung des Schlüssels
+     * @return der öffentliche Schlüssel oder {@code null}, wenn die Kennung unbekannt ist
+     */
+    public PublicKey getKey(String kid) {
+        return keys.get(kid);
+    }
+
+    /**
+     * Lädt das JWKS neu, sofern seit dem letzten Ladevorgang der Mindestabstand verstrichen ist.
+     * Andernfalls wird der letzte (ggf. noch laufende) Ladevorgang zurückgegeben.
+     *
+     * @return ein {@link Mono}, das nach Abschluss des Ladevorgangs endet
+     */
+    public Mono<Void> refreshIfDue() {
+        Refresh current = lastRefresh.get();
+        long now = System.currentTimeMillis();
+        if (current != null && now - current.startedAtMillis() < minRefreshIntervalMillis) {
+            return current.result();
+        }
+        Refresh next = new Refresh(now, load().cache());
+        return lastRefresh.compareAndSet(current, next) ? next.result() : lastRefresh.get().result();
+    }
+
+    /**
+     * Lädt das JWKS in regelmäßigen Abständen neu, damit neue Schlüssel vor ihrer ersten Verwendung bekannt
+     * sind und zurückgezogene Schlüssel entfernt werden.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.jwks-refresh-interval-ms:300000}")
+    public void refresh() {
+        Refresh next = new Refresh(System.currentTimeMillis(), load().cache());
+        lastRefresh.set(next);
+        next.result().block(TIMEOUT.multipliedBy(2));
+    }
+
+    private Mono<Void> load() {
+        return webClient.get().uri(jwksUri)
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(TIMEOUT)
+                .doOnNext(this::update)
+                .then()
+                .onErrorResume(ex -> {
+                    log.warn("JWKS konnte nicht von {} geladen werden: {}", jwksUri, ex.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private void update(String json) {
+        try {
+            JwkSet jwkSet = Jwks.setParser().ignoreUnsupported(true).build().parse(json);
+            Map<String, PublicKey> loaded = new HashMap<>();
+            for (Jwk<?> jwk : jwkSet) {
+                if (jwk instanceof PublicJwk<?> publicJwk && jwk.getId() != null) {
+                    loaded.put(jwk.getId(), publicJwk.toKey());
+                }
+            }
+            keys = Map.copyOf(loaded);
+            log.debug("{} öffentliche Signaturschlüssel geladen", loaded.size());
+        } catch (JwtException | IllegalArgumentException ex) {
+            log.warn("JWKS von {} ist ungültig: {}", jwksUri, ex.getMessage());
+        }
+    }
+}
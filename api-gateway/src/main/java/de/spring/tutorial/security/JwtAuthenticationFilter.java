@@ -1,5 +1,14 @@
 package de.spring.tutorial.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -9,10 +18,16 @@ import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import reactor.core.publisher.Mono;
 
+import java.security.Key;
+
 /**
  * Filter zur Überprüfung des JWT-Authentifizierungstokens im Gateway.
  * Dieser Filter prüft, ob im Header der Anfrage ein gültiges JWT vorhanden ist.
- * Das Token wird extrahiert und, falls vorhanden, überprüft, ob es im richtigen Format (Bearer <Token>) vorliegt.
+ * Das Token wird extrahiert und seine Signatur mit dem öffentlichen Schlüssel aus dem {@link JwksPublicKeyCache}
+ * sowie seine Ablaufzeit geprüft. Ist die Kennung des Schlüssels ({@code kid}) noch unbekannt, wird das JWKS
+ * nicht-blockierend nachgeladen und die Prüfung einmal wiederholt. Widerrufene Tokens werden anhand ihrer
+ * Kennung ({@code jti}) über die {@link TokenRevocationList} im Speicher erkannt. Die Prüfung wird als Observation
+ * {@code jwt.verification} unterhalb des Spans für den eingehenden Request erfasst.
  * Wenn das Token fehlt oder ungültig ist, wird eine Fehlermeldung mit Statuscode 401 zurückgegeben.
  * Ansonsten wird die Anfrage an den nächsten Filter in der Kette weitergeleitet.
  */
@@ -20,8 +35,37 @@ import reactor.core.publisher.Mono;
 @Component
 public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<Object> {
 
-    public JwtAuthenticationFilter() {
+    private final JwksPublicKeyCache jwksPublicKeyCache;
+    private final TokenRevocationList tokenRevocationList;
+    private final JwtParser jwtParser;
+    private final ObservationRegistry observationRegistry;
+
+    /**
+     * Konstruktor für den {@link JwtAuthenticationFilter}.
+     *
+     * @param jwksPublicKeyCache Cache der öffentlichen Signaturschlüssel des Auth-Service
+     * @param tokenRevocationList Liste der widerrufenen Tokens
+     * @param observationRegistry Registry für die Observation der Prüfungen
+     */
+    public JwtAuthenticationFilter(JwksPublicKeyCache jwksPublicKeyCache, TokenRevocationList tokenRevocationList,
+                                   ObservationRegistry observationRegistry) {
         super(Object.class);
+        this.jwksPublicKeyCache = jwksPublicKeyCache;
+        this.tokenRevocationList = tokenRevocationList;
+        this.observationRegistry = observationRegistry;
+        this.jwtParser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        String kid = header.getKeyId();
+                        Key key = kid != null ? jwksPublicKeyCache.getKey(kid) : null;
+                        if (key == null) {
+                            throw new UnknownKeyIdException(kid);
+                        }
+                        return key;
+                    }
+                })
+                .build();
     }
 
     /**
@@ -36,16 +80,69 @@ public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<Object
             String token = extractToken(exchange);
 
             if (token == null) {
-                log.warn("Fehlendes oder ungültiges Token in der Anfrage");
+                log.debug("Fehlendes oder ungültiges Token in der Anfrage");
                 return onError(exchange);
             }
 
-            log.info("Token im richtigen Format vorhanden. Weiterleitung an Service.");
-
-            return chain.filter(exchange);
+            return observeVerification(token).flatMap(valid -> valid ? chain.filter(exchange) : onError(exchange));
         };
     }
 
+    /**
+     * Führt die Prüfung als Observation aus. Die Observation des eingehenden Requests liegt im Reactor-Kontext
+     * und wird als übergeordnete Observation gesetzt; der Span endet mit dem Ergebnis, also gegebenenfalls erst
+     * nach dem Nachladen des JWKS.
+     *
+     * @param token das zu prüfende Token
+     * @return ein {@link Mono} mit {@code true}, wenn das Token gültig ist
+     */
+    private Mono<Boolean> observeVerification(String token) {
+        return Mono.deferContextual(context -> {
+            Observation observation = Observation.createNotStarted("jwt.verification", observationRegistry)
+                    .parentObservation(context.getOrDefault(ObservationThreadLocalAccessor.KEY, null))
+                    .start();
+            return verify(token)
+                    .doOnNext(valid -> observation.lowCardinalityKeyValue("outcome", valid ? "valid" : "invalid"))
+                    .doOnError(observation::error)
+                    .doFinally(signal -> observation.stop());
+        });
+    }
+
+    /**
+     * Prüft Signatur, Ablaufzeit und Widerruf des Tokens.
+     * Bei unbekannter Schlüsselkennung wird das JWKS nachgeladen und die Prüfung einmal wiederholt.
+     *
+     * @param token das zu prüfende Token
+     * @return ein {@link Mono} mit {@code true}, wenn das Token gültig ist
+     */
+    private Mono<Boolean> verify(String token) {
+        try {
+            return Mono.just(isNotRevoked(jwtParser.parseSignedClaims(token).getPayload()));
+        } catch (UnknownKeyIdException ex) {
+            return jwksPublicKeyCache.refreshIfDue().then(Mono.fromSupplier(() -> isValid(token)));
+        } catch (JwtException | IllegalArgumentException ex) {
+            log.debug("Ungültiges JWT: {}", ex.getMessage());
+            return Mono.just(false);
+        }
+    }
+
+    private boolean isValid(String token) {
+        try {
+            return isNotRevoked(jwtParser.parseSignedClaims(token).getPayload());
+        } catch (JwtException | IllegalArgumentException ex) {
+            log.debug("Ungültiges JWT: {}", ex.getMessage());
+            return false;
+        }
+    }
+
+    private boolean isNotRevoked(Claims claims) {
+        if (tokenRevocationList.isRevoked(claims.getId())) {
+            log.debug("Widerrufenes JWT: {}", claims.getId());
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Extrahiert das JWT-Token aus dem Authorization-Header der Anfrage.
      *
@@ -67,8 +164,17 @@ public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<Object
      * @return Ein {@link Mono}, das den Abschluss der Antwort signalisiert.
      */
     private Mono<Void> onError(ServerWebExchange exchange) {
-        log.error("Security-Fehler: {}", "Fehlendes oder ungültiges Token");
         exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
         return exchange.getResponse().setComplete();
     }
+
+    /**
+     * Signalisiert eine im Cache unbekannte Schlüsselkennung.
+     */
+    private static class UnknownKeyIdException extends JwtException {
+
+        UnknownKeyIdException(String kid) {
+            super("Unbekannte Schlüsselkennung: " + kid);
+        }
+    }
 }
@@ -2,8 +2,14 @@ package de.spring.tutorial;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+/**
+ * Hauptklasse zum Starten der Auth-Service-Anwendung.
+ * Das Scheduling wird für die Rotation der Signaturschlüssel benötigt.
+ */
 @SpringBootApplication
+@EnableScheduling
 public class AuthServiceMainApp {
     public static void main(String[] args) {
         SpringApplication.run(AuthServiceMainApp.class, args);
@@ -0,0 +1,89 @@
+package de.spring.tutorial.config;
+
+import de.spring.tutorial.exception.ErrorResponseWriter;
+import de.spring.tutorial.filter.AdaptiveConcurrencyLimit;
+import de.spring.tutorial.filter.ConcurrencyLimitFilter;
+import de.spring.tutorial.filter.ConcurrencyLimitFilter.PriorityRule;
+import de.spring.tutorial.filter.RequestPriority;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.List;
+
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
+
+/**
+ * Konfiguration der adaptiven Begrenzung gleichzeitiger Anfragen.
+ * <p>
+ * Der Filter läuft vor Spring Security. Der Login hat Vorrang vor der Registrierung, die mit dem Hashen des
+ * Passworts ähnlich teuer ist, aber seltener dringend.
+ */
+@Configuration
+public class ConcurrencyLimitConfig {
+
+    /**
+     * Prioritäten der Endpunkte; die erste passende Regel gilt. Die Endpunkte für die Verifizierer (JWKS,
+     * Widerrufe) haben ebenfalls Vorrang, da ohne sie in den anderen Services keine Tokens geprüft werden können.
+     */
+    private static final List<PriorityRule> PRIORITY_RULES = List.of(
+            new PriorityRule(antMatcher(HttpMethod.POST, "/auth/login"), RequestPriority.HIGH),
+            new PriorityRule(antMatcher(HttpMethod.GET, "/auth/.well-known/**"), RequestPriority.HIGH),
+            new PriorityRule(antMatcher(HttpMethod.GET, "/auth/revocations"), RequestPriority.HIGH)
+    );
+
+    /**
+     * Actuator-Endpunkte werden nicht begrenzt.
+     */
+    private static final RequestMatcher EXCLUDED_PATHS = antMatcher("/actuator/**");
+
+    /**
+     * Bean für das adaptive Limit.
+     *
+     * @param initialLimit Limit beim Start
+     * @param minLimit untere Grenze des Limits
+     * @param maxLimit obere Grenze des Limits
+     * @param windowMillis Mindestdauer eines Messfensters in Millisekunden
+     * @param minWindowSamples Mindestanzahl an Messwerten je Fenster
+     * @param smoothing Anteil des neu berechneten Limits, mit dem das Limit angepasst wird
+     * @param tolerance zulässiger Anstieg der Laufzeit, bevor das Limit sinkt
+     * @return das adaptive Limit
+     */
+    @Bean
+    public AdaptiveConcurrencyLimit adaptiveConcurrencyLimit(
+            @Value("${app.concurrency-limit.initial-limit:20}") int initialLimit,
+            @Value("${app.concurrency-limit.min-limit:4}") int minLimit,
+            @Value("${app.concurrency-limit.max-limit:200}") int maxLimit,
+            @Value("${app.concurrency-limit.window-ms:500}") long windowMillis,
+            @Value("${app.concurrency-limit.min-window-samples:10}") int minWindowSamples,
+            @Value("${app.concurrency-limit.smoothing:0.2}") double smoothing,
+            @Value("${app.concurrency-limit.tolerance:1.5}") double tolerance) {
+        return new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, windowMillis, minWindowSamples,
+                smoothing, tolerance);
+    }
+
+    /**
+     * Registriert den {@link ConcurrencyLimitFilter} vor der Filterkette von Spring Security.
+     *
+     * @param concurrencyLimit das adaptive Limit
+     * @param errorResponseWriter Writer für die Fehlerantwort bei Überlast
+     * @param meterRegistry Registry für die Metriken des Limits
+     * @param enabled ob die Begrenzung aktiv ist
+     * @return die Registrierung des Filters
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            AdaptiveConcurrencyLimit concurrencyLimit, ErrorResponseWriter errorResponseWriter, MeterRegistry meterRegistry,
+            @Value("${app.concurrency-limit.enabled:true}") boolean enabled) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(concurrencyLimit, PRIORITY_RULES, EXCLUDED_PATHS, errorResponseWriter, meterRegistry));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 10);
+        registration.setEnabled(enabled);
+        return registration;
+    }
+}
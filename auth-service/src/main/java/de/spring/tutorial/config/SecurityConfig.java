@@ -3,13 +3,16 @@ package de.spring.tutorial.config;
 import de.spring.tutorial.security.CustomUserDetailsService;
 import de.spring.tutorial.security.JwtAuthenticationEntryPoint;
 import de.spring.tutorial.security.JwtTokenProvider;
+import de.spring.tutorial.security.ObservedPasswordEncoder;
+import de.spring.tutorial.security.PasswordEncoderFactory;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.web.SecurityFilterChain;
@@ -39,12 +42,17 @@ public class SecurityConfig {
 
     /**
      * Bean für den Passwort-Encoder, der zur Hashing von Passwörtern verwendet wird.
+     * Das Verfahren und sein beim Start kalibrierter Aufwand kommen aus der {@link PasswordEncoderFactory}.
+     * Hashen und Prüfen werden als Observation erfasst und erscheinen damit als eigene Spans im Trace.
      *
-     * @return ein BCryptPasswordEncoder, der zur sicheren Passwortverschlüsselung verwendet wird
+     * @param passwordEncoderFactory Factory für den kalibrierten Encoder
+     * @param observationRegistry Registry für die Observations des Encoders
+     * @return ein DelegatingPasswordEncoder, der zur sicheren Passwortverschlüsselung verwendet wird
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordEncoderFactory passwordEncoderFactory,
+                                           ObservationRegistry observationRegistry) {
+        return new ObservedPasswordEncoder(passwordEncoderFactory.create(), observationRegistry);
     }
 
     /**
@@ -80,6 +88,8 @@ public class SecurityConfig {
                 .authorizeHttpRequests(authorizeRequests ->
                         authorizeRequests
                                 .requestMatchers("/auth/**").permitAll()
+                                // Health-Check und Metriken; das Gateway leitet nur /auth/** weiter
+                                .requestMatchers(EndpointRequest.to("health", "metrics")).permitAll()
                                 .anyRequest().denyAll() // Keine anderen Routen erlaubt
                 );
 
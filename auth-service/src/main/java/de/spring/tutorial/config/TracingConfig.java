@@ -0,0 +1,65 @@
+package de.spring.tutorial.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.spring.tutorial.tracing.FileSpanExporter;
+import de.spring.tutorial.tracing.RepositoryObservationInterceptor;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.nio.file.Path;
+
+/**
+ * Konfiguration des Tracings.
+ * <p>
+ * Spans für eingehende Requests und die Filterkette von Spring Security liefert Spring Boot über Micrometer
+ * Tracing. Ergänzt werden hier Spans für jeden Repository-Aufruf sowie der Export in eine lokale Datei.
+ * Ob ein Request aufgezeichnet wird, entscheidet das Gateway; der Service übernimmt die Entscheidung aus dem
+ * {@code traceparent}-Header.
+ */
+@Configuration
+public class TracingConfig {
+
+    /**
+     * Exporter, der die Spans in die unter {@code app.tracing.file} angegebene Datei schreibt.
+     * Ohne die Property werden die Spans nur an einen gegebenenfalls konfigurierten Collector exportiert.
+     *
+     * @param file die Datei für die Spans
+     * @param objectMapper Mapper für die JSON-Darstellung der Spans
+     * @return der Exporter
+     */
+    @Bean
+    @ConditionalOnProperty("app.tracing.file")
+    public FileSpanExporter fileSpanExporter(@Value("${app.tracing.file}") Path file, ObjectMapper objectMapper) {
+        return new FileSpanExporter(file, objectMapper);
+    }
+
+    /**
+     * Hängt den {@link RepositoryObservationInterceptor} an alle Spring-Data-Repositories.
+     * Statisch, da die Repository-Factories vor der Konfiguration erzeugt werden.
+     *
+     * @param observationRegistry Registry der Observations
+     * @return der Post-Processor für die Repository-Factories
+     */
+    @Bean
+    public static BeanPostProcessor repositoryObservationPostProcessor(
+            ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(
+                                    new RepositoryObservationInterceptor(observationRegistry,
+                                            repositoryInformation.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,16 +1,25 @@
 package de.spring.tutorial.controller;
 
+import de.spring.tutorial.exception.InvalidCredentialsException;
+import de.spring.tutorial.exception.TooManyLoginAttemptsException;
 import de.spring.tutorial.exception.UserAlreadyExistsException;
+import de.spring.tutorial.model.EmailNormalizer;
 import de.spring.tutorial.model.User;
 import de.spring.tutorial.repository.UserRepository;
 import de.spring.tutorial.request.AuthRequest;
 import de.spring.tutorial.response.AuthResponse;
 import de.spring.tutorial.security.JwtTokenProvider;
+import de.spring.tutorial.security.LoginAttemptTracker;
+import de.spring.tutorial.service.TokenRevocationService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
@@ -29,6 +38,8 @@ public class AuthController {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
+    private final TokenRevocationService tokenRevocationService;
+    private final LoginAttemptTracker loginAttemptTracker;
 
     /**
      * Registriert einen neuen Benutzer anhand der angegebenen AuthRequest-Daten.
@@ -37,11 +48,11 @@ public class AuthController {
      *
      * @param authRequest Die Anmeldedaten des neuen Benutzers (E-Mail und Passwort), validiert per Bean Validation.
      * @return ResponseEntity mit AuthResponse, enthält Benutzer-ID und E-Mail.
-     * @throws UserAlreadyExistsException wenn die E-Mail bereits vergeben ist.
+     * @throws UserAlreadyExistsException wenn die E-Mail bereits vergeben ist, auch in anderer Schreibweise.
      */
     @PostMapping("/register")
     public ResponseEntity<AuthResponse> register(@Valid @RequestBody AuthRequest authRequest) {
-        if (userRepository.findByEmail(authRequest.getEmail()).isPresent()) {
+        if (userRepository.existsByEmailNormalized(EmailNormalizer.normalize(authRequest.getEmail()))) {
             throw new UserAlreadyExistsException("Ein Benutzer mit dieser E-Mail existiert bereits.");
         }
 
@@ -58,18 +69,51 @@ public class AuthController {
     /**
      * Authentifiziert einen Benutzer anhand der übermittelten Anmeldedaten.
      * <p>
-     * Bei erfolgreicher Authentifizierung wird ein JWT-Token zurückgegeben.
+     * Bei erfolgreicher Authentifizierung wird ein JWT-Token zurückgegeben, dessen Subjekt die gespeicherte
+     * Schreibweise der E-Mail-Adresse ist. Fehlgeschlagene Anmeldungen werden
+     * je E-Mail-Adresse und IP-Adresse gezählt; nach zu vielen Fehlversuchen wird die Anmeldung abgelehnt, ohne
+     * den Benutzer zu laden oder das Passwort zu prüfen.
      *
      * @param authRequest Die Anmeldedaten des Benutzers (E-Mail und Passwort), validiert per Bean Validation.
+     * @param request Die HTTP-Anfrage, aus der die IP-Adresse des Clients stammt.
      * @return ResponseEntity mit dem JWT-Token als String.
+     * @throws InvalidCredentialsException wenn E-Mail oder Passwort falsch sind.
+     * @throws TooManyLoginAttemptsException wenn für E-Mail oder IP-Adresse zu viele Fehlversuche vorliegen.
      */
     @PostMapping("/login")
-    public ResponseEntity<String> login(@Valid @RequestBody AuthRequest authRequest) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(authRequest.getEmail(), authRequest.getPassword())
-        );
+    public ResponseEntity<String> login(@Valid @RequestBody AuthRequest authRequest, HttpServletRequest request) {
+        String clientIp = request.getRemoteAddr();
+        loginAttemptTracker.checkAllowed(authRequest.getEmail(), clientIp);
 
-        String token = jwtTokenProvider.generateToken(authRequest.getEmail());
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(authRequest.getEmail(), authRequest.getPassword())
+            );
+        } catch (AuthenticationException ex) {
+            loginAttemptTracker.recordFailure(authRequest.getEmail(), clientIp);
+            throw new InvalidCredentialsException("E-Mail oder Passwort ist falsch.");
+        }
+
+        String token = jwtTokenProvider.generateToken(authentication);
         return ResponseEntity.ok(token);
     }
+
+    /**
+     * Meldet einen Benutzer ab, indem das übermittelte JWT widerrufen wird.
+     * <p>
+     * Das Token wird von den Verifizierern nach dem nächsten Abgleich der Widerrufe abgelehnt.
+     *
+     * @param authorization Der Authorization-Header im Format "Bearer &lt;Token&gt;".
+     * @return ResponseEntity mit dem Statuscode 204 (No Content).
+     * @throws InvalidCredentialsException wenn kein gültiges Token übermittelt wurde.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            throw new InvalidCredentialsException("Kein Token angegeben.");
+        }
+        tokenRevocationService.revoke(authorization.substring(7));
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -0,0 +1,46 @@
+package de.spring.tutorial.controller;
+
+import de.spring.tutorial.security.SigningKeyManager;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+/**
+ * REST-Controller für die Veröffentlichung der öffentlichen Signaturschlüssel als JWKS.
+ * Verifizierer (Customer-Service, Gateway) prüfen damit die Tokens, ohne das Signaturgeheimnis zu kennen.
+ */
+@RestController
+@RequestMapping("/auth/.well-known")
+public class JwksController {
+
+    private static final MediaType JWK_SET_JSON = MediaType.parseMediaType("application/jwk-set+json");
+
+    private final SigningKeyManager signingKeyManager;
+
+    /**
+     * Konstruktor für {@link JwksController} mit Dependency Injection.
+     *
+     * @param signingKeyManager Verwaltung der Signaturschlüssel
+     */
+    public JwksController(SigningKeyManager signingKeyManager) {
+        this.signingKeyManager = signingKeyManager;
+    }
+
+    /**
+     * Liefert alle aktuell gültigen öffentlichen Schlüssel als JWKS.
+     *
+     * @return ResponseEntity mit dem JWKS.
+     */
+    @GetMapping("/jwks.json")
+    public ResponseEntity<String> getJwks() {
+        return ResponseEntity.ok()
+                .contentType(JWK_SET_JSON)
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(signingKeyManager.getActiveKeys().jwks());
+    }
+}
@@ -0,0 +1,46 @@
+package de.spring.tutorial.controller;
+
+import de.spring.tutorial.model.RevokedToken;
+import de.spring.tutorial.service.TokenRevocationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST-Controller für den Abgleich der widerrufenen JWTs durch die Verifizierer (Customer-Service, Gateway).
+ * Die Einträge enthalten nur Token-Kennungen und Ablaufzeiten, keine Benutzerdaten.
+ */
+@RestController
+@RequestMapping("/auth/revocations")
+public class TokenRevocationController {
+
+    private static final int MAX_LIMIT = 5000;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    /**
+     * Konstruktor für {@link TokenRevocationController} mit Dependency Injection.
+     *
+     * @param tokenRevocationService Service für den Widerruf von Tokens
+     */
+    public TokenRevocationController(TokenRevocationService tokenRevocationService) {
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    /**
+     * Ruft die Widerrufe nach dem angegebenen Offset ab.
+     *
+     * @param after Der zuletzt gelesene Offset.
+     * @param limit Die maximale Anzahl an Einträgen (höchstens 5000).
+     * @return ResponseEntity mit den Widerrufen in aufsteigender Reihenfolge.
+     */
+    @GetMapping
+    public ResponseEntity<List<RevokedToken>> getRevocations(@RequestParam(defaultValue = "0") long after,
+                                                             @RequestParam(defaultValue = "1000") int limit) {
+        return ResponseEntity.ok(tokenRevocationService.getRevocationsAfter(after, Math.clamp(limit, 1, MAX_LIMIT)));
+    }
+}
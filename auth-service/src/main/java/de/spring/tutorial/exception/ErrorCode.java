@@ -0,0 +1,35 @@
+package de.spring.tutorial.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Feste Fehlercodes, die der {@link ErrorResponseWriter} als JSON-Fehlerantwort ausgibt.
+ * Jeder Code ist an einen HTTP-Status und eine Standardnachricht gebunden.
+ */
+public enum ErrorCode {
+
+    UNAUTHORIZED(HttpStatus.UNAUTHORIZED, "Authentication failed"),
+    SERVICE_OVERLOADED(HttpStatus.SERVICE_UNAVAILABLE, "Der Service ist ausgelastet. Bitte später erneut versuchen.");
+
+    private final HttpStatus status;
+    private final String defaultMessage;
+
+    ErrorCode(HttpStatus status, String defaultMessage) {
+        this.status = status;
+        this.defaultMessage = defaultMessage;
+    }
+
+    /**
+     * @return der HTTP-Status, mit dem dieser Fehler beantwortet wird.
+     */
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return die Nachricht, die verwendet wird, wenn keine eigene Nachricht angegeben ist.
+     */
+    public String getDefaultMessage() {
+        return defaultMessage;
+    }
+}
@@ -0,0 +1,145 @@
+package de.spring.tutorial.exception;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Schreibt JSON-Fehlerantworten direkt in den Ausgabestrom der HTTP-Antwort.
+ * <p>
+ * Die festen Bestandteile jeder Fehlerantwort (Status, Fehlerbeschreibung, Fehlercode und Standardnachricht)
+ * werden einmalig pro {@link ErrorCode} als UTF-8-Bytes vorberechnet. Pro Anfrage werden nur noch der
+ * Zeitstempel und gegebenenfalls eine individuelle Nachricht eingefügt. Der Zeitstempel wird sekundengenau
+ * formatiert und bis zum Sekundenwechsel wiederverwendet.
+ * <p>
+ * Format: {@code {"timestamp":"...","status":404,"error":"Not Found","errorCode":"...","message":"..."}}
+ */
+@Component
+public class ErrorResponseWriter {
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final byte[] TIMESTAMP_PREFIX = bytes("{\"timestamp\":\"");
+    private static final byte[] SUFFIX = bytes("\"}");
+
+    private final Map<ErrorCode, byte[]> statusParts = new EnumMap<>(ErrorCode.class);
+    private final Map<ErrorCode, byte[]> defaultMessageParts = new EnumMap<>(ErrorCode.class);
+    private final ZoneId zoneId = ZoneId.systemDefault();
+
+    private volatile CachedTimestamp cachedTimestamp = new CachedTimestamp(Long.MIN_VALUE, new byte[0]);
+
+    /**
+     * Berechnet die festen Bestandteile aller Fehlercodes vor.
+     */
+    public ErrorResponseWriter() {
+        for (ErrorCode errorCode : ErrorCode.values()) {
+            statusParts.put(errorCode, bytes("\",\"status\":" + errorCode.getStatus().value()
+                    + ",\"error\":\"" + escape(errorCode.getStatus().getReasonPhrase())
+                    + "\",\"errorCode\":\"" + errorCode.name()
+                    + "\",\"message\":\""));
+            defaultMessageParts.put(errorCode, bytes(escape(errorCode.getDefaultMessage())));
+        }
+    }
+
+    /**
+     * Schreibt die Fehlerantwort mit der Standardnachricht des Fehlercodes.
+     *
+     * @param response die HTTP-Antwort, in die geschrieben wird
+     * @param errorCode der Fehlercode
+     * @throws IOException wenn beim Schreiben der Antwort ein Fehler auftritt
+     */
+    public void write(HttpServletResponse response, ErrorCode errorCode) throws IOException {
+        writeParts(response, errorCode, defaultMessageParts.get(errorCode));
+    }
+
+    /**
+     * Schreibt die Fehlerantwort mit einer individuellen Nachricht.
+     * Ist die Nachricht {@code null}, wird die Standardnachricht des Fehlercodes verwendet.
+     *
+     * @param response die HTTP-Antwort, in die geschrieben wird
+     * @param errorCode der Fehlercode
+     * @param message die Fehlermeldung
+     * @throws IOException wenn beim Schreiben der Antwort ein Fehler auftritt
+     */
+    public void write(HttpServletResponse response, ErrorCode errorCode, String message) throws IOException {
+        byte[] messagePart = message == null ? defaultMessageParts.get(errorCode) : bytes(escape(message));
+        writeParts(response, errorCode, messagePart);
+    }
+
+    private void writeParts(HttpServletResponse response, ErrorCode errorCode, byte[] messagePart) throws IOException {
+        byte[] timestamp = currentTimestamp();
+        byte[] statusPart = statusParts.get(errorCode);
+
+        response.setStatus(errorCode.getStatus().value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(TIMESTAMP_PREFIX.length + timestamp.length + statusPart.length
+                + messagePart.length + SUFFIX.length);
+
+        ServletOutputStream out = response.getOutputStream();
+        out.write(TIMESTAMP_PREFIX);
+        out.write(timestamp);
+        out.write(statusPart);
+        out.write(messagePart);
+        out.write(SUFFIX);
+        out.flush();
+    }
+
+    /**
+     * Liefert den sekundengenau formatierten Zeitstempel und formatiert ihn nur bei einem Sekundenwechsel neu.
+     */
+    private byte[] currentTimestamp() {
+        long epochSecond = System.currentTimeMillis() / 1000;
+        CachedTimestamp cached = cachedTimestamp;
+        if (cached.epochSecond() != epochSecond) {
+            LocalDateTime now = LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), zoneId);
+            cached = new CachedTimestamp(epochSecond, bytes(TIMESTAMP_FORMAT.format(now)));
+            cachedTimestamp = cached;
+        }
+        return cached.bytes();
+    }
+
+    /**
+     * Maskiert die Zeichen, die innerhalb eines JSON-Strings nicht unverändert vorkommen dürfen.
+     */
+    private static String escape(String value) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = switch (c) {
+                case '"' -> "\\\"";
+                case '\\' -> "\\\\";
+                case '\n' -> "\\n";
+                case '\r' -> "\\r";
+                case '\t' -> "\\t";
+                default -> c < 0x20 ? String.format("\\u%04x", (int) c) : null;
+            };
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(value.length() + 16).append(value, 0, i);
+            }
+            if (escaped != null) {
+                if (replacement != null) {
+                    escaped.append(replacement);
+                } else {
+                    escaped.append(c);
+                }
+            }
+        }
+        return escaped == null ? value : escaped.toString();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record CachedTimestamp(long epochSecond, byte[] bytes) {
+    }
+}
@@ -0,0 +1,30 @@
+package de.spring.tutorial.exception;
+
+import java.time.Duration;
+
+/**
+ * Wird geworfen, wenn für eine E-Mail-Adresse oder eine IP-Adresse zu viele fehlgeschlagene Anmeldungen
+ * vorliegen. Die Anmeldung wird dann ohne Prüfung des Passworts abgelehnt.
+ */
+public class TooManyLoginAttemptsException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    /**
+     * Konstruktor für die {@link TooManyLoginAttemptsException}.
+     *
+     * @param message die Fehlermeldung
+     * @param retryAfter Zeit, nach der frühestens ein neuer Versuch sinnvoll ist
+     */
+    public TooManyLoginAttemptsException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return Zeit, nach der frühestens ein neuer Versuch sinnvoll ist
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
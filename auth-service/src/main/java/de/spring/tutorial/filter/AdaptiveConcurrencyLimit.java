@@ -0,0 +1,148 @@
+package de.spring.tutorial.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adaptives Limit für gleichzeitig bearbeitete Anfragen nach dem Gradienten-Verfahren.
+ * <p>
+ * Die Bearbeitungszeiten werden in Zeitfenstern gesammelt. Am Ende eines Fensters wird deren Mittelwert
+ * (kurzfristige Laufzeit) mit einem gleitenden Mittel über viele Fenster (langfristige Laufzeit) verglichen.
+ * Steigt die kurzfristige Laufzeit über die Toleranz, sinkt das Limit proportional (Gradient, höchstens auf die
+ * Hälfte je Fenster); andernfalls wächst es um etwa die Wurzel des Limits. Das entspricht einem AIMD-Regler,
+ * der statt auf Fehler bereits auf steigende Latenz reagiert, z.B. wenn die Datenbank langsamer wird.
+ * <p>
+ * Wird das Limit im Fenster nicht einmal zur Hälfte ausgeschöpft, bleibt es unverändert, da die Laufzeiten dann
+ * nichts über die Kapazität aussagen. Die Auswertung erfolgt ohne Sperre durch den Thread, der das Fenster abschließt.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double LONG_RTT_FACTOR = 0.05;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+    private final int minWindowSamples;
+    private final double smoothing;
+    private final double tolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger windowMaxInFlight = new AtomicInteger();
+    private final LongAdder windowRttNanos = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private volatile double limit;
+    private volatile double longRttNanos;
+
+    /**
+     * Konstruktor für das {@link AdaptiveConcurrencyLimit}.
+     *
+     * @param initialLimit Limit beim Start
+     * @param minLimit untere Grenze des Limits
+     * @param maxLimit obere Grenze des Limits
+     * @param windowMillis Mindestdauer eines Messfensters in Millisekunden
+     * @param minWindowSamples Mindestanzahl an Messwerten je Fenster
+     * @param smoothing Anteil des neu berechneten Limits (0 bis 1), mit dem das Limit angepasst wird
+     * @param tolerance Faktor, um den die kurzfristige Laufzeit die langfristige übersteigen darf, ohne das Limit zu senken
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long windowMillis,
+                                    int minWindowSamples, double smoothing, double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowNanos = windowMillis * 1_000_000;
+        this.minWindowSamples = minWindowSamples;
+        this.smoothing = smoothing;
+        this.tolerance = tolerance;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    /**
+     * Belegt einen Platz, sofern Anfragen der angegebenen Priorität noch Plätze zustehen.
+     *
+     * @param priority die Priorität der Anfrage
+     * @return {@code true}, wenn die Anfrage bearbeitet werden darf; dann muss {@link #release(long)} folgen
+     */
+    public boolean tryAcquire(RequestPriority priority) {
+        int allowed = Math.max(1, (int) (limit * priority.getLimitShare()));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                if (current + 1 > windowMaxInFlight.get()) {
+                    windowMaxInFlight.accumulateAndGet(current + 1, Math::max);
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gibt einen Platz frei und erfasst die Bearbeitungszeit der Anfrage.
+     *
+     * @param rttNanos die Bearbeitungszeit in Nanosekunden
+     */
+    public void release(long rttNanos) {
+        inFlight.decrementAndGet();
+        windowRttNanos.add(rttNanos);
+        windowSamples.increment();
+
+        long start = windowStart.get();
+        long now = System.nanoTime();
+        if (now - start >= windowNanos && windowSamples.sum() >= minWindowSamples && windowStart.compareAndSet(start, now)) {
+            update();
+        }
+    }
+
+    /**
+     * @return das aktuelle Limit
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return die Anzahl der aktuell bearbeiteten Anfragen
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return die langfristige mittlere Bearbeitungszeit in Sekunden
+     */
+    public double getLongRttSeconds() {
+        return longRttNanos / 1_000_000_000.0;
+    }
+
+    /**
+     * Wertet das abgeschlossene Fenster aus. Wird je Fenster von genau einem Thread aufgerufen.
+     */
+    private void update() {
+        long samples = windowSamples.sumThenReset();
+        long rttSum = windowRttNanos.sumThenReset();
+        int maxInFlight = windowMaxInFlight.getAndSet(inFlight.get());
+        if (samples == 0) {
+            return;
+        }
+
+        double shortRtt = (double) rttSum / samples;
+        double longRtt = longRttNanos == 0 ? shortRtt : longRttNanos * (1 - LONG_RTT_FACTOR) + shortRtt * LONG_RTT_FACTOR;
+        // Nach einer Lastspitze holt die langfristige Laufzeit die gesunkene kurzfristige schneller ein
+        if (longRtt > shortRtt * 2) {
+            longRtt *= 0.95;
+        }
+        longRttNanos = longRtt;
+
+        double current = limit;
+        if (maxInFlight < current / 2) {
+            return;
+        }
+        double gradient = Math.clamp(tolerance * longRtt / shortRtt, MIN_GRADIENT, 1.0);
+        double newLimit = current * gradient + Math.sqrt(current);
+        limit = Math.clamp(current * (1 - smoothing) + newLimit * smoothing, minLimit, maxLimit);
+    }
+}
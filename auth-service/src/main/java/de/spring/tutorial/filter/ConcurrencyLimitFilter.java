@@ -0,0 +1,144 @@
+package de.spring.tutorial.filter;
+
+import de.spring.tutorial.exception.ErrorCode;
+import de.spring.tutorial.exception.ErrorResponseWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filter zur adaptiven Begrenzung gleichzeitig bearbeiteter Anfragen.
+ * <p>
+ * Vor der Bearbeitung wird über das {@link AdaptiveConcurrencyLimit} ein Platz belegt. Steht der Anfrage nach
+ * ihrer {@link RequestPriority} kein Platz mehr zu, wird sie sofort mit 503 abgewiesen, statt in der Warteschlange
+ * von Tomcat zu warten. Die Priorität ergibt sich aus der ersten passenden Regel, ohne passende Regel gilt
+ * {@link RequestPriority#NORMAL}. Die ausgenommenen Pfade werden nicht begrenzt.
+ */
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final List<PriorityRule> priorityRules;
+    private final RequestMatcher excludedPaths;
+    private final ErrorResponseWriter errorResponseWriter;
+    private final Map<RequestPriority, Counter> acceptedCounters = new EnumMap<>(RequestPriority.class);
+    private final Map<RequestPriority, Counter> rejectedCounters = new EnumMap<>(RequestPriority.class);
+
+    /**
+     * Regel, die Anfragen eine Priorität zuordnet.
+     *
+     * @param matcher die passenden Anfragen
+     * @param priority die Priorität dieser Anfragen
+     */
+    public record PriorityRule(RequestMatcher matcher, RequestPriority priority) {
+    }
+
+    /**
+     * Konstruktor für den {@link ConcurrencyLimitFilter}.
+     *
+     * @param concurrencyLimit das adaptive Limit
+     * @param priorityRules die Regeln zur Bestimmung der Priorität, die erste passende Regel gilt
+     * @param excludedPaths die Pfade, die nicht begrenzt werden
+     * @param errorResponseWriter Writer für die Fehlerantwort bei Überlast
+     * @param meterRegistry Registry für die Metriken des Limits
+     */
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimit concurrencyLimit, List<PriorityRule> priorityRules,
+                                  RequestMatcher excludedPaths, ErrorResponseWriter errorResponseWriter,
+                                  MeterRegistry meterRegistry) {
+        this.concurrencyLimit = concurrencyLimit;
+        this.priorityRules = List.copyOf(priorityRules);
+        this.excludedPaths = excludedPaths;
+        this.errorResponseWriter = errorResponseWriter;
+
+        Gauge.builder("concurrency.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Aktuelles Limit gleichzeitig bearbeiteter Anfragen")
+                .register(meterRegistry);
+        Gauge.builder("concurrency.in-flight", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Anzahl der aktuell bearbeiteten Anfragen")
+                .register(meterRegistry);
+        Gauge.builder("concurrency.long-rtt", concurrencyLimit, AdaptiveConcurrencyLimit::getLongRttSeconds)
+                .description("Langfristige mittlere Bearbeitungszeit, an der das Limit ausgerichtet wird")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        for (RequestPriority priority : RequestPriority.values()) {
+            acceptedCounters.put(priority, requestCounter(meterRegistry, priority, "accepted"));
+            rejectedCounters.put(priority, requestCounter(meterRegistry, priority, "rejected"));
+        }
+    }
+
+    /**
+     * Überspringt den Filter für die ausgenommenen Pfade.
+     *
+     * @param request die aktuelle HTTP-Anfrage
+     * @return {@code true}, wenn die Anfrage nicht begrenzt wird
+     */
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return excludedPaths.matches(request);
+    }
+
+    /**
+     * Belegt einen Platz für die Anfrage oder weist sie bei Überlast mit 503 ab.
+     *
+     * @param request die aktuelle HTTP-Anfrage
+     * @param response die aktuelle HTTP-Antwort
+     * @param filterChain die restliche Filterkette
+     * @throws ServletException im Fehlerfall
+     * @throws IOException im Fehlerfall
+     */
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        RequestPriority priority = resolvePriority(request);
+        if (!concurrencyLimit.tryAcquire(priority)) {
+            rejectedCounters.get(priority).increment();
+            log.debug("Anfrage {} {} wegen Überlast abgewiesen (Priorität {}, Limit {})",
+                    request.getMethod(), request.getRequestURI(), priority, concurrencyLimit.getLimit());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            errorResponseWriter.write(response, ErrorCode.SERVICE_OVERLOADED);
+            return;
+        }
+
+        acceptedCounters.get(priority).increment();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            concurrencyLimit.release(System.nanoTime() - start);
+        }
+    }
+
+    private RequestPriority resolvePriority(HttpServletRequest request) {
+        for (PriorityRule rule : priorityRules) {
+            if (rule.matcher().matches(request)) {
+                return rule.priority();
+            }
+        }
+        return RequestPriority.NORMAL;
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, RequestPriority priority, String result) {
+        return Counter.builder("concurrency.requests")
+                .description("Anfragen nach Priorität und Ergebnis der Begrenzung")
+                .tag("priority", priority.name().toLowerCase())
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,27 @@
+package de.spring.tutorial.model;
+
+import java.util.Locale;
+
+/**
+ * Bringt E-Mail-Adressen in die kanonische Form für Suche und Eindeutigkeit: ohne umgebende Leerzeichen und
+ * in Kleinschreibung. {@code Max.Muster@Example.DE} und {@code max.muster@example.de} gelten damit als dieselbe
+ * Adresse.
+ * <p>
+ * Der lokale Teil wird bewusst nicht weiter umgeschrieben (Punkte, {@code +}-Suffixe), da dies vom Anbieter
+ * abhängt.
+ */
+public final class EmailNormalizer {
+
+    private EmailNormalizer() {
+    }
+
+    /**
+     * Normalisiert eine E-Mail-Adresse.
+     *
+     * @param email die E-Mail-Adresse in beliebiger Schreibweise, darf {@code null} sein
+     * @return die normalisierte Adresse oder {@code null}, wenn keine angegeben wurde
+     */
+    public static String normalize(String email) {
+        return email != null ? email.strip().toLowerCase(Locale.ROOT) : null;
+    }
+}
@@ -0,0 +1,46 @@
+package de.spring.tutorial.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Entität für ein widerrufenes JWT (z.B. nach einem Logout).
+ * <p>
+ * Gespeichert wird nur die Token-Kennung ({@code jti}) und die Ablaufzeit des Tokens; danach ist der Eintrag
+ * überflüssig und wird gelöscht. Die ID dient den Verifizierern zugleich als Offset für den inkrementellen Abgleich.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_revoked_token_expires_at", columnList = "expiresAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedToken {
+
+    /**
+     * Primärschlüssel und Offset für den Abgleich der Verifizierer.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Kennung des widerrufenen Tokens ({@code jti}).
+     */
+    @Column(nullable = false, unique = true, length = 36)
+    private String jti;
+
+    /**
+     * Ablaufzeit des widerrufenen Tokens.
+     */
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    /**
+     * Zeitpunkt des Widerrufs.
+     */
+    @Column(nullable = false)
+    private Instant revokedAt;
+}
@@ -0,0 +1,46 @@
+package de.spring.tutorial.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Entität für ein Schlüsselpaar zur Signatur der JWTs (ES256).
+ * <p>
+ * Die Schlüssel werden gespeichert, damit ausgestellte Tokens einen Neustart überstehen und mehrere
+ * Instanzen des Auth-Service dieselben Schlüssel verwenden. Die Kennung {@code kid} steht im Header
+ * jedes Tokens, sodass Verifizierer den passenden öffentlichen Schlüssel aus dem JWKS wählen können.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_signing_key_created_at", columnList = "createdAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SigningKey {
+
+    /**
+     * Kennung des Schlüssels ({@code kid}).
+     */
+    @Id
+    private String kid;
+
+    /**
+     * Öffentlicher Schlüssel im X.509-Format.
+     */
+    @Column(nullable = false, length = 512)
+    private byte[] publicKey;
+
+    /**
+     * Privater Schlüssel im PKCS#8-Format, verschlüsselt mit dem {@code SigningKeyCipher}.
+     */
+    @Column(nullable = false, length = 512)
+    private byte[] privateKey;
+
+    /**
+     * Zeitpunkt der Erzeugung; ab hier wird mit dem Schlüssel signiert.
+     */
+    @Column(nullable = false)
+    private Instant createdAt;
+}
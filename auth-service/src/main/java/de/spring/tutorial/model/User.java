@@ -7,10 +7,15 @@ import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 
+import java.util.Objects;
+
 /**
  * Entität, die einen Benutzer im System repräsentiert.
  * Diese Entität wird für die Speicherung und Verwaltung von Benutzerdaten verwendet.
  * Sie enthält Felder für die E-Mail-Adresse und das Passwort des Benutzers.
+ * <p>
+ * Die E-Mail-Adresse wird zusätzlich in Kleinschreibung mit eindeutigem Index gespeichert. Login und
+ * Registrierung suchen über diese Spalte, sodass die Schreibweise der Adresse keine Rolle spielt.
  */
 @Entity
 @Data
@@ -59,4 +64,43 @@ public class User {
     )
     private String password;
 
+    /**
+     * E-Mail-Adresse in Kleinschreibung, wird beim Anlegen und bei jeder Änderung von {@link #email} berechnet.
+     * Bei Dubletten in anderer Schreibweise bleibt sie bewusst leer, siehe {@link #normalizeEmail()}.
+     */
+    @Column(unique = true)
+    private String emailNormalized;
+
+    /**
+     * E-Mail-Adresse, wie sie zuletzt aus der Datenbank gelesen oder in sie geschrieben wurde.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private String loadedEmail;
+
+    /**
+     * Berechnet die normalisierte E-Mail-Adresse vor dem Schreiben, wenn der Benutzer neu ist oder sich seine
+     * E-Mail-Adresse geändert hat. Bestehende Benutzer behalten ihren Wert; bei Dubletten in anderer Schreibweise
+     * ist er bewusst leer und würde sonst beim nächsten Speichern am eindeutigen Index scheitern.
+     */
+    @PrePersist
+    @PreUpdate
+    void normalizeEmail() {
+        if (id == null || !Objects.equals(email, loadedEmail)) {
+            emailNormalized = EmailNormalizer.normalize(email);
+        }
+    }
+
+    /**
+     * Merkt sich die E-Mail-Adresse nach dem Lesen und Schreiben, um Änderungen zu erkennen.
+     */
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void rememberEmail() {
+        loadedEmail = email;
+    }
 }
@@ -0,0 +1,48 @@
+package de.spring.tutorial.repository;
+
+import de.spring.tutorial.model.RevokedToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository für die widerrufenen JWTs.
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    /**
+     * Prüft, ob ein Token mit der angegebenen Kennung bereits widerrufen wurde.
+     *
+     * @param jti die Kennung des Tokens
+     * @return {@code true}, wenn das Token bereits widerrufen wurde
+     */
+    boolean existsByJti(String jti);
+
+    /**
+     * Findet die Widerrufe nach dem angegebenen Offset, aufsteigend sortiert.
+     *
+     * @param id der zuletzt gelesene Offset
+     * @param pageable Begrenzung der Anzahl
+     * @return die gefundenen Widerrufe
+     */
+    List<RevokedToken> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Löscht alle Widerrufe von Tokens, die vor dem angegebenen Zeitpunkt abgelaufen sind.
+     *
+     * @param expiredBefore der Zeitpunkt, vor dem abgelaufene Tokens entfernt werden
+     * @return die Anzahl der gelöschten Einträge
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt < :expiredBefore")
+    int deleteExpiredBefore(@Param("expiredBefore") Instant expiredBefore);
+}
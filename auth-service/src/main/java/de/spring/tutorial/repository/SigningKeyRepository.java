@@ -0,0 +1,38 @@
+package de.spring.tutorial.repository;
+
+import de.spring.tutorial.model.SigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository für die Schlüssel zur Signatur der JWTs.
+ */
+@Repository
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+
+    /**
+     * Findet alle Schlüssel, die nach dem angegebenen Zeitpunkt erzeugt wurden, der neueste zuerst.
+     *
+     * @param createdAfter der früheste Erzeugungszeitpunkt
+     * @return die gefundenen Schlüssel, absteigend nach Erzeugungszeitpunkt
+     */
+    List<SigningKey> findByCreatedAtAfterOrderByCreatedAtDesc(Instant createdAfter);
+
+    /**
+     * Löscht alle Schlüssel, die vor dem angegebenen Zeitpunkt erzeugt wurden.
+     *
+     * @param createdBefore der Zeitpunkt, vor dem erzeugte Schlüssel gelöscht werden
+     * @return die Anzahl der gelöschten Schlüssel
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SigningKey k WHERE k.createdAt < :createdBefore")
+    int deleteCreatedBefore(@Param("createdBefore") Instant createdBefore);
+}
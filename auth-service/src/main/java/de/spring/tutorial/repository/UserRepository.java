@@ -1,9 +1,14 @@
 package de.spring.tutorial.repository;
 
 import de.spring.tutorial.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -17,12 +22,78 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
 
     /**
-     * Findet einen Benutzer anhand seiner E-Mail-Adresse.
-     * Diese Methode wird verwendet, um zu prüfen, ob ein Benutzer mit einer bestimmten E-Mail-Adresse existiert,
-     * z.B. bei der Registrierung oder beim Login.
+     * ID und E-Mail-Adresse eines Benutzers.
+     */
+    interface EmailAddress {
+
+        /**
+         * @return die ID des Benutzers
+         */
+        Long getId();
+
+        /**
+         * @return die E-Mail-Adresse in der eingegebenen Schreibweise
+         */
+        String getEmail();
+    }
+
+    /**
+     * Findet einen Benutzer anhand seiner normalisierten E-Mail-Adresse.
+     * Diese Methode wird beim Login verwendet und nutzt den eindeutigen Index der Spalte.
+     *
+     * @param emailNormalized Die E-Mail-Adresse des Benutzers in Kleinschreibung.
+     * @return Ein `Optional<User>`, das den gefundenen Benutzer enthält, oder leer, wenn kein Benutzer mit der angegebenen E-Mail existiert.
+     */
+    Optional<User> findByEmailNormalized(String emailNormalized);
+
+    /**
+     * Findet einen Benutzer anhand seiner E-Mail-Adresse in der gespeicherten Schreibweise.
+     * Wird beim Login für Benutzer verwendet, deren normalisierte E-Mail-Adresse fehlt (noch nicht nachgetragen
+     * oder als Dublette in anderer Schreibweise übersprungen).
      *
      * @param email Die E-Mail-Adresse des Benutzers.
      * @return Ein `Optional<User>`, das den gefundenen Benutzer enthält, oder leer, wenn kein Benutzer mit der angegebenen E-Mail existiert.
      */
     Optional<User> findByEmail(String email);
+
+    /**
+     * Prüft, ob ein Benutzer mit der normalisierten E-Mail-Adresse existiert, z.B. bei der Registrierung.
+     *
+     * @param emailNormalized Die E-Mail-Adresse in Kleinschreibung.
+     * @return {@code true}, wenn die Adresse bereits vergeben ist
+     */
+    boolean existsByEmailNormalized(String emailNormalized);
+
+    /**
+     * Liest die E-Mail-Adressen von Benutzern, deren normalisierte E-Mail-Adresse noch nicht berechnet ist.
+     * Seitenweise in aufsteigender Reihenfolge der ID.
+     *
+     * @param afterId die ID, nach der die Seite beginnt
+     * @param limit maximale Anzahl an Benutzern der Seite
+     * @return die E-Mail-Adressen der Benutzer
+     */
+    List<EmailAddress> findByIdGreaterThanAndEmailNormalizedIsNullOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * Setzt die normalisierte E-Mail-Adresse eines Benutzers.
+     *
+     * @param id die ID des Benutzers
+     * @param emailNormalized die E-Mail-Adresse in Kleinschreibung
+     * @return Anzahl der geänderten Datensätze (0 oder 1)
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.emailNormalized = :emailNormalized WHERE u.id = :id")
+    int updateEmailNormalized(@Param("id") Long id, @Param("emailNormalized") String emailNormalized);
+
+    /**
+     * Setzt den Passwort-Hash eines Benutzers, ohne die übrigen Spalten zu schreiben. Die normalisierte E-Mail-Adresse
+     * bleibt dadurch auch bei Dubletten in anderer Schreibweise unverändert leer.
+     *
+     * @param id die ID des Benutzers
+     * @param password der neue Passwort-Hash
+     * @return Anzahl der geänderten Datensätze (0 oder 1)
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
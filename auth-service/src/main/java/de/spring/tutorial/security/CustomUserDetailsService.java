@@ -1,21 +1,30 @@
 package de.spring.tutorial.security;
 
+import de.spring.tutorial.model.EmailNormalizer;
 import de.spring.tutorial.model.User;
 import de.spring.tutorial.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
+import java.util.Optional;
 
 /**
  * Service zur Bereitstellung von Benutzerinformationen für die Authentifizierung.
  * Implementiert das `UserDetailsService`-Interface von Spring Security, um Benutzer basierend
  * auf der E-Mail-Adresse zu laden und diese für die Authentifizierung bereitzustellen.
+ * <p>
+ * Als {@link UserDetailsPasswordService} speichert er außerdem Hashes, die Spring Security nach einem
+ * erfolgreichen Login neu erzeugt, weil Verfahren oder Parameter des gespeicherten Hashes veraltet sind.
  */
+@Slf4j
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -31,6 +40,9 @@ public class CustomUserDetailsService implements UserDetailsService {
     /**
      * Lädt die Benutzerinformationen anhand des Benutzernamens (E-Mail).
      * Diese Methode wird von Spring Security verwendet, um die Benutzerinformationen zu laden.
+     * Die Groß-/Kleinschreibung der E-Mail-Adresse spielt keine Rolle; als Benutzername wird die gespeicherte
+     * Schreibweise zurückgegeben. Benutzer ohne normalisierte E-Mail-Adresse (Backfill noch nicht gelaufen oder
+     * Dublette in anderer Schreibweise) werden über die exakte Schreibweise gefunden.
      *
      * @param username Die E-Mail-Adresse des Benutzers.
      * @return Ein `UserDetails`-Objekt, das die Benutzerdaten enthält.
@@ -38,10 +50,45 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // Benutzer anhand der E-Mail-Adresse suchen
-        User user = userRepository.findByEmail(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Dieser Benutzer existiert nicht im System."));
+        return toUserDetails(findUser(username));
+    }
+
+    /**
+     * Speichert den neu erzeugten Hash des Benutzers. Wird von Spring Security nach einem erfolgreichen Login
+     * aufgerufen, wenn {@code PasswordEncoder.upgradeEncoding} den gespeicherten Hash als veraltet meldet.
+     *
+     * @param userDetails der angemeldete Benutzer mit dem bisherigen Hash
+     * @param newPassword der neue Hash
+     * @return der Benutzer mit dem neuen Hash
+     * @throws UsernameNotFoundException Wenn der Benutzer inzwischen nicht mehr existiert.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = findUser(userDetails.getUsername());
+        // Nur den Hash schreiben: Ein Speichern der ganzen Entität würde die normalisierte E-Mail-Adresse neu
+        // berechnen und bei Dubletten in anderer Schreibweise (Spalte bewusst leer) am eindeutigen Index scheitern
+        userRepository.updatePassword(user.getId(), newPassword);
+        log.debug("Passwort-Hash für Benutzer {} erneuert", user.getId());
+        return toUserDetails(user.toBuilder().password(newPassword).build());
+    }
+
+    /**
+     * Sucht den Benutzer über die normalisierte E-Mail-Adresse. Fehlt dort ein Treffer oder gehört er zu einer
+     * anderen Schreibweise, hat ein Benutzer mit genau dieser Schreibweise Vorrang.
+     */
+    private User findUser(String email) {
+        Optional<User> user = userRepository.findByEmailNormalized(EmailNormalizer.normalize(email));
+        if (user.isEmpty() || !user.get().getEmail().equals(email)) {
+            Optional<User> exact = userRepository.findByEmail(email);
+            if (exact.isPresent()) {
+                user = exact;
+            }
+        }
+        return user.orElseThrow(() -> new UsernameNotFoundException("Dieser Benutzer existiert nicht im System."));
+    }
 
+    private static UserDetails toUserDetails(User user) {
         // Rückgabe eines Spring Security UserDetails-Objekts
         return new org.springframework.security.core.userdetails.User(
                 user.getEmail(),
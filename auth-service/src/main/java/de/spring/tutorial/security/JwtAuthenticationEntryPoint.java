@@ -1,5 +1,7 @@
 package de.spring.tutorial.security;
 
+import de.spring.tutorial.exception.ErrorCode;
+import de.spring.tutorial.exception.ErrorResponseWriter;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
@@ -15,11 +17,23 @@ import lombok.extern.slf4j.Slf4j;
  * nicht authentifiziert ist oder ungültige Anmeldeinformationen bereitstellt.
  * Die `commence`-Methode sendet eine HTTP-Fehlermeldung mit dem Statuscode `401 Unauthorized`,
  * um anzuzeigen, dass der Benutzer nicht autorisiert ist, auf die angeforderte Ressource zuzugreifen.
+ * Die JSON-Antwort wird über den {@link ErrorResponseWriter} aus vorberechneten Bytes geschrieben.
  */
 @Component
 @Slf4j
 public class JwtAuthenticationEntryPoint implements AuthenticationEntryPoint {
 
+    private final ErrorResponseWriter errorResponseWriter;
+
+    /**
+     * Konstruktor für den {@link JwtAuthenticationEntryPoint}.
+     *
+     * @param errorResponseWriter Writer für die vorserialisierten Fehlerantworten
+     */
+    public JwtAuthenticationEntryPoint(ErrorResponseWriter errorResponseWriter) {
+        this.errorResponseWriter = errorResponseWriter;
+    }
+
     /**
      * Wird aufgerufen, wenn eine Authentifizierung erforderlich ist und der Benutzer nicht authentifiziert ist.
      * Diese Methode sendet eine `401 Unauthorized`-Antwort an den Client, wenn die Authentifizierung fehlschlägt.
@@ -34,14 +48,9 @@ public class JwtAuthenticationEntryPoint implements AuthenticationEntryPoint {
     public void commence(HttpServletRequest request, HttpServletResponse response, AuthenticationException authException)
             throws IOException {
         // Loggen der Authentifizierungsfehler für die Diagnose
-        log.error("Authentication failed: {}", authException.getMessage());
-
-        // Antwort mit einem "401 Unauthorized"-Fehler zurücksenden
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-        response.setContentType("application/json");
+        log.debug("Authentication failed: {}", authException.getMessage());
 
-        // Fehlernachricht im JSON-Format senden
-        String message = "{\"error\": \"Unauthorized\", \"message\": \"Authentication failed\"}";
-        response.getWriter().write(message);
+        // Antwort mit einem "401 Unauthorized"-Fehler im JSON-Format zurücksenden
+        errorResponseWriter.write(response, ErrorCode.UNAUTHORIZED);
     }
 }
@@ -1,54 +1,85 @@
 package de.spring.tutorial.security;
 
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
+import java.security.Key;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.Date;
+import java.util.UUID;
 
 /**
- * Diese Klasse stellt Funktionen zum Erzeugen, Validieren und Verarbeiten von JWT (JSON Web Tokens) zur Verfügung.
- * Sie wird verwendet, um Benutzer zu authentifizieren, indem ein Token erstellt und validiert wird.
+ * Diese Klasse stellt Funktionen zum Erzeugen und Prüfen von JWT (JSON Web Tokens) zur Verfügung.
+ * <p>
+ * Die Tokens werden mit dem aktuellen Schlüssel des {@link SigningKeyManager} asymmetrisch (ES256) signiert
+ * und tragen dessen Kennung im Header ({@code kid}). Verifizierer benötigen dadurch kein gemeinsames
+ * Secret, sondern nur die öffentlichen Schlüssel aus dem JWKS. Jedes Token erhält eine eindeutige Kennung
+ * ({@code jti}), über die es widerrufen werden kann. Signieren und Prüfen werden als Observation
+ * ({@code jwt.signing}, {@code jwt.verification}) erfasst.
  */
 @Component
 @Slf4j
 public class JwtTokenProvider {
 
-    private final SecretKey jwtSecret;
+    private final SigningKeyManager signingKeyManager;
+    private final Duration tokenValidity;
+    private final JwtParser jwtParser;
+    private final ObservationRegistry observationRegistry;
 
     /**
-     * Konstruktor, der den geheimen Schlüssel für die JWT-Erstellung aus den Anwendungseigenschaften lädt.
+     * Konstruktor für den {@link JwtTokenProvider}.
      *
-     * @param secret Der Base64-codierte geheime Schlüssel, der zum Signieren der Tokens verwendet wird.
+     * @param signingKeyManager Verwaltung der Signaturschlüssel
+     * @param tokenValidity Gültigkeitsdauer der Tokens
+     * @param observationRegistry Registry für die Observations beim Signieren und Prüfen
      */
-    public JwtTokenProvider(@Value("${app.jwtSecret}") String secret) {
-        this.jwtSecret = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+    public JwtTokenProvider(SigningKeyManager signingKeyManager,
+                            @Value("${app.jwt.token-validity:7d}") Duration tokenValidity,
+                            ObservationRegistry observationRegistry) {
+        this.signingKeyManager = signingKeyManager;
+        this.tokenValidity = tokenValidity;
+        this.observationRegistry = observationRegistry;
+        this.jwtParser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        String kid = header.getKeyId();
+                        return kid != null ? signingKeyManager.getActiveKeys().publicKeys().get(kid) : null;
+                    }
+                })
+                .build();
     }
 
     /**
      * Erzeugt ein JWT für den angegebenen Benutzer-E-Mail.
-     * Das Token ist 7 Tage gültig.
      *
      * @param userEmail Die E-Mail des Benutzers, die als Subjekt des Tokens verwendet wird.
      * @return Ein JWT als String.
      */
     public String generateToken(String userEmail) {
+        return Observation.createNotStarted("jwt.signing", observationRegistry)
+                .observe(() -> buildToken(userEmail));
+    }
+
+    private String buildToken(String userEmail) {
         Instant now = Instant.now();
-        Instant expiration = now.plus(7, ChronoUnit.DAYS);
+        Instant expiration = now.plus(tokenValidity);
+        SigningKeyManager.ActiveKeys keys = signingKeyManager.getActiveKeys();
 
         return Jwts.builder()
+                .header().keyId(keys.kid()).and()
+                .id(UUID.randomUUID().toString())
                 .subject(userEmail)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(expiration))
-                .signWith(jwtSecret, Jwts.SIG.HS512)
+                .signWith(keys.privateKey(), Jwts.SIG.ES256)
                 .compact();
     }
 
@@ -62,4 +93,16 @@ public class JwtTokenProvider {
         User user = (User) authentication.getPrincipal();
         return generateToken(user.getUsername());
     }
+
+    /**
+     * Prüft Signatur und Ablaufzeit eines von diesem Service ausgestellten JWT und liefert dessen Claims.
+     *
+     * @param token das zu prüfende JWT
+     * @return die Claims des Tokens
+     * @throws JwtException wenn das Token ungültig oder abgelaufen ist
+     */
+    public Claims parseClaims(String token) {
+        return Observation.createNotStarted("jwt.verification", observationRegistry)
+                .observe(() -> jwtParser.parseSignedClaims(token).getPayload());
+    }
 }
@@ -0,0 +1,122 @@
+package de.spring.tutorial.security;
+
+import de.spring.tutorial.exception.TooManyLoginAttemptsException;
+import de.spring.tutorial.model.EmailNormalizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Erfasst fehlgeschlagene Anmeldungen je E-Mail-Adresse und je IP-Adresse und sperrt beide vorübergehend.
+ * <p>
+ * Gezählt wird über ein gleitendes Fenster ({@code app.login-throttle.window}) mit einem
+ * {@link SlidingWindowCounter} je Dimension; der Speicherbedarf ist fest, unabhängig von der Anzahl der
+ * angegriffenen Konten oder Angreifer. Die Prüfung kommt vor der Authentifizierung, sodass gesperrte Versuche
+ * weder die Datenbank noch BCrypt belasten. Die Zählung ist eine Schätzung nach oben: Durch Kollisionen kann
+ * eine Sperre in seltenen Fällen früher greifen, nie später. Erfolgreiche Anmeldungen setzen den Zähler nicht
+ * zurück; die Fehlversuche verfallen mit dem Fenster.
+ */
+@Slf4j
+@Component
+public class LoginAttemptTracker {
+
+    private final boolean enabled;
+    private final int maxFailuresPerEmail;
+    private final int maxFailuresPerIp;
+    private final SlidingWindowCounter emailFailures;
+    private final SlidingWindowCounter ipFailures;
+    private final Counter failures;
+    private final Counter emailRejections;
+    private final Counter ipRejections;
+
+    /**
+     * Konstruktor für den {@link LoginAttemptTracker}.
+     *
+     * @param enabled ob fehlgeschlagene Anmeldungen gezählt und gesperrt werden
+     * @param window Länge des gleitenden Fensters
+     * @param slices Anzahl der Zeitscheiben des Fensters; bestimmt, wie gleichmäßig alte Fehlversuche verfallen
+     * @param width Anzahl der Zähler je Zeile des Sketches; bestimmt Speicherbedarf und Genauigkeit
+     * @param maxFailuresPerEmail Fehlversuche je E-Mail-Adresse im Fenster, ab denen gesperrt wird
+     * @param maxFailuresPerIp Fehlversuche je IP-Adresse im Fenster, ab denen gesperrt wird
+     * @param meterRegistry Registry für die Metriken der Sperren
+     */
+    public LoginAttemptTracker(@Value("${app.login-throttle.enabled:true}") boolean enabled,
+                               @Value("${app.login-throttle.window:15m}") Duration window,
+                               @Value("${app.login-throttle.slices:15}") int slices,
+                               @Value("${app.login-throttle.width:16384}") int width,
+                               @Value("${app.login-throttle.max-failures-per-email:5}") int maxFailuresPerEmail,
+                               @Value("${app.login-throttle.max-failures-per-ip:100}") int maxFailuresPerIp,
+                               MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxFailuresPerEmail = maxFailuresPerEmail;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.emailFailures = new SlidingWindowCounter(window.toMillis(), slices, width);
+        this.ipFailures = new SlidingWindowCounter(window.toMillis(), slices, width);
+
+        this.failures = Counter.builder("login.failures")
+                .description("Fehlgeschlagene Anmeldungen")
+                .register(meterRegistry);
+        this.emailRejections = rejectionCounter(meterRegistry, "email");
+        this.ipRejections = rejectionCounter(meterRegistry, "ip");
+    }
+
+    /**
+     * Prüft, ob für die E-Mail-Adresse und die IP-Adresse noch Anmeldungen zulässig sind.
+     *
+     * @param email die E-Mail-Adresse der Anmeldung
+     * @param clientIp die IP-Adresse des Clients
+     * @throws TooManyLoginAttemptsException wenn eine der beiden gesperrt ist
+     */
+    public void checkAllowed(String email, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (ipFailures.estimate(clientIp, now) >= maxFailuresPerIp) {
+            ipRejections.increment();
+            log.debug("Anmeldung von {} wegen zu vieler Fehlversuche abgelehnt", clientIp);
+            throw tooManyAttempts(ipFailures, now);
+        }
+        if (emailFailures.estimate(emailKey(email), now) >= maxFailuresPerEmail) {
+            emailRejections.increment();
+            log.debug("Anmeldung für {} wegen zu vieler Fehlversuche abgelehnt", email);
+            throw tooManyAttempts(emailFailures, now);
+        }
+    }
+
+    /**
+     * Zählt eine fehlgeschlagene Anmeldung für die E-Mail-Adresse und die IP-Adresse.
+     *
+     * @param email die E-Mail-Adresse der Anmeldung
+     * @param clientIp die IP-Adresse des Clients
+     */
+    public void recordFailure(String email, String clientIp) {
+        failures.increment();
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        emailFailures.increment(emailKey(email), now);
+        ipFailures.increment(clientIp, now);
+    }
+
+    private static TooManyLoginAttemptsException tooManyAttempts(SlidingWindowCounter counter, long now) {
+        return new TooManyLoginAttemptsException("Zu viele fehlgeschlagene Anmeldungen. Bitte später erneut versuchen.",
+                Duration.ofMillis(counter.millisUntilNextSlice(now)));
+    }
+
+    private static String emailKey(String email) {
+        return EmailNormalizer.normalize(email);
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("login.rejections")
+                .description("Wegen zu vieler Fehlversuche abgelehnte Anmeldungen")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,71 @@
+package de.spring.tutorial.security;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * {@link PasswordEncoder}, der Hashen und Prüfen der Passwörter als Observation erfasst.
+ * <p>
+ * Das Hashen ist bewusst langsam und bestimmt meist die Laufzeit von Registrierung und Login; als eigener Span
+ * wird dieser Anteil im Trace direkt sichtbar. Die eigentliche Arbeit übernimmt der umhüllte Encoder.
+ */
+public class ObservedPasswordEncoder implements PasswordEncoder {
+
+    private static final String ENCODE_OBSERVATION = "password.encode";
+    private static final String MATCHES_OBSERVATION = "password.matches";
+
+    private final PasswordEncoder delegate;
+    private final ObservationRegistry observationRegistry;
+
+    /**
+     * Konstruktor für den {@link ObservedPasswordEncoder}.
+     *
+     * @param delegate der umhüllte Encoder
+     * @param observationRegistry Registry für die Observations
+     */
+    public ObservedPasswordEncoder(PasswordEncoder delegate, ObservationRegistry observationRegistry) {
+        this.delegate = delegate;
+        this.observationRegistry = observationRegistry;
+    }
+
+    /**
+     * Hasht das Passwort mit dem umhüllten Encoder.
+     *
+     * @param rawPassword das Passwort im Klartext
+     * @return der Hash
+     */
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return Observation.createNotStarted(ENCODE_OBSERVATION, observationRegistry)
+                .observe(() -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * Prüft das Passwort gegen den gespeicherten Hash.
+     *
+     * @param rawPassword das Passwort im Klartext
+     * @param encodedPassword der gespeicherte Hash
+     * @return {@code true}, wenn das Passwort passt
+     */
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        Observation observation = Observation.createNotStarted(MATCHES_OBSERVATION, observationRegistry);
+        return observation.observe(() -> {
+            boolean matches = delegate.matches(rawPassword, encodedPassword);
+            observation.lowCardinalityKeyValue("outcome", matches ? "match" : "mismatch");
+            return matches;
+        });
+    }
+
+    /**
+     * Gibt an, ob der Hash mit den aktuellen Parametern des umhüllten Encoders neu erzeugt werden sollte.
+     *
+     * @param encodedPassword der gespeicherte Hash
+     * @return {@code true}, wenn der Hash erneuert werden sollte
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
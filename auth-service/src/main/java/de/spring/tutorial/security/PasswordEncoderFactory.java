@@ -0,0 +1,160 @@
+package de.spring.tutorial.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+/**
+ * Erzeugt den {@link DelegatingPasswordEncoder} für die Passwörter der Benutzer.
+ * <p>
+ * Neue Hashes entstehen mit dem unter {@code app.password.algorithm} gewählten Verfahren und tragen dessen
+ * Kennung als Präfix, z.B. {@code {bcrypt}$2a$12$...}. Geprüft werden Hashes aller Verfahren; Hashes ohne
+ * Präfix stammen aus der Zeit vor dem {@link DelegatingPasswordEncoder} und werden als BCrypt gelesen.
+ * <p>
+ * Der Aufwand wird beim Start so kalibriert, dass ein Hash auf diesem Knoten etwa
+ * {@code app.password.target-latency} dauert: bei BCrypt über die Stärke, bei Argon2 über die Anzahl der
+ * Iterationen. Gemessen wird mit kleinem Aufwand, hochgerechnet wird linear in den Iterationen (BCrypt:
+ * doppelter Aufwand je Stufe). Die Untergrenzen entsprechen den bisherigen bzw. den von Spring Security
+ * empfohlenen Werten und werden nie unterschritten. Ist ein Parameter fest konfiguriert, entfällt die
+ * Kalibrierung, z.B. damit alle Knoten gleich teure Hashes erzeugen.
+ * <p>
+ * Die Parameter eines Hashes stehen bei BCrypt und Argon2 im Hash selbst; ältere Hashes bleiben daher prüfbar
+ * und werden nach dem nächsten erfolgreichen Login mit den aktuellen Parametern neu erzeugt. PBKDF2 speichert
+ * die Iterationen nicht im Hash und wird deshalb nicht kalibriert.
+ */
+@Slf4j
+@Component
+public class PasswordEncoderFactory {
+
+    private static final String BCRYPT = "bcrypt";
+    private static final String ARGON2 = "argon2";
+    private static final String PBKDF2 = "pbkdf2";
+
+    private static final int MIN_BCRYPT_STRENGTH = 10;
+    private static final int MAX_BCRYPT_STRENGTH = 16;
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+    private static final int ARGON2_PARALLELISM = 1;
+    private static final int MIN_ARGON2_ITERATIONS = 2;
+    private static final int MAX_ARGON2_ITERATIONS = 20;
+    private static final int PBKDF2_SALT_LENGTH = 16;
+    private static final int MEASUREMENTS = 3;
+
+    private final String algorithm;
+    private final Duration targetLatency;
+    private final int bcryptStrength;
+    private final int argon2Iterations;
+    private final int argon2MemoryKib;
+    private final int pbkdf2Iterations;
+
+    /**
+     * Konstruktor für die {@link PasswordEncoderFactory}.
+     *
+     * @param algorithm Verfahren für neue Hashes: {@code bcrypt}, {@code argon2} oder {@code pbkdf2}
+     * @param targetLatency angestrebte Dauer eines Hashes, auf die der Aufwand kalibriert wird
+     * @param bcryptStrength feste BCrypt-Stärke; 0 kalibriert die Stärke
+     * @param argon2Iterations feste Anzahl an Argon2-Iterationen; 0 kalibriert die Iterationen
+     * @param argon2MemoryKib Speicherbedarf von Argon2 in KiB
+     * @param pbkdf2Iterations Anzahl der PBKDF2-Iterationen; muss für bestehende Hashes unverändert bleiben
+     */
+    public PasswordEncoderFactory(@Value("${app.password.algorithm:bcrypt}") String algorithm,
+                                  @Value("${app.password.target-latency:250ms}") Duration targetLatency,
+                                  @Value("${app.password.bcrypt.strength:0}") int bcryptStrength,
+                                  @Value("${app.password.argon2.iterations:0}") int argon2Iterations,
+                                  @Value("${app.password.argon2.memory-kib:19456}") int argon2MemoryKib,
+                                  @Value("${app.password.pbkdf2.iterations:310000}") int pbkdf2Iterations) {
+        if (!Set.of(BCRYPT, ARGON2, PBKDF2).contains(algorithm)) {
+            throw new IllegalArgumentException("Unbekanntes Verfahren für Passwort-Hashes: " + algorithm);
+        }
+        this.algorithm = algorithm;
+        this.targetLatency = targetLatency;
+        this.bcryptStrength = bcryptStrength;
+        this.argon2Iterations = argon2Iterations;
+        this.argon2MemoryKib = argon2MemoryKib;
+        this.pbkdf2Iterations = pbkdf2Iterations;
+    }
+
+    /**
+     * Erzeugt den Encoder und kalibriert dabei den Aufwand des gewählten Verfahrens.
+     *
+     * @return der Encoder für alle unterstützten Verfahren
+     */
+    public PasswordEncoder create() {
+        int strength = bcryptStrength > 0 ? bcryptStrength
+                : BCRYPT.equals(algorithm) ? calibrateBcryptStrength() : MIN_BCRYPT_STRENGTH;
+        int iterations = argon2Iterations > 0 ? argon2Iterations
+                : ARGON2.equals(algorithm) ? calibrateArgon2Iterations() : MIN_ARGON2_ITERATIONS;
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, Map.of(
+                BCRYPT, bcrypt,
+                ARGON2, argon2(iterations),
+                PBKDF2, new Pbkdf2PasswordEncoder("", PBKDF2_SALT_LENGTH, pbkdf2Iterations,
+                        Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256)));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        switch (algorithm) {
+            case BCRYPT -> log.info("Passwort-Hashes mit BCrypt, Stärke {}", strength);
+            case ARGON2 -> log.info("Passwort-Hashes mit Argon2id, {} KiB, {} Iterationen", argon2MemoryKib, iterations);
+            default -> log.info("Passwort-Hashes mit PBKDF2-HMAC-SHA256, {} Iterationen", pbkdf2Iterations);
+        }
+        return encoder;
+    }
+
+    /**
+     * Wählt die BCrypt-Stärke, deren hochgerechnete Dauer der Ziel-Latenz am nächsten kommt.
+     */
+    private int calibrateBcryptStrength() {
+        long nanos = measure(BCryptPasswordEncoder::new, MIN_BCRYPT_STRENGTH);
+        double steps = Math.log((double) targetLatency.toNanos() / nanos) / Math.log(2);
+        int strength = Math.clamp(MIN_BCRYPT_STRENGTH + Math.round(steps), MIN_BCRYPT_STRENGTH, MAX_BCRYPT_STRENGTH);
+        log.debug("BCrypt mit Stärke {} dauert {} ms, kalibriert auf Stärke {}",
+                MIN_BCRYPT_STRENGTH, nanos / 1_000_000, strength);
+        return strength;
+    }
+
+    /**
+     * Wählt die Anzahl der Argon2-Iterationen, deren hochgerechnete Dauer der Ziel-Latenz am nächsten kommt.
+     */
+    private int calibrateArgon2Iterations() {
+        long nanos = measure(this::argon2, 1);
+        int iterations = Math.clamp(Math.round((double) targetLatency.toNanos() / nanos),
+                MIN_ARGON2_ITERATIONS, MAX_ARGON2_ITERATIONS);
+        log.debug("Argon2 mit einer Iteration dauert {} ms, kalibriert auf {} Iterationen",
+                nanos / 1_000_000, iterations);
+        return iterations;
+    }
+
+    private Argon2PasswordEncoder argon2(int iterations) {
+        return new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, ARGON2_PARALLELISM,
+                argon2MemoryKib, iterations);
+    }
+
+    /**
+     * Misst die kürzeste Dauer eines Hashes mit dem angegebenen Aufwand. Ein erster Durchlauf wärmt den
+     * JIT-Compiler auf und wird nicht gewertet.
+     */
+    private static long measure(IntFunction<PasswordEncoder> encoderFactory, int cost) {
+        PasswordEncoder encoder = encoderFactory.apply(cost);
+        String password = UUID.randomUUID().toString();
+        encoder.encode(password);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASUREMENTS; i++) {
+            long start = System.nanoTime();
+            encoder.encode(password);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return Math.max(best, 1);
+    }
+}
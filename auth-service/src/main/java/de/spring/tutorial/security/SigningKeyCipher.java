@@ -0,0 +1,112 @@
+package de.spring.tutorial.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Verschlüsselt die privaten Signaturschlüssel, bevor sie in der Datenbank gespeichert werden (AES-256-GCM).
+ * <p>
+ * Der Schlüssel zur Verschlüsselung ({@code app.jwt.key-encryption-key}, 32 Byte in Base64) stammt aus der
+ * Konfiguration und liegt damit nicht in der Datenbank; ein Abzug der Tabelle {@code signing_key} allein
+ * genügt nicht, um Tokens zu fälschen. Gespeichert wird {@code Version | IV | Chiffrat mit Tag}, die Kennung
+ * des Schlüssels ist als zusätzliche authentifizierte Angabe eingebunden, sodass verschlüsselte Schlüssel nicht
+ * zwischen Zeilen vertauscht werden können.
+ * <p>
+ * Vor der Verschlüsselung gespeicherte Schlüssel liegen als PKCS#8 (DER, beginnt mit {@code 0x30}) vor und
+ * werden daran erkannt.
+ */
+@Component
+public class SigningKeyCipher {
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final byte VERSION = 1;
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+    private static final int KEY_LENGTH = 32;
+
+    private final SecretKey keyEncryptionKey;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Konstruktor für den {@link SigningKeyCipher}.
+     *
+     * @param keyEncryptionKey Schlüssel zur Verschlüsselung der privaten Schlüssel, 32 Byte in Base64
+     */
+    public SigningKeyCipher(@Value("${app.jwt.key-encryption-key}") String keyEncryptionKey) {
+        if (keyEncryptionKey.isBlank()) {
+            throw new IllegalArgumentException("app.jwt.key-encryption-key ist nicht gesetzt "
+                    + "(Umgebungsvariable JWT_KEY_ENCRYPTION_KEY, lokal Profil \"dev\")");
+        }
+        byte[] key = Base64.getDecoder().decode(keyEncryptionKey.trim());
+        if (key.length != KEY_LENGTH) {
+            throw new IllegalArgumentException("app.jwt.key-encryption-key muss 32 Byte (Base64) lang sein, ist aber "
+                    + key.length + " Byte lang");
+        }
+        this.keyEncryptionKey = new SecretKeySpec(key, "AES");
+    }
+
+    /**
+     * Verschlüsselt einen privaten Schlüssel.
+     *
+     * @param kid Kennung des Schlüssels
+     * @param privateKey privater Schlüssel im PKCS#8-Format
+     * @return der verschlüsselte Schlüssel zum Speichern
+     */
+    public byte[] encrypt(String kid, byte[] privateKey) {
+        try {
+            byte[] encrypted = new byte[1 + IV_LENGTH + privateKey.length + TAG_BITS / 8];
+            encrypted[0] = VERSION;
+            byte[] iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+            System.arraycopy(iv, 0, encrypted, 1, IV_LENGTH);
+
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            cipher.doFinal(privateKey, 0, privateKey.length, encrypted, 1 + IV_LENGTH);
+            return encrypted;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Signaturschlüssel " + kid + " kann nicht verschlüsselt werden", ex);
+        }
+    }
+
+    /**
+     * Entschlüsselt einen gespeicherten privaten Schlüssel. Unverschlüsselte Schlüssel werden unverändert geliefert.
+     *
+     * @param kid Kennung des Schlüssels
+     * @param stored der gespeicherte Schlüssel
+     * @return privater Schlüssel im PKCS#8-Format
+     * @throws GeneralSecurityException wenn der Schlüssel verändert wurde oder mit einem anderen Schlüssel
+     *                                  verschlüsselt ist
+     */
+    public byte[] decrypt(String kid, byte[] stored) throws GeneralSecurityException {
+        if (!isEncrypted(stored)) {
+            return stored;
+        }
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, keyEncryptionKey,
+                new GCMParameterSpec(TAG_BITS, Arrays.copyOfRange(stored, 1, 1 + IV_LENGTH)));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        return cipher.doFinal(stored, 1 + IV_LENGTH, stored.length - 1 - IV_LENGTH);
+    }
+
+    /**
+     * Prüft, ob ein gespeicherter Schlüssel verschlüsselt ist.
+     *
+     * @param stored der gespeicherte Schlüssel
+     * @return {@code false} für Schlüssel, die vor Einführung der Verschlüsselung im Klartext gespeichert wurden
+     */
+    public boolean isEncrypted(byte[] stored) {
+        return stored.length > 0 && stored[0] == VERSION;
+    }
+}
@@ -0,0 +1,162 @@
+package de.spring.tutorial.security;
+
+import de.spring.tutorial.model.SigningKey;
+import de.spring.tutorial.repository.SigningKeyRepository;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * Verwaltet die rotierenden Schlüsselpaare (ES256) zur Signatur der JWTs.
+ * <p>
+ * Signiert wird immer mit dem neuesten Schlüssel. Ist dieser älter als das Rotationsintervall, wird ein
+ * neuer erzeugt. Ältere Schlüssel bleiben so lange im JWKS veröffentlicht, wie mit ihnen signierte Tokens
+ * gültig sein können, und werden danach gelöscht. Der Bestand wird regelmäßig aus der Datenbank gelesen,
+ * damit alle Instanzen dieselben Schlüssel verwenden. Das JWKS wird nur bei Änderungen neu serialisiert.
+ * <p>
+ * Private Schlüssel werden mit dem {@link SigningKeyCipher} verschlüsselt gespeichert; noch im Klartext
+ * gespeicherte Schlüssel werden beim nächsten Abgleich verschlüsselt.
+ */
+@Slf4j
+@Component
+public class SigningKeyManager {
+
+    private final SigningKeyRepository signingKeyRepository;
+    private final SigningKeyCipher signingKeyCipher;
+    private final Duration rotationInterval;
+    private final Duration retention;
+    private volatile ActiveKeys activeKeys;
+
+    /**
+     * Aktueller Signaturschlüssel und das zugehörige JWKS.
+     *
+     * @param kid Kennung des aktuellen Signaturschlüssels
+     * @param privateKey privater Schlüssel zum Signieren
+     * @param kids Kennungen aller veröffentlichten Schlüssel, der neueste zuerst
+     * @param publicKeys alle veröffentlichten öffentlichen Schlüssel, nach Kennung
+     * @param jwks serialisiertes JWKS mit allen veröffentlichten öffentlichen Schlüsseln
+     */
+    public record ActiveKeys(String kid, PrivateKey privateKey, List<String> kids,
+                             Map<String, PublicKey> publicKeys, String jwks) {
+    }
+
+    /**
+     * Konstruktor für den {@link SigningKeyManager}.
+     *
+     * @param signingKeyRepository Repository für die gespeicherten Schlüssel
+     * @param signingKeyCipher Verschlüsselung der gespeicherten privaten Schlüssel
+     * @param rotationInterval Intervall, nach dem ein neuer Signaturschlüssel erzeugt wird
+     * @param tokenValidity Gültigkeitsdauer der Tokens; so lange bleibt ein abgelöster Schlüssel veröffentlicht
+     */
+    public SigningKeyManager(SigningKeyRepository signingKeyRepository,
+                             SigningKeyCipher signingKeyCipher,
+                             @Value("${app.jwt.key-rotation:24h}") Duration rotationInterval,
+                             @Value("${app.jwt.token-validity:7d}") Duration tokenValidity) {
+        this.signingKeyRepository = signingKeyRepository;
+        this.signingKeyCipher = signingKeyCipher;
+        this.rotationInterval = rotationInterval;
+        this.retention = rotationInterval.plus(tokenValidity);
+    }
+
+    /**
+     * Liest die Schlüssel aus der Datenbank, erzeugt bei Bedarf einen neuen und entfernt abgelaufene.
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${app.jwt.key-check-interval-ms:60000}",
+            initialDelayString = "${app.jwt.key-check-interval-ms:60000}")
+    public synchronized void refreshKeys() {
+        Instant now = Instant.now();
+        List<SigningKey> keys = new ArrayList<>(signingKeyRepository.findByCreatedAtAfterOrderByCreatedAtDesc(now.minus(retention)));
+
+        if (keys.isEmpty() || keys.getFirst().getCreatedAt().isBefore(now.minus(rotationInterval))) {
+            SigningKey created = signingKeyRepository.save(generateKey(now));
+            keys.addFirst(created);
+            log.info("Neuer Signaturschlüssel {} erzeugt", created.getKid());
+        }
+        signingKeyRepository.deleteCreatedBefore(now.minus(retention));
+        encryptPlaintextKeys(keys);
+
+        List<String> kids = keys.stream().map(SigningKey::getKid).toList();
+        if (activeKeys == null || !activeKeys.kids().equals(kids)) {
+            activeKeys = toActiveKeys(keys, kids);
+        }
+    }
+
+    /**
+     * Liefert den aktuellen Signaturschlüssel samt JWKS.
+     *
+     * @return die aktiven Schlüssel
+     */
+    public ActiveKeys getActiveKeys() {
+        return activeKeys;
+    }
+
+    private SigningKey generateKey(Instant now) {
+        KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+        String kid = UUID.randomUUID().toString();
+        return SigningKey.builder()
+                .kid(kid)
+                .publicKey(keyPair.getPublic().getEncoded())
+                .privateKey(signingKeyCipher.encrypt(kid, keyPair.getPrivate().getEncoded()))
+                .createdAt(now)
+                .build();
+    }
+
+    /**
+     * Verschlüsselt Schlüssel, die noch vor Einführung der Verschlüsselung im Klartext gespeichert wurden.
+     */
+    private void encryptPlaintextKeys(List<SigningKey> keys) {
+        for (SigningKey key : keys) {
+            if (!signingKeyCipher.isEncrypted(key.getPrivateKey())) {
+                key.setPrivateKey(signingKeyCipher.encrypt(key.getKid(), key.getPrivateKey()));
+                signingKeyRepository.save(key);
+                log.info("Signaturschlüssel {} verschlüsselt gespeichert", key.getKid());
+            }
+        }
+    }
+
+    private ActiveKeys toActiveKeys(List<SigningKey> keys, List<String> kids) {
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("EC");
+            StringJoiner jwks = new StringJoiner(",", "{\"keys\":[", "]}");
+            Map<String, PublicKey> publicKeys = new HashMap<>();
+            for (SigningKey key : keys) {
+                ECPublicKey publicKey = (ECPublicKey) keyFactory.generatePublic(new X509EncodedKeySpec(key.getPublicKey()));
+                publicKeys.put(key.getKid(), publicKey);
+                jwks.add(Jwks.json(Jwks.builder().key(publicKey)
+                        .id(key.getKid())
+                        .algorithm(Jwts.SIG.ES256.getId())
+                        .publicKeyUse("sig")
+                        .build()));
+            }
+
+            SigningKey current = keys.getFirst();
+            byte[] encodedPrivateKey = signingKeyCipher.decrypt(current.getKid(), current.getPrivateKey());
+            PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(encodedPrivateKey));
+            return new ActiveKeys(current.getKid(), privateKey, kids, Map.copyOf(publicKeys), jwks.toString());
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Gespeicherter Signaturschlüssel kann nicht gelesen werden", ex);
+        }
+    }
+}
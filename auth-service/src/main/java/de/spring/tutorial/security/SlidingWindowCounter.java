@@ -0,0 +1,142 @@
+package de.spring.tutorial.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Näherungsweiser Zähler von Ereignissen je Schlüssel über ein gleitendes Zeitfenster.
+ * <p>
+ * Das Fenster ist in gleich lange Zeitscheiben geteilt; jede Zeitscheibe ist ein Count-Min-Sketch aus vier
+ * Zeilen mit je {@code width} Zählern. Der Speicherbedarf ist damit unabhängig von der Anzahl der
+ * Schlüssel fest. Eine abgelaufene Zeitscheibe wird beim ersten Schreibzugriff in einer neuen Zeitscheibe
+ * geleert (Verdrängung alter Zählungen), die Schätzung summiert die Zeitscheiben des Fensters.
+ * <p>
+ * Alle Zugriffe sind lock-frei: Die Zähler liegen in einem {@link AtomicIntegerArray}, auf das die Threads je
+ * nach Schlüssel an verschiedenen Stellen zugreifen. Die Schätzung kann durch Kollisionen zu hoch ausfallen,
+ * nie zu niedrig; Inkremente, die genau beim Leeren einer Zeitscheibe eintreffen, können verloren gehen.
+ * Die Hashfunktion ist mit einem zufälligen Startwert versehen, damit sich Kollisionen nicht gezielt erzeugen
+ * lassen.
+ */
+class SlidingWindowCounter {
+
+    private static final int DEPTH = 4;
+
+    private final int slices;
+    private final long sliceMillis;
+    private final int width;
+    private final int mask;
+    private final long seed = ThreadLocalRandom.current().nextLong();
+    private final AtomicIntegerArray counts;
+    private final AtomicLongArray sliceNumbers;
+
+    /**
+     * Konstruktor für den {@link SlidingWindowCounter}.
+     *
+     * @param windowMillis Länge des Fensters in Millisekunden
+     * @param slices Anzahl der Zeitscheiben, in die das Fenster geteilt wird
+     * @param width Anzahl der Zähler je Zeile; wird auf eine Zweierpotenz aufgerundet
+     */
+    SlidingWindowCounter(long windowMillis, int slices, int width) {
+        if (slices < 1 || windowMillis < slices || width < 1) {
+            throw new IllegalArgumentException("Ungültige Parameter für das Zählfenster");
+        }
+        this.slices = slices;
+        this.sliceMillis = windowMillis / slices;
+        this.width = Integer.highestOneBit(Math.max(1, width - 1)) << 1;
+        this.mask = this.width - 1;
+        this.counts = new AtomicIntegerArray(slices * DEPTH * this.width);
+        this.sliceNumbers = new AtomicLongArray(slices);
+        for (int i = 0; i < slices; i++) {
+            sliceNumbers.set(i, -1);
+        }
+    }
+
+    /**
+     * Zählt ein Ereignis für den Schlüssel.
+     *
+     * @param key der Schlüssel
+     * @param nowMillis aktuelle Zeit in Millisekunden
+     */
+    void increment(String key, long nowMillis) {
+        long sliceNumber = nowMillis / sliceMillis;
+        int slice = (int) (sliceNumber % slices);
+        rollOver(slice, sliceNumber);
+
+        long hash = hash(key);
+        int offset = slice * DEPTH * width;
+        for (int row = 0; row < DEPTH; row++) {
+            counts.incrementAndGet(offset + row * width + index(hash, row));
+        }
+    }
+
+    /**
+     * Schätzt die Anzahl der Ereignisse für den Schlüssel im Fenster bis zur angegebenen Zeit.
+     *
+     * @param key der Schlüssel
+     * @param nowMillis aktuelle Zeit in Millisekunden
+     * @return die geschätzte Anzahl, nie kleiner als die tatsächliche Anzahl
+     */
+    int estimate(String key, long nowMillis) {
+        long currentSlice = nowMillis / sliceMillis;
+        long hash = hash(key);
+        int total = 0;
+        for (int slice = 0; slice < slices; slice++) {
+            long sliceNumber = sliceNumbers.get(slice);
+            if (sliceNumber <= currentSlice - slices || sliceNumber > currentSlice) {
+                continue;
+            }
+            int offset = slice * DEPTH * width;
+            int min = Integer.MAX_VALUE;
+            for (int row = 0; row < DEPTH; row++) {
+                min = Math.min(min, counts.get(offset + row * width + index(hash, row)));
+            }
+            total += min;
+        }
+        return total;
+    }
+
+    /**
+     * Millisekunden bis zum Ende der aktuellen Zeitscheibe, also bis frühestens ältere Ereignisse aus dem
+     * Fenster fallen.
+     *
+     * @param nowMillis aktuelle Zeit in Millisekunden
+     * @return die verbleibende Zeit in Millisekunden
+     */
+    long millisUntilNextSlice(long nowMillis) {
+        return sliceMillis - nowMillis % sliceMillis;
+    }
+
+    /**
+     * Belegt die Zeitscheibe neu, wenn sie noch eine ältere Zeitscheibe enthält. Nur der Thread, dem der
+     * Wechsel gelingt, leert die Zähler.
+     */
+    private void rollOver(int slice, long sliceNumber) {
+        long current = sliceNumbers.get(slice);
+        if (current < sliceNumber && sliceNumbers.compareAndSet(slice, current, sliceNumber)) {
+            int offset = slice * DEPTH * width;
+            for (int i = offset; i < offset + DEPTH * width; i++) {
+                counts.set(i, 0);
+            }
+        }
+    }
+
+    private int index(long hash, int row) {
+        long combined = (hash >>> 32) + row * ((hash & 0xFFFFFFFFL) | 1);
+        return (int) (combined & mask);
+    }
+
+    private long hash(String key) {
+        long hash = seed;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ b) * 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
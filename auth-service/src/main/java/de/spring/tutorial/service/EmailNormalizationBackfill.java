@@ -0,0 +1,89 @@
+package de.spring.tutorial.service;
+
+import de.spring.tutorial.model.EmailNormalizer;
+import de.spring.tutorial.repository.UserRepository;
+import de.spring.tutorial.repository.UserRepository.EmailAddress;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Berechnet nach dem Start die normalisierte E-Mail-Adresse für Benutzer, die vor Einführung der Spalte
+ * registriert wurden. Ohne den Wert findet der Login den Benutzer nicht.
+ * <p>
+ * Die Benutzer werden seitenweise nach ID gelesen und je Seite in einer eigenen Transaktion aktualisiert. Sind
+ * alle Werte berechnet, kostet der Lauf nur eine leere Abfrage. Unterscheiden sich bestehende Benutzer nur in
+ * der Schreibweise ihrer E-Mail-Adresse, erhält nur der erste die normalisierte Adresse; für die übrigen wird
+ * eine Warnung geschrieben, bis die Dubletten bereinigt sind.
+ */
+@Slf4j
+@Component
+public class EmailNormalizationBackfill {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+
+    /**
+     * Konstruktor für den {@link EmailNormalizationBackfill}.
+     *
+     * @param userRepository Repository für den Zugriff auf die Benutzer
+     * @param transactionTemplate Template für die Transaktion je Seite
+     * @param enabled ob die fehlenden Werte nach dem Start berechnet werden
+     * @param batchSize Anzahl der Benutzer je Seite
+     */
+    public EmailNormalizationBackfill(UserRepository userRepository,
+                                      TransactionTemplate transactionTemplate,
+                                      @Value("${app.users.email-backfill.enabled:true}") boolean enabled,
+                                      @Value("${app.users.email-backfill.batch-size:500}") int batchSize) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Berechnet die fehlenden normalisierten E-Mail-Adressen.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+        long afterId = 0;
+        int updated = 0;
+        List<EmailAddress> batch;
+        do {
+            batch = userRepository.findByIdGreaterThanAndEmailNormalizedIsNullOrderByIdAsc(afterId, Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<EmailAddress> current = batch;
+            updated += transactionTemplate.execute(status -> {
+                int count = 0;
+                for (EmailAddress address : current) {
+                    String emailNormalized = EmailNormalizer.normalize(address.getEmail());
+                    if (userRepository.existsByEmailNormalized(emailNormalized)) {
+                        log.warn("Benutzer {}: E-Mail-Adresse {} ist in anderer Schreibweise bereits vergeben und "
+                                + "wird nicht normalisiert.", address.getId(), address.getEmail());
+                        continue;
+                    }
+                    count += userRepository.updateEmailNormalized(address.getId(), emailNormalized);
+                }
+                return count;
+            });
+            afterId = batch.getLast().getId();
+        } while (batch.size() == batchSize);
+
+        if (updated > 0) {
+            log.info("Normalisierte E-Mail-Adresse für {} Benutzer nachgetragen.", updated);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package de.spring.tutorial.service;
+
+import de.spring.tutorial.exception.InvalidCredentialsException;
+import de.spring.tutorial.model.RevokedToken;
+import de.spring.tutorial.repository.RevokedTokenRepository;
+import de.spring.tutorial.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Service für den Widerruf von JWTs.
+ * <p>
+ * Widerrufene Tokens werden mit ihrer Kennung ({@code jti}) gespeichert. Die Verifizierer gleichen die
+ * Widerrufe regelmäßig inkrementell ab und prüfen sie im Speicher, sodass pro Request kein Datenbankzugriff
+ * nötig ist. Nach Ablauf des Tokens wird der Eintrag gelöscht.
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final JwtTokenProvider jwtTokenProvider;
+
+    /**
+     * Konstruktor für den {@link TokenRevocationService} mit Dependency Injection.
+     *
+     * @param revokedTokenRepository Repository für die widerrufenen Tokens
+     * @param jwtTokenProvider Provider zur Prüfung der Tokens
+     */
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository, JwtTokenProvider jwtTokenProvider) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.jwtTokenProvider = jwtTokenProvider;
+    }
+
+    /**
+     * Widerruft das angegebene Token. Ein erneuter Widerruf desselben Tokens ist wirkungslos.
+     *
+     * @param token das zu widerrufende JWT
+     * @throws InvalidCredentialsException wenn das Token ungültig, abgelaufen oder ohne Kennung ist
+     */
+    public void revoke(String token) {
+        Claims claims;
+        try {
+            claims = jwtTokenProvider.parseClaims(token);
+        } catch (JwtException | IllegalArgumentException ex) {
+            throw new InvalidCredentialsException("Ungültiges oder abgelaufenes Token.");
+        }
+        if (claims.getId() == null) {
+            throw new InvalidCredentialsException("Das Token kann nicht widerrufen werden.");
+        }
+        if (revokedTokenRepository.existsByJti(claims.getId())) {
+            return;
+        }
+
+        try {
+            revokedTokenRepository.save(RevokedToken.builder()
+                    .jti(claims.getId())
+                    .expiresAt(claims.getExpiration().toInstant())
+                    .revokedAt(Instant.now())
+                    .build());
+        } catch (DataIntegrityViolationException ex) {
+            log.debug("Token {} wurde gleichzeitig widerrufen", claims.getId());
+        }
+    }
+
+    /**
+     * Liefert die Widerrufe nach dem angegebenen Offset.
+     *
+     * @param after der zuletzt gelesene Offset
+     * @param limit die maximale Anzahl an Einträgen
+     * @return die Widerrufe in aufsteigender Reihenfolge
+     */
+    public List<RevokedToken> getRevocationsAfter(long after, int limit) {
+        return revokedTokenRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.ofSize(limit));
+    }
+
+    /**
+     * Entfernt die Widerrufe bereits abgelaufener Tokens.
+     */
+    @Scheduled(cron = "${app.jwt.revocation-cleanup-cron:0 30 * * * *}")
+    public void cleanUp() {
+        int deleted = revokedTokenRepository.deleteExpiredBefore(Instant.now());
+        if (deleted > 0) {
+            log.info("{} abgelaufene Widerrufe gelöscht", deleted);
+        }
+    }
+}
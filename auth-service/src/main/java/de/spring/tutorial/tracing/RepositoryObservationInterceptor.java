@@ -0,0 +1,69 @@
+package de.spring.tutorial.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Interceptor, der jeden Aufruf eines Spring-Data-Repositories als Observation (und damit als Span) erfasst.
+ * <p>
+ * Der Span trägt den Namen {@code Repository.methode}, z.B. {@code CustomerRepository.findByEmail}, und enthält
+ * damit die Zeit für Query, Datenbank und Mapping der Entitäten. Aufrufe außerhalb einer laufenden Observation
+ * (z.B. aus geplanten Aufgaben) werden nicht erfasst, da sie sonst je Aufruf einen eigenen Trace erzeugen würden.
+ */
+public class RepositoryObservationInterceptor implements MethodInterceptor {
+
+    /**
+     * Name der Observation; zugleich Name des Timers in den Metriken.
+     */
+    public static final String OBSERVATION_NAME = "repository.invocation";
+
+    private final ObjectProvider<ObservationRegistry> observationRegistryProvider;
+    private final String repositoryName;
+    private volatile ObservationRegistry observationRegistry;
+
+    /**
+     * Konstruktor für den {@link RepositoryObservationInterceptor}.
+     *
+     * @param observationRegistryProvider Registry der Observations; erst beim ersten Aufruf aufgelöst, da die
+     *                                    Repositories vor der Registry erzeugt werden können
+     * @param repositoryInterface Schnittstelle des Repositories
+     */
+    public RepositoryObservationInterceptor(ObjectProvider<ObservationRegistry> observationRegistryProvider,
+                                            Class<?> repositoryInterface) {
+        this.observationRegistryProvider = observationRegistryProvider;
+        this.repositoryName = repositoryInterface.getSimpleName();
+    }
+
+    /**
+     * Führt den Aufruf innerhalb einer Observation aus, sofern bereits eine Observation läuft.
+     *
+     * @param invocation der Aufruf der Repository-Methode
+     * @return das Ergebnis der Methode
+     * @throws Throwable die Ausnahme der Methode
+     */
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        ObservationRegistry registry = observationRegistry();
+        if (registry.getCurrentObservation() == null) {
+            return invocation.proceed();
+        }
+        String method = invocation.getMethod().getName();
+        return Observation.createNotStarted(OBSERVATION_NAME, registry)
+                .contextualName(repositoryName + "." + method)
+                .lowCardinalityKeyValue("repository", repositoryName)
+                .lowCardinalityKeyValue("method", method)
+                .observeChecked(invocation::proceed);
+    }
+
+    private ObservationRegistry observationRegistry() {
+        ObservationRegistry registry = observationRegistry;
+        if (registry == null) {
+            registry = observationRegistryProvider.getIfAvailable(() -> ObservationRegistry.NOOP);
+            observationRegistry = registry;
+        }
+        return registry;
+    }
+}
@@ -0,0 +1,61 @@
+package de.spring.tutorial.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Login eines bestehenden Benutzers, dessen Hash beim Login erneuert wird (Profil {@code loadtest}, H2).
+ */
+@SpringBootTest(properties = {
+        "app.users.email-backfill.enabled = false",
+        "app.password.bcrypt.strength = 4",
+        "app.tracing.file = target/traces/auth-service.jsonl"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("loadtest")
+class CustomUserDetailsServiceTest {
+
+    private static final String PASSWORD = "Passw0rd!";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Eine Dublette in anderer Schreibweise hat keine normalisierte E-Mail-Adresse. Das Erneuern ihres veralteten
+     * Hashes (BCrypt ohne Präfix) darf diese nicht setzen, sonst scheitert der Login am eindeutigen Index.
+     */
+    @Test
+    void loginUpgradesLegacyHashOfCaseDuplicate() throws Exception {
+        String legacyHash = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        jdbcTemplate.update("INSERT INTO user (email, password, email_normalized) VALUES (?, ?, ?)",
+                "Legacy.Dup@example.com", legacyHash, "legacy.dup@example.com");
+        jdbcTemplate.update("INSERT INTO user (email, password, email_normalized) VALUES (?, ?, NULL)",
+                "legacy.dup@example.com", legacyHash);
+
+        mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"legacy.dup@example.com\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(status().isOk());
+
+        Map<String, Object> user = jdbcTemplate.queryForMap(
+                "SELECT password, email_normalized FROM user WHERE email = ?", "legacy.dup@example.com");
+        assertThat((String) user.get("password")).startsWith("{bcrypt}");
+        assertThat(user.get("email_normalized")).isNull();
+    }
+}
@@ -0,0 +1,99 @@
+package de.spring.tutorial.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import de.spring.tutorial.model.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleicht die Serialisierung der Kunden mit und ohne das Blackbird-Modul aus {@link JacksonConfig}.
+ * <p>
+ * Gemessen werden eine Kundenliste, wie sie {@code GET /customers} ausliefert, und ein einzelner Kunde, wie er
+ * mit {@code POST /customers} gelesen wird, jeweils in allen Darstellungen des Service (JSON, CBOR, Smile). Die
+ * {@code ObjectMapper} entstehen wie in Spring MVC über den {@link Jackson2ObjectMapperBuilder}.
+ * <p>
+ * Aufruf: {@code mvn -Pjmh test-compile exec:exec -Djmh.args="CustomerSerialization -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerSerializationBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean blackbird;
+
+    @Param({"1000"})
+    private int customers;
+
+    private ObjectWriter listWriter;
+    private ObjectMapper objectMapper;
+    private List<Customer> customerList;
+    private byte[] customerBody;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        Jackson2ObjectMapperBuilder builder = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile();
+            default -> throw new IllegalArgumentException("Unbekanntes Format: " + format);
+        };
+        if (blackbird) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        objectMapper = builder.build();
+
+        customerList = new ArrayList<>(customers);
+        for (int i = 0; i < customers; i++) {
+            customerList.add(customer(i));
+        }
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Customer.class));
+        customerBody = objectMapper.writeValueAsBytes(customer(customers));
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return listWriter.writeValueAsBytes(customerList);
+    }
+
+    @Benchmark
+    public Customer deserializeCustomer() throws IOException {
+        return objectMapper.readValue(customerBody, Customer.class);
+    }
+
+    private static Customer customer(int i) {
+        return Customer.builder()
+                .id((long) i + 1)
+                .nickName("kunde" + i)
+                .lastName("Mustermann" + (i % 500))
+                .firstName("Max")
+                .phoneNumber("030 " + (1_000_000 + i))
+                .mobileNumber("0171 " + (2_000_000 + i))
+                .email("kunde" + i + "@example.de")
+                .build();
+    }
+}
@@ -0,0 +1,147 @@
+package de.spring.tutorial.security;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Ersatz für die Endpunkte des Auth-Service, die der Customer-Service abfragt (JWKS und Widerrufsliste), damit
+ * die Benchmarks {@link JwtTokenProvider} und {@link TokenRevocationList} ohne laufenden Auth-Service unverändert
+ * verwenden können. Signiert wird wie im Auth-Service mit ES256.
+ */
+final class AuthServiceStub implements AutoCloseable {
+
+    private static final String KID = "benchmark";
+    private static final String SUBJECT = "max.mustermann@example.de";
+
+    private final KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+    private final List<String> revokedJtis;
+    private final HttpServer server;
+
+    /**
+     * Startet den Ersatz auf einem freien Port.
+     *
+     * @param revokedJtis Kennungen der widerrufenen Tokens
+     * @throws IOException wenn der Server nicht gestartet werden kann
+     */
+    AuthServiceStub(List<String> revokedJtis) throws IOException {
+        this.revokedJtis = List.copyOf(revokedJtis);
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/jwks.json", exchange -> respond(exchange, "{\"keys\":["
+                + Jwks.json(Jwks.builder().key(keyPair.getPublic()).id(KID).build()) + "]}"));
+        server.createContext("/revocations", this::revocations);
+        server.start();
+    }
+
+    /**
+     * Erzeugt einen {@link JwtTokenProvider}, der Schlüssel und Widerrufe von diesem Ersatz lädt.
+     *
+     * @param tokenRevocationList die bereits abgeglichene Widerrufsliste
+     * @return der Token-Provider
+     */
+    JwtTokenProvider tokenProvider(TokenRevocationList tokenRevocationList) {
+        JwksPublicKeyCache jwksPublicKeyCache = new JwksPublicKeyCache(uri("/jwks.json"), 0);
+        jwksPublicKeyCache.refresh();
+        return new JwtTokenProvider(jwksPublicKeyCache, tokenRevocationList, ObservationRegistry.NOOP);
+    }
+
+    /**
+     * Erzeugt eine Widerrufsliste, die mit diesem Ersatz abgeglichen ist.
+     *
+     * @return die Widerrufsliste
+     */
+    TokenRevocationList revocationList() {
+        TokenRevocationList tokenRevocationList = new TokenRevocationList(uri("/revocations"), 0.01, 600_000,
+                new SimpleMeterRegistry());
+        tokenRevocationList.sync();
+        return tokenRevocationList;
+    }
+
+    /**
+     * Signiert ein Token wie der Auth-Service.
+     *
+     * @param jti die Kennung des Tokens
+     * @return das kompakte JWT
+     */
+    String token(String jti) {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .header().keyId(KID).and()
+                .id(jti)
+                .subject(SUBJECT)
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(Duration.ofHours(1))))
+                .signWith(keyPair.getPrivate(), Jwts.SIG.ES256)
+                .compact();
+    }
+
+    /**
+     * @return der öffentliche Schlüssel, mit dem die Tokens dieses Ersatzes geprüft werden
+     */
+    PublicKey publicKey() {
+        return keyPair.getPublic();
+    }
+
+    /**
+     * @return eine neue, nicht widerrufene Kennung
+     */
+    static String newJti() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private String uri(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    /**
+     * Liefert die Widerrufe seitenweise wie {@code GET /auth/revocations?after=&limit=}.
+     */
+    private void revocations(HttpExchange exchange) throws IOException {
+        Map<String, String> query = new HashMap<>();
+        for (String parameter : exchange.getRequestURI().getQuery().split("&")) {
+            String[] pair = parameter.split("=", 2);
+            query.put(pair[0], pair[1]);
+        }
+        int after = Integer.parseInt(query.get("after"));
+        int limit = Integer.parseInt(query.get("limit"));
+        String expiresAt = Instant.now().plus(Duration.ofHours(1)).toString();
+        List<String> page = new ArrayList<>();
+        for (int id = after + 1; id <= Math.min(revokedJtis.size(), after + limit); id++) {
+            page.add("{\"id\":" + id + ",\"jti\":\"" + revokedJtis.get(id - 1) + "\",\"expiresAt\":\"" + expiresAt + "\"}");
+        }
+        respond(exchange, page.stream().collect(Collectors.joining(",", "[", "]")));
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
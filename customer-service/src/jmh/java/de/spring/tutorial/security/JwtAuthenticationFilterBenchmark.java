@@ -0,0 +1,101 @@
+package de.spring.tutorial.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
+
+/**
+ * Misst Laufzeit und Allokationen des {@link JwtAuthenticationFilter} je Anfrage, mit {@code -prof gc} als
+ * {@code gc.alloc.rate.norm} in Byte je Aufruf.
+ * <p>
+ * {@code publicPath} zielt auf einen öffentlichen Pfad, für den der Filter übersprungen wird, {@code missingToken}
+ * auf einen geschützten Pfad ohne Token und {@code authenticated} auf einen geschützten Pfad mit gültigem ES256-Token
+ * (Signaturprüfung, Widerrufsliste und SecurityContext). Da der Filter je Anfrage nur einmal läuft, erhält jeder
+ * Aufruf eine neue Anfrage; {@code requestOnly} misst deren Erzeugung allein und ist von den übrigen Werten
+ * abzuziehen. Die öffentlichen Pfade und Optionen entsprechen der {@code SecurityConfig}.
+ * <p>
+ * Aufruf: {@code mvn -Pjmh test-compile exec:exec -Djmh.args="JwtAuthenticationFilter -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    @Param({"false", "true"})
+    private boolean authenticationDetails;
+
+    private AuthServiceStub authService;
+    private JwtAuthenticationFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() throws IOException {
+        authService = new AuthServiceStub(List.of());
+        filter = new JwtAuthenticationFilter(authService.tokenProvider(authService.revocationList()),
+                antMatcher("/auth/**"), authenticationDetails);
+        authorization = "Bearer " + authService.token(AuthServiceStub.newJti());
+    }
+
+    @TearDown
+    public void tearDown() {
+        authService.close();
+    }
+
+    @Benchmark
+    public void requestOnly(Blackhole blackhole) {
+        blackhole.consume(request("/customers/1", authorization));
+        blackhole.consume(new MockHttpServletResponse());
+    }
+
+    @Benchmark
+    public void publicPath() throws ServletException, IOException {
+        filter.doFilter(request("/auth/login", null), new MockHttpServletResponse(), NO_OP_CHAIN);
+    }
+
+    @Benchmark
+    public void missingToken() throws ServletException, IOException {
+        filter.doFilter(request("/customers/1", null), new MockHttpServletResponse(), NO_OP_CHAIN);
+    }
+
+    @Benchmark
+    public void authenticated() throws ServletException, IOException {
+        filter.doFilter(request("/customers/1", authorization), new MockHttpServletResponse(), NO_OP_CHAIN);
+        // wie am Ende jeder Anfrage in der Filterkette von Spring Security
+        SecurityContextHolder.clearContext();
+    }
+
+    private static MockHttpServletRequest request(String path, String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,96 @@
+package de.spring.tutorial.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst die Prüfung eines Tokens gegen die {@link TokenRevocationList} bei unterschiedlich vielen Widerrufen.
+ * <p>
+ * {@code notRevoked} prüft Kennungen, die nicht widerrufen sind (der Normalfall, der schon am Bloom-Filter endet),
+ * {@code revoked} widerrufene Kennungen (Bloom-Filter und exakte Menge). Als Vergleich prüft {@code hashSetNotRevoked}
+ * dieselben Kennungen direkt gegen ein {@link HashSet} aller Widerrufe. Die Liste wird wie im Betrieb über
+ * {@link TokenRevocationList#sync()} geladen, die Prüfungen enthalten also auch die Zähler der Metriken. Die
+ * Kennungen werden reihum aus einem Vorrat gewählt und je Aufruf kopiert: Im Betrieb stammt jede Kennung frisch aus
+ * dem geparsten Token, ihr {@code hashCode} ist also noch nicht berechnet.
+ * <p>
+ * Aufruf: {@code mvn -Pjmh test-compile exec:exec -Djmh.args="TokenRevocationList"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenRevocationListBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    @Param({"0", "1000", "100000"})
+    private int revocations;
+
+    private AuthServiceStub authService;
+    private TokenRevocationList tokenRevocationList;
+    private Set<String> revokedSet;
+    private String[] notRevokedJtis;
+    private String[] revokedJtis;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<String> revoked = new ArrayList<>(revocations);
+        for (int i = 0; i < revocations; i++) {
+            revoked.add(AuthServiceStub.newJti());
+        }
+        authService = new AuthServiceStub(revoked);
+        tokenRevocationList = authService.revocationList();
+        revokedSet = new HashSet<>(revoked);
+
+        notRevokedJtis = new String[SAMPLES];
+        revokedJtis = new String[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            notRevokedJtis[i] = AuthServiceStub.newJti();
+            revokedJtis[i] = revoked.isEmpty() ? notRevokedJtis[i] : revoked.get(i % revoked.size());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        authService.close();
+    }
+
+    @Benchmark
+    public boolean notRevoked() {
+        return tokenRevocationList.isRevoked(next(notRevokedJtis));
+    }
+
+    @Benchmark
+    public boolean revoked() {
+        return tokenRevocationList.isRevoked(next(revokedJtis));
+    }
+
+    @Benchmark
+    public boolean hashSetNotRevoked() {
+        return revokedSet.contains(next(notRevokedJtis));
+    }
+
+    private String next(String[] jtis) {
+        return new String(jtis[next++ & (SAMPLES - 1)]);
+    }
+}
@@ -0,0 +1,100 @@
+package de.spring.tutorial.security;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleicht die Prüfung der Tokens mit ES256 (Schlüsselpaar des Auth-Service, öffentlicher Schlüssel per JWKS)
+ * mit der früheren Prüfung per HS512 und gemeinsamem Secret.
+ * <p>
+ * {@code verifyEs256} und {@code verifyHs512} parsen ein Token gleichen Inhalts mit festem Schlüssel und messen
+ * damit nur den Unterschied der Verfahren; {@code verifyEs256Provider} misst den vollständigen Weg über den
+ * {@link JwtTokenProvider} (Schlüssel nach {@code kid}, Widerrufsliste). {@code signEs256} und {@code signHs512}
+ * zeigen die Kosten auf Seiten des Auth-Service beim Login.
+ * <p>
+ * Aufruf: {@code mvn -Pjmh test-compile exec:exec -Djmh.args="TokenVerification"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenVerificationBenchmark {
+
+    private AuthServiceStub authService;
+    private JwtTokenProvider jwtTokenProvider;
+    private JwtParser es256Parser;
+    private JwtParser hs512Parser;
+    private SecretKey hs512Key;
+    private String es256Token;
+    private String hs512Token;
+
+    @Setup
+    public void setUp() throws IOException {
+        authService = new AuthServiceStub(List.of());
+        jwtTokenProvider = authService.tokenProvider(authService.revocationList());
+        es256Parser = Jwts.parser().verifyWith(authService.publicKey()).build();
+        es256Token = authService.token(AuthServiceStub.newJti());
+
+        hs512Key = Jwts.SIG.HS512.key().build();
+        hs512Parser = Jwts.parser().verifyWith(hs512Key).build();
+        hs512Token = signHs512();
+    }
+
+    @TearDown
+    public void tearDown() {
+        authService.close();
+    }
+
+    @Benchmark
+    public String verifyEs256() {
+        return es256Parser.parseSignedClaims(es256Token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String verifyHs512() {
+        return hs512Parser.parseSignedClaims(hs512Token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String verifyEs256Provider() {
+        return jwtTokenProvider.getValidatedUserMail(es256Token);
+    }
+
+    @Benchmark
+    public String signEs256() {
+        return authService.token(AuthServiceStub.newJti());
+    }
+
+    @Benchmark
+    public String signHs512() {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .id(AuthServiceStub.newJti())
+                .subject("max.mustermann@example.de")
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(Duration.ofHours(1))))
+                .signWith(hs512Key, Jwts.SIG.HS512)
+                .compact();
+    }
+}
@@ -2,11 +2,18 @@ package de.spring.tutorial;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Hauptklasse zum Starten der Customer-Service-Anwendung.
+ * Das Scheduling wird für das Relay der Kundenereignisse (Outbox) benötigt.
+ * Die R2DBC-Autokonfiguration ist deaktiviert, da die reaktiven Lesepfade ihren Connection-Pool selbst
+ * verwalten und JPA weiterhin über JDBC läuft.
  */
-@SpringBootApplication
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
+@EnableScheduling
 public class CustomerServiceMainApp {
 
     /**
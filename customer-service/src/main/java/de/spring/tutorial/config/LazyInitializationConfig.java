@@ -0,0 +1,31 @@
+package de.spring.tutorial.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Konfiguration für den Start mit verzögerter Initialisierung ({@code spring.main.lazy-initialization=true}).
+ * <p>
+ * Beans mit {@link Scheduled}-Methoden werden trotzdem beim Start erzeugt: Ihre Aufgaben werden erst bei der
+ * Erzeugung der Bean registriert und würden sonst nie laufen, solange kein Request die Bean anfordert.
+ */
+@Configuration
+public class LazyInitializationConfig {
+
+    /**
+     * Nimmt Beans mit {@link Scheduled}-Methoden von der verzögerten Initialisierung aus.
+     * Statisch, da der Filter bereits beim Nachbearbeiten der Bean-Definitionen benötigt wird.
+     *
+     * @return der Filter für die verzögerte Initialisierung
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter scheduledBeansExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && ReflectionUtils.getUniqueDeclaredMethods(beanType,
+                        method -> AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)).length > 0;
+    }
+}
@@ -0,0 +1,134 @@
+package de.spring.tutorial.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.spring.tutorial.controller.ReactiveCustomerHandler;
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ServletHttpHandlerAdapter;
+import org.springframework.web.HttpRequestHandler;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+
+/**
+ * Konfiguration der nicht-blockierenden Lesepfade (Profil {@code reactive}).
+ * <p>
+ * {@code GET /customers/{id}}, {@code /customers/active} und {@code /customers/search/{searchQuery}} werden von den
+ * WebFlux-Endpunkten des {@link ReactiveCustomerHandler} beantwortet. Sie laufen über einen
+ * {@link ServletHttpHandlerAdapter} im bestehenden Tomcat: Die Antwort wird mit nicht-blockierender Servlet-I/O
+ * geschrieben, ein langsamer Client belegt daher weder einen Thread noch (dank seitenweisem Lesen) eine
+ * Datenbankverbindung. Authentifizierung und alle übrigen Filter laufen unverändert vorher.
+ * <p>
+ * Anfragen, deren Antwort der {@link de.spring.tutorial.controller.CustomerController} anders bilden würde
+ * ({@code includeDeleted}, ein anderes Format als JSON per {@code Accept}), bleiben bei Spring MVC. Die Begrenzung
+ * gleichzeitiger Anfragen gibt ihren Platz frei, sobald die Anfrage an WebFlux übergeben ist.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveReadPathConfig {
+
+    /**
+     * Registriert das Handler-Mapping der reaktiven Lesepfade vor denen von Spring MVC.
+     *
+     * @param reactiveCustomerHandler die WebFlux-Endpunkte
+     * @param objectMapper der ObjectMapper der Anwendung, damit JSON wie bei Spring MVC geschrieben wird
+     * @param dispatcherServletRegistration die Registrierung des DispatcherServlets, über das die Anfragen kommen
+     * @return das Handler-Mapping
+     */
+    @Bean
+    public HandlerMapping reactiveReadPathHandlerMapping(ReactiveCustomerHandler reactiveCustomerHandler,
+                                                         ObjectMapper objectMapper,
+                                                         DispatcherServletRegistrationBean dispatcherServletRegistration) {
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper)))
+                .build();
+        ServletHttpHandlerAdapter adapter = new ServletHttpHandlerAdapter(
+                RouterFunctions.toHttpHandler(reactiveCustomerHandler.routes(), strategies));
+        HttpRequestHandler handler = adapter::service;
+        Map<String, HttpRequestHandler> handlers = Map.of(
+                ReactiveCustomerHandler.ACTIVE_PATH, handler,
+                ReactiveCustomerHandler.BY_ID_PATH, handler,
+                ReactiveCustomerHandler.SEARCH_PATH, handler);
+        return new ReactiveReadPathHandlerMapping(adapter, dispatcherServletRegistration.getServletName(), handlers);
+    }
+
+    /**
+     * Leitet passende Anfragen an den {@link ServletHttpHandlerAdapter} weiter; alle anderen übernimmt Spring MVC.
+     */
+    private static class ReactiveReadPathHandlerMapping extends SimpleUrlHandlerMapping {
+
+        private final ServletHttpHandlerAdapter adapter;
+        private final String servletName;
+
+        ReactiveReadPathHandlerMapping(ServletHttpHandlerAdapter adapter, String servletName,
+                                       Map<String, HttpRequestHandler> handlers) {
+            super(handlers, Ordered.HIGHEST_PRECEDENCE);
+            this.adapter = adapter;
+            this.servletName = servletName;
+        }
+
+        /**
+         * Übergibt dem Adapter die Registrierung des DispatcherServlets, aus der er den Servlet-Pfad bestimmt.
+         */
+        @Override
+        protected void initServletContext(ServletContext servletContext) {
+            adapter.init(new ServletConfig() {
+                @Override
+                public String getServletName() {
+                    return servletName;
+                }
+
+                @Override
+                public ServletContext getServletContext() {
+                    return servletContext;
+                }
+
+                @Override
+                public String getInitParameter(String name) {
+                    return null;
+                }
+
+                @Override
+                public Enumeration<String> getInitParameterNames() {
+                    return Collections.emptyEnumeration();
+                }
+            });
+        }
+
+        @Override
+        protected Object getHandlerInternal(HttpServletRequest request) throws Exception {
+            if (!HttpMethod.GET.matches(request.getMethod())
+                    || request.getParameter("includeDeleted") != null
+                    || !acceptsJson(request)) {
+                return null;
+            }
+            return super.getHandlerInternal(request);
+        }
+
+        private static boolean acceptsJson(HttpServletRequest request) {
+            String accept = request.getHeader(HttpHeaders.ACCEPT);
+            try {
+                return accept == null || MediaType.parseMediaTypes(accept).stream()
+                        .allMatch(mediaType -> mediaType.isCompatibleWith(MediaType.APPLICATION_JSON));
+            } catch (InvalidMediaTypeException ex) {
+                return false;
+            }
+        }
+    }
+}
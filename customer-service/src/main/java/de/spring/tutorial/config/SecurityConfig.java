@@ -3,6 +3,8 @@ package de.spring.tutorial.config;
 import de.spring.tutorial.security.JwtAuthenticationEntryPoint;
 import de.spring.tutorial.security.JwtAuthenticationFilter;
 import de.spring.tutorial.security.JwtTokenProvider;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -10,6 +12,9 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
 
 /**
  * Sicherheitskonfiguration für die Anwendung.
@@ -18,18 +23,28 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @Configuration
 public class SecurityConfig {
 
+    /**
+     * Öffentliche Pfade ohne Authentifizierung. Der Matcher wird einmalig erzeugt und sowohl für die
+     * Autorisierungsregeln als auch zum Überspringen des JWT-Filters verwendet.
+     */
+    private static final RequestMatcher PUBLIC_PATHS = antMatcher("/auth/**");
+
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final JwtTokenProvider jwtTokenProvider;
+    private final boolean authenticationDetails;
 
     /**
      * Konstruktor zur Initialisierung der Sicherheitskonfiguration.
      *
      * @param jwtAuthenticationEntryPoint der EntryPoint für die JWT-Authentifizierung
      * @param jwtTokenProvider der Provider für die JWT-Token-Validierung
+     * @param authenticationDetails ob an die Authentifizierung Details zur Anfrage (IP-Adresse, Session) angehängt werden
      */
-    public SecurityConfig(JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint, JwtTokenProvider jwtTokenProvider) {
+    public SecurityConfig(JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint, JwtTokenProvider jwtTokenProvider,
+                          @Value("${app.security.authentication-details:false}") boolean authenticationDetails) {
         this.jwtAuthenticationEntryPoint = jwtAuthenticationEntryPoint;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.authenticationDetails = authenticationDetails;
     }
 
     /**
@@ -42,7 +57,7 @@ public class SecurityConfig {
      */
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        JwtAuthenticationFilter jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtTokenProvider);
+        JwtAuthenticationFilter jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtTokenProvider, PUBLIC_PATHS, authenticationDetails);
 
         http
                 .cors(AbstractHttpConfigurer::disable)
@@ -56,7 +71,11 @@ public class SecurityConfig {
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
                 .authorizeHttpRequests(authorizeRequests ->
                         authorizeRequests
-                                .requestMatchers("/auth/**").permitAll()
+                                // Asynchrone Dispatches (z.B. Server-Sent Events) und Fehlerseiten (nach dem Abbruch eines
+                                // Streams bindet Tomcat sie per Include ein) wurden beim ursprünglichen Request bereits geprüft
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR, DispatcherType.INCLUDE)
+                                .permitAll()
+                                .requestMatchers(PUBLIC_PATHS).permitAll()
                                 .anyRequest().authenticated()
                 );
 
@@ -1,13 +1,20 @@
 package de.spring.tutorial.controller;
 
 import de.spring.tutorial.model.Customer;
+import de.spring.tutorial.request.CustomerLookupRequest;
+import de.spring.tutorial.response.CustomerLookupResponse;
+import de.spring.tutorial.response.CustomerSuggestion;
 import de.spring.tutorial.service.CustomerService;
+import de.spring.tutorial.service.CustomerSuggestionIndex;
 import de.spring.tutorial.exception.CustomerNotFoundException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * REST-Controller für die {@link Customer}-Entität.
@@ -18,14 +25,17 @@ import java.util.List;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final CustomerSuggestionIndex customerSuggestionIndex;
 
     /**
      * Konstruktor für {@link CustomerController} mit Dependency Injection.
      *
      * @param customerService Service zur Bereitstellung der Geschäftslogik für Kundenoperationen
+     * @param customerSuggestionIndex Präfix-Index für die Autovervollständigung
      */
-    public CustomerController(CustomerService customerService) {
+    public CustomerController(CustomerService customerService, CustomerSuggestionIndex customerSuggestionIndex) {
         this.customerService = customerService;
+        this.customerSuggestionIndex = customerSuggestionIndex;
     }
 
     // <---------------- Standard-Requests ---------------->
@@ -67,6 +77,23 @@ public class CustomerController {
                 .orElseThrow(() -> new CustomerNotFoundException("Kunde mit ID " + id + " nicht gefunden oder Aktualisierung fehlgeschlagen"));
     }
 
+    /**
+     * Aktualisiert einzelne Felder eines bestehenden Kunden nach JSON-Merge-Patch-Semantik.
+     * Es werden nur die im Patch enthaltenen und tatsächlich geänderten Spalten geschrieben.
+     *
+     * @param id    Die ID des Kunden, der aktualisiert werden soll.
+     * @param patch Das Merge-Patch-Dokument mit den zu ändernden Feldern.
+     * @return ResponseEntity mit dem aktualisierten Kunden.
+     * @throws CustomerNotFoundException Wenn der Kunde nicht gefunden wurde.
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Customer> patchCustomer(@PathVariable Long id,
+                                                  @RequestBody Map<String, Object> patch) {
+        return customerService.patchCustomerById(id, patch)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new CustomerNotFoundException("Kunde mit ID " + id + " nicht gefunden oder Aktualisierung fehlgeschlagen"));
+    }
+
     /**
      * Erstellt einen neuen Kunden.
      *
@@ -108,18 +135,36 @@ public class CustomerController {
 
     /**
      * Ruft einen Kunden anhand seiner ID ab.
+     * Soft-gelöschte Kunden werden nur geliefert, wenn {@code includeDeleted=true} explizit gesetzt ist.
      *
      * @param id Die ID des Kunden.
+     * @param includeDeleted Ob auch als gelöscht markierte Kunden berücksichtigt werden sollen.
      * @return ResponseEntity mit dem gefundenen Kunden.
      * @throws CustomerNotFoundException Wenn kein Kunde mit der angegebenen ID gefunden wurde.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Customer> getCustomerById(@PathVariable Long id) {
-        return customerService.getCustomerById(id)
+    public ResponseEntity<Customer> getCustomerById(@PathVariable Long id,
+                                                    @RequestParam(defaultValue = "false") boolean includeDeleted) {
+        Optional<Customer> customer = includeDeleted
+                ? customerService.getCustomerByIdIncludingDeleted(id)
+                : customerService.getCustomerById(id);
+        return customer
                 .map(ResponseEntity::ok)
                 .orElseThrow(() -> new CustomerNotFoundException("Kunde mit ID " + id + " nicht gefunden"));
     }
 
+    /**
+     * Ruft mehrere Kunden in einem einzigen Aufruf anhand von IDs, E-Mail-Adressen, Spitznamen
+     * und Handynummern ab.
+     *
+     * @param request Die angefragten Werte.
+     * @return ResponseEntity mit den gefundenen Kunden, geschlüsselt nach dem angefragten Wert.
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<CustomerLookupResponse> lookupCustomers(@RequestBody CustomerLookupRequest request) {
+        return ResponseEntity.ok(customerService.lookupCustomers(request));
+    }
+
     /**
      * Ruft Kunden anhand ihres Spitznamens ab.
      *
@@ -167,6 +212,21 @@ public class CustomerController {
         return ResponseEntity.ok(customers);
     }
 
+    /**
+     * Liefert Vorschläge für die Autovervollständigung anhand des Anfangs von Spitzname, Vorname, Nachname
+     * oder vollständigem Namen. Die Vorschläge stammen aus einem Index im Speicher, die Datenbank wird nicht
+     * abgefragt.
+     *
+     * @param prefix Der bisher eingegebene Anfang des Namens.
+     * @param limit Die maximale Anzahl an Vorschlägen.
+     * @return ResponseEntity mit den Vorschlägen; leer, wenn kein Kunde passt.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<CustomerSuggestion>> suggestCustomers(@RequestParam String prefix,
+                                                                     @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(customerSuggestionIndex.suggest(prefix, limit));
+    }
+
     /**
      * Ruft einen Kunden anhand seiner E-Mail-Adresse ab.
      *
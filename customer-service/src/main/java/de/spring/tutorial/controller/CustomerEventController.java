@@ -0,0 +1,80 @@
+package de.spring.tutorial.controller;
+
+import de.spring.tutorial.model.CustomerEvent;
+import de.spring.tutorial.service.CustomerEventService;
+import de.spring.tutorial.service.CustomerEventStreamService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * REST-Controller für den Ereignisstrom der Kundenänderungen (Outbox).
+ * Konsumenten lesen Änderungen inkrementell anhand von Offsets, statt regelmäßig alle Kunden abzufragen.
+ */
+@RestController
+@RequestMapping("/customers/events")
+public class CustomerEventController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final CustomerEventService customerEventService;
+    private final CustomerEventStreamService customerEventStreamService;
+
+    /**
+     * Konstruktor für {@link CustomerEventController} mit Dependency Injection.
+     *
+     * @param customerEventService Service für das Lesen der Outbox
+     * @param customerEventStreamService Service für den Ereignisstrom per Server-Sent Events
+     */
+    public CustomerEventController(CustomerEventService customerEventService,
+                                   CustomerEventStreamService customerEventStreamService) {
+        this.customerEventService = customerEventService;
+        this.customerEventStreamService = customerEventStreamService;
+    }
+
+    /**
+     * Ruft die Ereignisse nach dem angegebenen Offset ab. Der Offset ist die {@code sequence} des zuletzt
+     * gelesenen Ereignisses, nicht seine ID.
+     *
+     * @param after Der zuletzt gelesene Offset.
+     * @param limit Die maximale Anzahl an Ereignissen (höchstens 1000).
+     * @return ResponseEntity mit den Ereignissen in aufsteigender Reihenfolge.
+     */
+    @GetMapping
+    public ResponseEntity<List<CustomerEvent>> getEvents(@RequestParam(defaultValue = "0") long after,
+                                                         @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(customerEventService.getEventsAfter(after, Math.clamp(limit, 1, MAX_LIMIT)));
+    }
+
+    /**
+     * Öffnet einen Ereignisstrom per Server-Sent Events.
+     * Der Offset kann über den Parameter {@code after} oder beim Wiederverbinden über den
+     * Header {@code Last-Event-ID} angegeben werden. Ohne Offset werden nur neue Ereignisse geliefert.
+     *
+     * @param after Der zuletzt gelesene Offset.
+     * @param lastEventId Die ID des zuletzt empfangenen Ereignisses beim Wiederverbinden.
+     * @return Der {@link SseEmitter} des Streams.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestParam(required = false) Long after,
+                                   @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return customerEventStreamService.openStream(lastEventId != null ? lastEventId : after);
+    }
+
+    /**
+     * Abonniert die Änderungen der angegebenen Kunden per Server-Sent Events.
+     * Zuerst wird der aktuelle Stand jedes Kunden als {@code SNAPSHOT} gesendet, danach nur noch die
+     * geänderten Felder als {@code UPDATED}- bzw. die Löschereignisse.
+     *
+     * @param ids Die IDs der abonnierten Kunden.
+     * @return Der {@link SseEmitter} des Abonnements.
+     */
+    @GetMapping(value = "/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestParam Set<Long> ids) {
+        return customerEventStreamService.openSubscription(ids);
+    }
+}
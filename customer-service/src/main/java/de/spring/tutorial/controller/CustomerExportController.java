@@ -0,0 +1,131 @@
+package de.spring.tutorial.controller;
+
+import de.spring.tutorial.exception.ExportNotAvailableException;
+import de.spring.tutorial.service.CustomerExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * REST-Controller für den Download des Kundenexports.
+ * <p>
+ * Ausgeliefert wird die fertige Exportdatei des {@link CustomerExportService}; die Anfrage berührt weder die
+ * Datenbank noch lädt sie Kunden in den Speicher. Tomcat überträgt die Datei per sendfile direkt aus dem
+ * Page-Cache in den Socket, der Request-Thread ist danach sofort frei. Wo sendfile nicht möglich ist (z.B. mit
+ * TLS), wird die Datei per {@link FileChannel#transferTo} in die Antwort geschrieben.
+ * <p>
+ * Abgebrochene Downloads lassen sich über einen Range-Header fortsetzen; die ETag ist der Dateiname des
+ * Exports und ändert sich mit jedem neuen Export.
+ */
+@RestController
+@RequestMapping("/customers/export")
+public class CustomerExportController {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final String CONTENT_TYPE = "application/gzip";
+
+    private final CustomerExportService customerExportService;
+
+    /**
+     * Konstruktor für {@link CustomerExportController} mit Dependency Injection.
+     *
+     * @param customerExportService Service, der die Exportdateien erstellt
+     */
+    public CustomerExportController(CustomerExportService customerExportService) {
+        this.customerExportService = customerExportService;
+    }
+
+    /**
+     * Liefert den neuesten Export aller aktiven Kunden als gzip-komprimierte CSV-Datei.
+     * Unterstützt {@code If-None-Match}, {@code If-Range} und einen einzelnen Bereich im {@code Range}-Header.
+     * Bei mehreren Bereichen und bei einem ungültigen {@code Range}-Header wird die ganze Datei geliefert
+     * (RFC 9110, Abschnitt 14.2), nur ein gültiger Bereich außerhalb der Datei ergibt 416.
+     *
+     * @param request Die HTTP-Anfrage.
+     * @param response Die HTTP-Antwort, in die die Datei geschrieben wird.
+     * @throws IOException Wenn die Datei nicht gelesen oder die Antwort nicht geschrieben werden kann.
+     * @throws ExportNotAvailableException Wenn noch kein Export erstellt wurde.
+     */
+    @GetMapping
+    public void downloadExport(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path snapshot = customerExportService.currentSnapshot()
+                .orElseThrow(() -> new ExportNotAvailableException("Es liegt noch kein Export der Kunden vor."));
+        String fileName = snapshot.getFileName().toString();
+        String etag = "\"" + fileName + "\"";
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+        long length = Files.size(snapshot);
+        long start = 0;
+        long end = length - 1;
+
+        response.setContentType(CONTENT_TYPE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(fileName).build().toString());
+
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        List<HttpRange> ranges = range != null && (ifRange == null || ifRange.equals(etag)) ? parseRanges(range) : List.of();
+        if (ranges.size() == 1) {
+            start = ranges.getFirst().getRangeStart(length);
+            end = ranges.getFirst().getRangeEnd(length);
+            if (start >= length || start > end) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        response.setContentLengthLong(end - start + 1);
+        if (HttpMethod.HEAD.matches(request.getMethod())) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, snapshot.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                position += channel.transferTo(position, end + 1 - position, target);
+            }
+        }
+    }
+
+    /**
+     * Liest die Bereiche aus dem {@code Range}-Header. Ein ungültiger Header wird ignoriert.
+     */
+    private static List<HttpRange> parseRanges(String range) {
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+}
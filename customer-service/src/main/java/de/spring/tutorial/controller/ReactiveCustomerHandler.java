@@ -0,0 +1,167 @@
+package de.spring.tutorial.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import de.spring.tutorial.exception.CustomerNotFoundException;
+import de.spring.tutorial.exception.ErrorCode;
+import de.spring.tutorial.exception.ErrorResponseWriter;
+import de.spring.tutorial.model.Customer;
+import de.spring.tutorial.service.ReactiveCustomerService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Funktionale WebFlux-Endpunkte für die nicht-blockierenden Lesepfade der {@link Customer}-Entität
+ * (Profil {@code reactive}).
+ * <p>
+ * Die Endpunkte ersetzen im Profil {@code reactive} dieselben Pfade des {@link CustomerController} mit denselben
+ * Antworten (JSON-Array, {@code 204} bei leerer Liste, {@code 404} mit Fehlercode). Listen werden seitenweise aus
+ * der Datenbank gelesen und als JSON-Array geschrieben, sobald der Client die vorherigen Daten abgenommen hat. Jede
+ * Seite wird dabei als Ganzes serialisiert und mit einem Aufruf geschrieben, nicht Kunde für Kunde.
+ * Eingebunden werden sie über {@link de.spring.tutorial.config.ReactiveReadPathConfig}.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveCustomerHandler {
+
+    /** Pfad aller aktiven Kunden. */
+    public static final String ACTIVE_PATH = "/customers/active";
+
+    /** Pfad eines Kunden anhand seiner ID; längere Zahlen übernimmt der {@link CustomerController}. */
+    public static final String BY_ID_PATH = "/customers/{id:[0-9]{1,18}}";
+
+    /** Pfad der Namenssuche. */
+    public static final String SEARCH_PATH = "/customers/search/{searchQuery}";
+
+    private static final byte[] ARRAY_END = {']'};
+
+    private final ReactiveCustomerService reactiveCustomerService;
+    private final ErrorResponseWriter errorResponseWriter;
+    private final ObjectWriter pageWriter;
+
+    /**
+     * Konstruktor für {@link ReactiveCustomerHandler} mit Dependency Injection.
+     *
+     * @param reactiveCustomerService Service für die nicht-blockierenden Lesepfade
+     * @param errorResponseWriter Schreiber für die Fehlerantworten im Format der übrigen Endpunkte
+     * @param objectMapper der ObjectMapper der Anwendung, damit JSON wie bei Spring MVC geschrieben wird
+     */
+    public ReactiveCustomerHandler(ReactiveCustomerService reactiveCustomerService,
+                                   ErrorResponseWriter errorResponseWriter,
+                                   ObjectMapper objectMapper) {
+        this.reactiveCustomerService = reactiveCustomerService;
+        this.errorResponseWriter = errorResponseWriter;
+        this.pageWriter = objectMapper.writerFor(new TypeReference<List<Customer>>() {
+        });
+    }
+
+    /**
+     * Liefert die Routen der Lesepfade.
+     *
+     * @return die {@link RouterFunction} mit den Endpunkten
+     */
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .GET(ACTIVE_PATH, this::getActiveCustomers)
+                .GET(BY_ID_PATH, this::getCustomerById)
+                .GET(SEARCH_PATH, this::searchCustomersByName)
+                .onError(CustomerNotFoundException.class, (ex, request) -> ServerResponse
+                        .status(ErrorCode.CUSTOMER_NOT_FOUND.getStatus())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(errorResponseWriter.toBytes(ErrorCode.CUSTOMER_NOT_FOUND, ex.getMessage())))
+                // Kein Ergebnis innerhalb der maximalen Wartezeit: wie bei der Begrenzung gleichzeitiger Anfragen
+                // mit 503 antworten, statt die Anfrage weiter warten zu lassen
+                .onError(TimeoutException.class, (ex, request) -> ServerResponse
+                        .status(ErrorCode.SERVICE_OVERLOADED.getStatus())
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(errorResponseWriter.toBytes(ErrorCode.SERVICE_OVERLOADED, null)))
+                .build();
+    }
+
+    /**
+     * Streamt alle aktiven Kunden (nicht gelöscht).
+     *
+     * @param request Die Anfrage.
+     * @return Antwort mit den aktiven Kunden oder {@code 204}, wenn es keine gibt.
+     */
+    private Mono<ServerResponse> getActiveCustomers(ServerRequest request) {
+        return respond(reactiveCustomerService.getActiveCustomerPages(), ServerResponse.noContent().build());
+    }
+
+    /**
+     * Ruft einen aktiven Kunden anhand seiner ID ab.
+     *
+     * @param request Die Anfrage mit der ID des Kunden.
+     * @return Antwort mit dem gefundenen Kunden.
+     * @throws CustomerNotFoundException Wenn kein Kunde mit der angegebenen ID gefunden wurde.
+     */
+    private Mono<ServerResponse> getCustomerById(ServerRequest request) {
+        long id = Long.parseLong(request.pathVariable("id"));
+        return reactiveCustomerService.getCustomerById(id)
+                .switchIfEmpty(Mono.error(() -> new CustomerNotFoundException("Kunde mit ID " + id + " nicht gefunden")))
+                .flatMap(customer -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(customer));
+    }
+
+    /**
+     * Streamt Kunden anhand eines Namensfragments.
+     *
+     * @param request Die Anfrage mit dem Suchbegriff für den Namen.
+     * @return Antwort mit den gefundenen Kunden.
+     * @throws CustomerNotFoundException Wenn keine Kunden mit dem angegebenen Namensfragment gefunden wurden.
+     */
+    private Mono<ServerResponse> searchCustomersByName(ServerRequest request) {
+        String searchQuery = request.pathVariable("searchQuery");
+        return respond(reactiveCustomerService.searchCustomerPagesByName(searchQuery), Mono.error(() ->
+                new CustomerNotFoundException("Keine Kunden mit Name ähnlich '" + searchQuery + "' gefunden")));
+    }
+
+    /**
+     * Entscheidet anhand der ersten Seite über die Antwort: Ist sie vorhanden, wird sie zusammen mit den folgenden
+     * Seiten als JSON-Array geschrieben, andernfalls wird {@code whenEmpty} geliefert.
+     */
+    private Mono<ServerResponse> respond(Flux<List<Customer>> pages, Mono<ServerResponse> whenEmpty) {
+        return pages.switchOnFirst((first, all) -> first.hasValue()
+                        ? ServerResponse.ok()
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .body(BodyInserters.fromDataBuffers(all.index()
+                                        .map(page -> toJson(page.getT2(), page.getT1() == 0))
+                                        .concatWith(Mono.fromSupplier(() -> DefaultDataBufferFactory.sharedInstance.wrap(ARRAY_END)))))
+                        : all.then(whenEmpty), false)
+                .singleOrEmpty();
+    }
+
+    /**
+     * Serialisiert eine Seite als Teil des JSON-Arrays: die Kunden durch Kommas getrennt, ohne schließende Klammer
+     * und ab der zweiten Seite mit einem Komma statt der öffnenden Klammer.
+     */
+    private DataBuffer toJson(List<Customer> page, boolean first) {
+        try {
+            byte[] json = pageWriter.writeValueAsBytes(page);
+            if (!first) {
+                json[0] = ',';
+            }
+            return DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(json, 0, json.length - 1));
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
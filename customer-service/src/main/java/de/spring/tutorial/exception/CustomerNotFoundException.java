@@ -6,6 +6,10 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 /**
  * Wird ausgelöst, wenn ein Kunde anhand einer ID, E-Mail oder anderen Kriterien nicht gefunden wird.
  * Führt zu einer HTTP-Antwort mit dem Statuscode 404 (Not Found).
+ * <p>
+ * Ein nicht gefundener Kunde ist ein regulärer Ablauf und kein Programmfehler. Die Exception erfasst
+ * deshalb keinen Stacktrace und unterstützt keine Suppressed-Exceptions, damit häufige Fehltreffer
+ * (z.B. bei der Suche nach Telefonnummern) keine teuren Stacktraces erzeugen.
  */
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class CustomerNotFoundException extends RuntimeException {
@@ -16,6 +20,6 @@ public class CustomerNotFoundException extends RuntimeException {
      * @param message Detailnachricht zur Beschreibung des Fehlers.
      */
     public CustomerNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,41 @@
+package de.spring.tutorial.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Feste Fehlercodes, die der {@link ErrorResponseWriter} als JSON-Fehlerantwort ausgibt.
+ * Jeder Code ist an einen HTTP-Status und eine Standardnachricht gebunden.
+ */
+public enum ErrorCode {
+
+    CUSTOMER_NOT_FOUND(HttpStatus.NOT_FOUND, "Kunde wurde nicht gefunden."),
+    DUPLICATE_EMAIL(HttpStatus.BAD_REQUEST, "Ein Kunde mit dieser E-Mail existiert bereits."),
+    DUPLICATE_MOBILE_NUMBER(HttpStatus.BAD_REQUEST, "Ein Kunde mit dieser Handynummer existiert bereits."),
+    INVALID_CUSTOMER_DATA(HttpStatus.BAD_REQUEST, "Ungültige Kundendaten."),
+    EXPORT_NOT_AVAILABLE(HttpStatus.NOT_FOUND, "Es liegt noch kein Export der Kunden vor."),
+    UNAUTHORIZED(HttpStatus.UNAUTHORIZED, "Authentication failed"),
+    SERVICE_OVERLOADED(HttpStatus.SERVICE_UNAVAILABLE, "Der Service ist ausgelastet. Bitte später erneut versuchen."),
+    GENERAL_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "Ein unerwarteter Fehler ist aufgetreten.");
+
+    private final HttpStatus status;
+    private final String defaultMessage;
+
+    ErrorCode(HttpStatus status, String defaultMessage) {
+        this.status = status;
+        this.defaultMessage = defaultMessage;
+    }
+
+    /**
+     * @return der HTTP-Status, mit dem dieser Fehler beantwortet wird.
+     */
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return die Nachricht, die verwendet wird, wenn keine eigene Nachricht angegeben ist.
+     */
+    public String getDefaultMessage() {
+        return defaultMessage;
+    }
+}
@@ -0,0 +1,21 @@
+package de.spring.tutorial.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Wird ausgelöst, wenn der Export der Kunden angefordert wird, bevor der erste Export erstellt wurde.
+ * Führt zu einer HTTP-Antwort mit dem Statuscode 404 (Not Found).
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ExportNotAvailableException extends RuntimeException {
+
+    /**
+     * Konstruktor für ExportNotAvailableException.
+     *
+     * @param message Detailnachricht zur Beschreibung des Fehlers.
+     */
+    public ExportNotAvailableException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -1,79 +1,104 @@
 package de.spring.tutorial.exception;
 
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.io.IOException;
+
 /**
  * Globaler Fehlerbehandler, der alle Exceptions im Projekt verarbeitet.
  * Diese Klasse ist verantwortlich für das Abfangen von spezifischen Exceptions
- * und das Erstellen einer strukturierten JSON-Fehlermeldung.
+ * und das Schreiben einer strukturierten JSON-Fehlermeldung über den {@link ErrorResponseWriter}.
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final ErrorResponseWriter errorResponseWriter;
+
+    /**
+     * Konstruktor für den {@link GlobalExceptionHandler}.
+     *
+     * @param errorResponseWriter Writer für die vorserialisierten Fehlerantworten
+     */
+    public GlobalExceptionHandler(ErrorResponseWriter errorResponseWriter) {
+        this.errorResponseWriter = errorResponseWriter;
+    }
+
     /**
      * Behandelt die {@link CustomerNotFoundException} und gibt eine detaillierte Fehlermeldung zurück.
      *
      * @param ex Die ausgelöste {@link CustomerNotFoundException}.
-     * @return Eine ResponseEntity mit dem Fehlerstatus und der Fehlermeldung.
+     * @param response Die HTTP-Antwort, in die die Fehlermeldung geschrieben wird.
+     * @throws IOException Wenn ein Fehler beim Schreiben der Antwort auftritt.
      */
     @ExceptionHandler(CustomerNotFoundException.class)
-    public ResponseEntity<ErrorResponse> handleCustomerNotFoundException(CustomerNotFoundException ex) {
-        ErrorResponse errorResponse = ErrorResponseUtil.createErrorResponse(
-                HttpStatus.NOT_FOUND,
-                "CUSTOMER_NOT_FOUND",
-                ex.getMessage()
-        );
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+    public void handleCustomerNotFoundException(CustomerNotFoundException ex, HttpServletResponse response)
+            throws IOException {
+        errorResponseWriter.write(response, ErrorCode.CUSTOMER_NOT_FOUND, ex.getMessage());
     }
 
     /**
      * Behandelt die {@link DuplicateEmailException} und gibt eine detaillierte Fehlermeldung zurück.
      *
      * @param ex Die ausgelöste {@link DuplicateEmailException}.
-     * @return Eine ResponseEntity mit dem Fehlerstatus und der Fehlermeldung.
+     * @param response Die HTTP-Antwort, in die die Fehlermeldung geschrieben wird.
+     * @throws IOException Wenn ein Fehler beim Schreiben der Antwort auftritt.
      */
     @ExceptionHandler(DuplicateEmailException.class)
-    public ResponseEntity<ErrorResponse> handleDuplicateEmailException(DuplicateEmailException ex) {
-        ErrorResponse errorResponse = ErrorResponseUtil.createErrorResponse(
-                HttpStatus.BAD_REQUEST,
-                "DUPLICATE_EMAIL",
-                ex.getMessage()
-        );
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    public void handleDuplicateEmailException(DuplicateEmailException ex, HttpServletResponse response)
+            throws IOException {
+        errorResponseWriter.write(response, ErrorCode.DUPLICATE_EMAIL, ex.getMessage());
     }
 
     /**
      * Behandelt die {@link DuplicateMobileNumberException} und gibt eine detaillierte Fehlermeldung zurück.
      *
      * @param ex Die ausgelöste {@link DuplicateMobileNumberException}.
-     * @return Eine ResponseEntity mit dem Fehlerstatus und der Fehlermeldung.
+     * @param response Die HTTP-Antwort, in die die Fehlermeldung geschrieben wird.
+     * @throws IOException Wenn ein Fehler beim Schreiben der Antwort auftritt.
      */
     @ExceptionHandler(DuplicateMobileNumberException.class)
-    public ResponseEntity<ErrorResponse> handleDuplicateMobileNumberException(DuplicateMobileNumberException ex) {
-        ErrorResponse errorResponse = ErrorResponseUtil.createErrorResponse(
-                HttpStatus.BAD_REQUEST,
-                "DUPLICATE_MOBILE_NUMBER",
-                ex.getMessage()
-        );
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    public void handleDuplicateMobileNumberException(DuplicateMobileNumberException ex, HttpServletResponse response)
+            throws IOException {
+        errorResponseWriter.write(response, ErrorCode.DUPLICATE_MOBILE_NUMBER, ex.getMessage());
+    }
+
+    /**
+     * Behandelt die {@link InvalidCustomerDataException} und gibt eine detaillierte Fehlermeldung zurück.
+     *
+     * @param ex Die ausgelöste {@link InvalidCustomerDataException}.
+     * @param response Die HTTP-Antwort, in die die Fehlermeldung geschrieben wird.
+     * @throws IOException Wenn ein Fehler beim Schreiben der Antwort auftritt.
+     */
+    @ExceptionHandler(InvalidCustomerDataException.class)
+    public void handleInvalidCustomerDataException(InvalidCustomerDataException ex, HttpServletResponse response)
+            throws IOException {
+        errorResponseWriter.write(response, ErrorCode.INVALID_CUSTOMER_DATA, ex.getMessage());
+    }
+
+    /**
+     * Behandelt die {@link ExportNotAvailableException} und gibt eine detaillierte Fehlermeldung zurück.
+     *
+     * @param ex Die ausgelöste {@link ExportNotAvailableException}.
+     * @param response Die HTTP-Antwort, in die die Fehlermeldung geschrieben wird.
+     * @throws IOException Wenn ein Fehler beim Schreiben der Antwort auftritt.
+     */
+    @ExceptionHandler(ExportNotAvailableException.class)
+    public void handleExportNotAvailableException(ExportNotAvailableException ex, HttpServletResponse response)
+            throws IOException {
+        errorResponseWriter.write(response, ErrorCode.EXPORT_NOT_AVAILABLE, ex.getMessage());
     }
 
     /**
      * Behandelt allgemeine {@link Exception}-Fehler und gibt eine detaillierte Fehlermeldung zurück.
      *
      * @param ex Die ausgelöste {@link Exception}.
-     * @return Eine ResponseEntity mit dem Fehlerstatus und der Fehlermeldung.
+     * @param response Die HTTP-Antwort, in die die Fehlermeldung geschrieben wird.
+     * @throws IOException Wenn ein Fehler beim Schreiben der Antwort auftritt.
      */
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<ErrorResponse> handleGeneralException(Exception ex) {
-        ErrorResponse errorResponse = ErrorResponseUtil.createErrorResponse(
-                HttpStatus.INTERNAL_SERVER_ERROR,
-                "GENERAL_ERROR",
-                ex.getMessage()
-        );
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+    public void handleGeneralException(Exception ex, HttpServletResponse response) throws IOException {
+        errorResponseWriter.write(response, ErrorCode.GENERAL_ERROR, ex.getMessage());
     }
 }
@@ -0,0 +1,38 @@
+package de.spring.tutorial.filter;
+
+/**
+ * Prioritätsklassen für die Begrenzung gleichzeitiger Anfragen.
+ * <p>
+ * Jede Klasse darf nur den angegebenen Anteil des aktuellen Limits belegen. Unter Last werden dadurch zuerst
+ * Anfragen niedriger Priorität abgewiesen, während für Anfragen hoher Priorität noch Plätze frei bleiben.
+ */
+public enum RequestPriority {
+
+    /**
+     * Kurze, wichtige Anfragen (z.B. Login, Abruf einzelner Kunden).
+     */
+    HIGH(1.0),
+
+    /**
+     * Alle übrigen Anfragen, insbesondere Schreibzugriffe.
+     */
+    NORMAL(0.9),
+
+    /**
+     * Teure Anfragen wie vollständige Listen und Suchen.
+     */
+    LOW(0.5);
+
+    private final double limitShare;
+
+    RequestPriority(double limitShare) {
+        this.limitShare = limitShare;
+    }
+
+    /**
+     * @return der Anteil des aktuellen Limits, den Anfragen dieser Klasse belegen dürfen.
+     */
+    public double getLimitShare() {
+        return limitShare;
+    }
+}
@@ -1,16 +1,45 @@
 package de.spring.tutorial.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.SQLRestriction;
+
+import java.util.Objects;
 
 /**
  * Repräsentiert einen Kunden innerhalb der Anwendung.
  * Diese Entität wird einer Datenbanktabelle zugeordnet und enthält
  * personenbezogene Daten wie Name, Telefonnummern und E-Mail-Adresse.
+ * <p>
+ * Soft-gelöschte Kunden werden über {@link SQLRestriction} bereits auf Datenbankebene aus allen
+ * Abfragen herausgefiltert. Gelöschte Datensätze sind nur über die expliziten
+ * {@code ...IncludingDeleted}-Methoden des Repositorys erreichbar.
+ * <p>
+ * Die Reihenfolge der Felder im JSON ist fest vorgegeben, damit Jackson sie nicht pro Klasse
+ * ermitteln muss und Clients eine stabile Darstellung erhalten.
+ * <p>
+ * Telefon- und Handynummer werden zusätzlich in der Form nach E.164 gespeichert und indiziert, die E-Mail-Adresse
+ * zusätzlich in Kleinschreibung mit eindeutigem Index. Suchen und Eindeutigkeitsprüfungen kommen so unabhängig
+ * von der Schreibweise mit einem Zugriff auf den Index aus. Die Spalten werden beim Schreiben aus den
+ * eingegebenen Werten berechnet und nicht im JSON ausgegeben.
  */
 @Entity
+@JsonPropertyOrder({"id", "nickName", "lastName", "firstName", "phoneNumber", "mobileNumber", "email", "deleted"})
+@Table(indexes = {
+        @Index(name = "idx_customer_deleted_id", columnList = "deleted, id"),
+        @Index(name = "idx_customer_last_name_deleted", columnList = "last_name, deleted"),
+        @Index(name = "idx_customer_phone_number_deleted", columnList = "phone_number, deleted"),
+        @Index(name = "idx_customer_phone_number_e164_deleted", columnList = "phone_number_e164, deleted"),
+        @Index(name = "idx_customer_mobile_number_e164", columnList = "mobile_number_e164"),
+        @Index(name = "idx_customer_normalized_id", columnList = "normalized, id")
+})
+@SQLRestriction("deleted = false")
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -71,9 +100,79 @@ public class Customer {
     @Column(unique = true)
     private String email;
 
+    /**
+     * Telefonnummer nach E.164, z.B. {@code +49301234567}.
+     * {@code null}, wenn sich die Telefonnummer nicht normalisieren lässt.
+     */
+    @JsonIgnore
+    @Column(name = "phone_number_e164", length = 16)
+    private String phoneNumberE164;
+
+    /**
+     * Handynummer nach E.164, z.B. {@code +491711234567}.
+     * {@code null}, wenn sich die Handynummer nicht normalisieren lässt.
+     */
+    @JsonIgnore
+    @Column(name = "mobile_number_e164", length = 16)
+    private String mobileNumberE164;
+
+    /**
+     * E-Mail-Adresse in Kleinschreibung, eindeutig über alle Kunden einschließlich der gelöschten.
+     */
+    @JsonIgnore
+    @Column(unique = true)
+    private String emailNormalized;
+
+    /**
+     * Gibt an, ob die normalisierten Spalten berechnet wurden, auch wenn sich einzelne Werte nicht normalisieren
+     * ließen. Vor deren Einführung angelegte Kunden haben {@code false}, bis der Backfill sie verarbeitet hat.
+     */
+    @JsonIgnore
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private boolean normalized;
+
     /**
      * Gibt an, ob der Kunde als gelöscht markiert wurde (Soft-Delete).
      * Standardmäßig {@code false}.
      */
     private boolean deleted = false;
+
+    /**
+     * E-Mail-Adresse, wie sie zuletzt aus der Datenbank gelesen oder in sie geschrieben wurde.
+     */
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private String loadedEmail;
+
+    /**
+     * Berechnet die normalisierten Spalten vor jedem Schreiben aus den eingegebenen Werten.
+     * <p>
+     * Die E-Mail-Adresse wird nur bei neuen Kunden und nach einer Änderung neu normalisiert. Bei Dubletten in anderer
+     * Schreibweise lässt der {@link de.spring.tutorial.service.NormalizedColumnsBackfill} die Spalte bewusst leer;
+     * jede andere Änderung eines solchen Kunden würde sonst am eindeutigen Index scheitern.
+     */
+    @PrePersist
+    @PreUpdate
+    void normalize() {
+        phoneNumberE164 = PhoneNumberNormalizer.toE164(phoneNumber);
+        mobileNumberE164 = PhoneNumberNormalizer.toE164(mobileNumber);
+        if (id == null || !Objects.equals(email, loadedEmail)) {
+            emailNormalized = EmailNormalizer.normalize(email);
+            normalized = true;
+        }
+    }
+
+    /**
+     * Merkt sich die E-Mail-Adresse nach dem Lesen und Schreiben, um Änderungen zu erkennen.
+     */
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void rememberEmail() {
+        loadedEmail = email;
+    }
 }
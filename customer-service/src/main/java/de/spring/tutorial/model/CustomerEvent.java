@@ -0,0 +1,74 @@
+package de.spring.tutorial.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Eintrag der transaktionalen Outbox für Änderungen an Kunden.
+ * <p>
+ * Ein Ereignis wird in derselben Transaktion geschrieben wie die Änderung am {@link Customer} selbst.
+ * Konsumenten lesen den Ereignisstrom inkrementell anhand der {@link #sequence}, nicht anhand der ID: Die ID
+ * wird beim Einfügen vergeben, gleichzeitige Transaktionen werden aber nicht in der Reihenfolge ihrer IDs
+ * sichtbar. Ein Leser hinter Offset N könnte so ein später sichtbares Ereignis mit kleinerer ID verpassen.
+ * Die Sequenz vergibt erst das Relay beim Veröffentlichen, in der Reihenfolge, in der die Ereignisse
+ * sichtbar werden.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_customer_event_sequence_id", columnList = "sequence_no, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class CustomerEvent {
+
+    /**
+     * ID des Ereignisses.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Position im Ereignisstrom und damit der Offset für Konsumenten; lückenlos aufsteigend in der Reihenfolge
+     * der Veröffentlichung. {@code null}, solange das Relay das Ereignis noch nicht veröffentlicht hat.
+     */
+    @Column(name = "sequence_no", unique = true)
+    private Long sequence;
+
+    /**
+     * ID des betroffenen Kunden.
+     */
+    @Column(nullable = false)
+    private Long customerId;
+
+    /**
+     * Art der Änderung.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private CustomerEventType type;
+
+    /**
+     * Geänderte Felder mit ihren neuen Werten, geschlüsselt nach JSON-Namen.
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    private Map<String, String> changes;
+
+    /**
+     * Zeitpunkt der Änderung.
+     */
+    @Column(nullable = false)
+    private Instant occurredAt;
+
+    /**
+     * Gibt an, ob das Ereignis bereits vom Relay veröffentlicht wurde.
+     */
+    @JsonIgnore
+    private boolean published;
+}
@@ -0,0 +1,19 @@
+package de.spring.tutorial.model;
+
+/**
+ * Art einer Änderung an einem {@link Customer}, die im Outbox-Ereignisstrom veröffentlicht wird.
+ */
+public enum CustomerEventType {
+
+    /** Ein Kunde wurde angelegt. Die Änderungen enthalten alle Felder. */
+    CREATED,
+
+    /** Ein Kunde wurde aktualisiert. Die Änderungen enthalten nur die geänderten Felder. */
+    UPDATED,
+
+    /** Ein Kunde wurde als gelöscht markiert. */
+    SOFT_DELETED,
+
+    /** Ein Kunde wurde dauerhaft gelöscht. */
+    HARD_DELETED
+}
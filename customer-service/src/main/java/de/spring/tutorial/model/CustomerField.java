@@ -0,0 +1,71 @@
+package de.spring.tutorial.model;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Die fachlich änderbaren Felder eines {@link Customer}.
+ * Verknüpft den JSON-Namen eines Feldes mit dem passenden Getter und Setter,
+ * damit Teilaktualisierungen feldweise angewendet und verglichen werden können.
+ */
+public enum CustomerField {
+
+    NICK_NAME("nickName", Customer::getNickName, Customer::setNickName),
+    FIRST_NAME("firstName", Customer::getFirstName, Customer::setFirstName),
+    LAST_NAME("lastName", Customer::getLastName, Customer::setLastName),
+    PHONE_NUMBER("phoneNumber", Customer::getPhoneNumber, Customer::setPhoneNumber),
+    MOBILE_NUMBER("mobileNumber", Customer::getMobileNumber, Customer::setMobileNumber),
+    EMAIL("email", Customer::getEmail, Customer::setEmail);
+
+    private final String jsonName;
+    private final Function<Customer, String> getter;
+    private final BiConsumer<Customer, String> setter;
+
+    CustomerField(String jsonName, Function<Customer, String> getter, BiConsumer<Customer, String> setter) {
+        this.jsonName = jsonName;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    /**
+     * Sucht das Feld mit dem angegebenen JSON-Namen.
+     *
+     * @param jsonName der Name des Feldes im JSON-Dokument
+     * @return das passende Feld oder {@code null}, wenn es kein änderbares Feld mit diesem Namen gibt
+     */
+    public static CustomerField fromJsonName(String jsonName) {
+        for (CustomerField field : values()) {
+            if (field.jsonName.equals(jsonName)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return der Name des Feldes im JSON-Dokument
+     */
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    /**
+     * Liest den Wert dieses Feldes aus dem Kunden.
+     *
+     * @param customer der Kunde
+     * @return der aktuelle Wert
+     */
+    public String get(Customer customer) {
+        return getter.apply(customer);
+    }
+
+    /**
+     * Setzt den Wert dieses Feldes im Kunden.
+     *
+     * @param customer der Kunde
+     * @param value der neue Wert
+     */
+    public void set(Customer customer, String value) {
+        setter.accept(customer, value);
+    }
+}
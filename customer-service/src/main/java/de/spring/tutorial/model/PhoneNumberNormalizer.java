@@ -0,0 +1,58 @@
+package de.spring.tutorial.model;
+
+/**
+ * Bringt Telefonnummern in die kanonische Form nach E.164 ({@code +<Ländervorwahl><Rufnummer>}).
+ * <p>
+ * Leerzeichen, Bindestriche, Punkte, Schrägstriche und Klammern werden entfernt, ebenso eine eingeklammerte
+ * Null nach der Ländervorwahl ({@code +49 (0)171 ...}). Die internationale Vorwahl wird aus {@code +} oder
+ * {@code 00} erkannt; nationale Nummern mit führender {@code 0} und Nummern ohne Vorwahl gelten als deutsche
+ * Nummern. So ergeben {@code +49 171 1234567}, {@code 0171/1234567} und {@code 0049 171 1234567} dieselbe Form
+ * {@code +491711234567}.
+ */
+public final class PhoneNumberNormalizer {
+
+    /**
+     * Ländervorwahl für Nummern ohne internationale Vorwahl.
+     */
+    public static final String DEFAULT_COUNTRY_CODE = "49";
+
+    private static final int MIN_DIGITS = 7;
+    private static final int MAX_DIGITS = 15;
+
+    private PhoneNumberNormalizer() {
+    }
+
+    /**
+     * Normalisiert eine Telefonnummer nach E.164.
+     *
+     * @param phoneNumber die Telefonnummer in beliebiger Schreibweise, darf {@code null} sein
+     * @return die Nummer nach E.164 oder {@code null}, wenn sie sich nicht als Telefonnummer lesen lässt
+     */
+    public static String toE164(String phoneNumber) {
+        if (phoneNumber == null) {
+            return null;
+        }
+        String compact = phoneNumber.strip().replace("(0)", "").replaceAll("[\\s\\-./()]", "");
+
+        String digits;
+        if (compact.startsWith("+")) {
+            digits = compact.substring(1);
+        } else if (compact.startsWith("00")) {
+            digits = compact.substring(2);
+        } else if (compact.startsWith("0")) {
+            digits = DEFAULT_COUNTRY_CODE + compact.substring(1);
+        } else {
+            digits = DEFAULT_COUNTRY_CODE + compact;
+        }
+
+        if (digits.length() < MIN_DIGITS || digits.length() > MAX_DIGITS || digits.charAt(0) == '0') {
+            return null;
+        }
+        for (int i = 0; i < digits.length(); i++) {
+            if (digits.charAt(i) < '0' || digits.charAt(i) > '9') {
+                return null;
+            }
+        }
+        return "+" + digits;
+    }
+}
@@ -0,0 +1,57 @@
+package de.spring.tutorial.repository;
+
+import de.spring.tutorial.model.CustomerEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository-Interface für die Outbox-Tabelle der {@link CustomerEvent}-Einträge.
+ */
+@Repository
+public interface CustomerEventRepository extends JpaRepository<CustomerEvent, Long> {
+
+    /**
+     * Findet die ältesten Ereignisse, die noch keine Sequenz erhalten haben.
+     *
+     * @param pageable begrenzt die Anzahl der gelieferten Ereignisse (Batch-Größe)
+     * @return unveröffentlichte Ereignisse in aufsteigender Reihenfolge der ID
+     */
+    List<CustomerEvent> findBySequenceIsNullOrderByIdAsc(Pageable pageable);
+
+    /**
+     * Findet die Ereignisse, deren Sequenz größer als der angegebene Offset ist.
+     *
+     * @param sequence der zuletzt gelesene Offset
+     * @param pageable begrenzt die Anzahl der gelieferten Ereignisse
+     * @return Ereignisse in aufsteigender Reihenfolge der Sequenz
+     */
+    List<CustomerEvent> findBySequenceGreaterThanOrderBySequenceAsc(Long sequence, Pageable pageable);
+
+    /**
+     * Liefert die höchste vergebene Sequenz und damit den aktuellen Offset des Ereignisstroms.
+     *
+     * @return die höchste Sequenz oder 0, falls noch kein Ereignis veröffentlicht wurde
+     */
+    @Query("SELECT COALESCE(MAX(e.sequence), 0) FROM CustomerEvent e")
+    long findMaxSequence();
+
+    /**
+     * Löscht veröffentlichte Ereignisse, die älter als der angegebene Zeitpunkt sind. Das Ereignis mit der
+     * höchsten Sequenz bleibt erhalten, damit die Sequenz nach dem Aufräumen nicht von vorn beginnt.
+     *
+     * @param occurredBefore Zeitpunkt, vor dem Ereignisse entfernt werden
+     * @param maxSequence die aktuell höchste Sequenz
+     * @return Anzahl der gelöschten Ereignisse
+     */
+    @Modifying
+    @Query("DELETE FROM CustomerEvent e WHERE e.published = true AND e.occurredAt < :occurredBefore "
+            + "AND e.sequence < :maxSequence")
+    int deletePublishedBefore(@Param("occurredBefore") Instant occurredBefore, @Param("maxSequence") long maxSequence);
+}
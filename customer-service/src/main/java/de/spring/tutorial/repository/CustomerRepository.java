@@ -1,25 +1,209 @@
 package de.spring.tutorial.repository;
 
 import de.spring.tutorial.model.Customer;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Repository-Interface für die {@link Customer}-Entität.
  * Erweitert {@link JpaRepository} und bietet Standard-CRUD-Operationen sowie benutzerdefinierte Abfragen.
+ * <p>
+ * Alle abgeleiteten Abfragen liefern nur aktive Kunden, da {@link Customer} soft-gelöschte Datensätze
+ * global herausfiltert. Soll auch auf gelöschte Kunden zugegriffen werden, müssen explizit die
+ * nativen {@code ...IncludingDeleted}-Methoden verwendet werden.
  */
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
     /**
-     * Findet alle Kunden, die nicht als gelöscht markiert wurden (Soft-Delete-Logik).
+     * Telefonnummer, Handynummer und E-Mail-Adresse eines Kunden in der eingegebenen Schreibweise.
+     */
+    interface ContactDetails {
+
+        /**
+         * @return die ID des Kunden
+         */
+        Long getId();
+
+        /**
+         * @return die Telefonnummer des Kunden
+         */
+        String getPhoneNumber();
+
+        /**
+         * @return die Handynummer des Kunden
+         */
+        String getMobileNumber();
+
+        /**
+         * @return die E-Mail-Adresse des Kunden
+         */
+        String getEmail();
+    }
+
+    /**
+     * Findet alle Kunden, einschließlich der als gelöscht markierten.
+     *
+     * @return Liste aller Kunden unabhängig vom Soft-Delete-Status
+     */
+    @Query(value = "SELECT * FROM customer", nativeQuery = true)
+    List<Customer> findAllIncludingDeleted();
+
+    /**
+     * Findet einen Kunden anhand seiner ID, auch wenn er als gelöscht markiert wurde.
+     *
+     * @param id die ID des Kunden
+     * @return {@link Optional} mit dem gefundenen Kunden oder leer, falls nicht vorhanden
+     */
+    @Query(value = "SELECT * FROM customer WHERE id = :id", nativeQuery = true)
+    Optional<Customer> findByIdIncludingDeleted(@Param("id") Long id);
+
+    /**
+     * Zählt die Kunden mit der angegebenen E-Mail-Adresse in Kleinschreibung, einschließlich der als gelöscht
+     * markierten. Wird für Eindeutigkeitsprüfungen benötigt, da der Unique-Index auch gelöschte Datensätze umfasst.
+     *
+     * @param emailNormalized die normalisierte E-Mail-Adresse des Kunden
+     * @return Anzahl der Treffer
+     */
+    @Query(value = "SELECT COUNT(*) FROM customer WHERE email_normalized = :emailNormalized", nativeQuery = true)
+    long countByEmailNormalizedIncludingDeleted(@Param("emailNormalized") String emailNormalized);
+
+    /**
+     * Zählt die übrigen Kunden mit der angegebenen E-Mail-Adresse in Kleinschreibung, einschließlich der als
+     * gelöscht markierten.
+     *
+     * @param emailNormalized die normalisierte E-Mail-Adresse
+     * @param id die ID des Kunden, der nicht mitgezählt wird
+     * @return Anzahl der Treffer
+     */
+    @Query(value = "SELECT COUNT(*) FROM customer WHERE email_normalized = :emailNormalized AND id <> :id",
+            nativeQuery = true)
+    long countOthersByEmailNormalizedIncludingDeleted(@Param("emailNormalized") String emailNormalized,
+                                                      @Param("id") Long id);
+
+    /**
+     * Zählt die Kunden mit der angegebenen Handynummer, einschließlich der als gelöscht markierten.
+     * Wird für Eindeutigkeitsprüfungen benötigt, da der Unique-Index auch gelöschte Datensätze umfasst.
+     *
+     * @param mobileNumber die Handynummer des Kunden
+     * @return Anzahl der Treffer
+     */
+    @Query(value = "SELECT COUNT(*) FROM customer WHERE mobile_number = :mobileNumber", nativeQuery = true)
+    long countByMobileNumberIncludingDeleted(@Param("mobileNumber") String mobileNumber);
+
+    /**
+     * Zählt die Kunden mit der angegebenen Handynummer nach E.164, einschließlich der als gelöscht markierten.
      *
-     * @return Liste der aktiven Kunden (deleted = false)
+     * @param mobileNumberE164 die Handynummer nach E.164
+     * @return Anzahl der Treffer
      */
-    List<Customer> findByDeletedFalse();
+    @Query(value = "SELECT COUNT(*) FROM customer WHERE mobile_number_e164 = :mobileNumberE164", nativeQuery = true)
+    long countByMobileNumberE164IncludingDeleted(@Param("mobileNumberE164") String mobileNumberE164);
+
+    /**
+     * Liest die Kontaktdaten von Kunden, deren normalisierte Spalten noch nicht berechnet sind, einschließlich
+     * der als gelöscht markierten. Seitenweise in aufsteigender Reihenfolge der ID über den Index auf
+     * {@code (normalized, id)}.
+     *
+     * @param afterId die ID, nach der die Seite beginnt
+     * @param limit maximale Anzahl an Kunden der Seite
+     * @return die Kontaktdaten der Kunden
+     */
+    @Query(value = "SELECT id, phone_number AS phoneNumber, mobile_number AS mobileNumber, email FROM customer "
+            + "WHERE normalized = false AND id > :afterId ORDER BY id LIMIT :limit",
+            nativeQuery = true)
+    List<ContactDetails> findContactDetailsWithoutNormalized(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * Setzt die noch leeren normalisierten Spalten eines Kunden, auch wenn er als gelöscht markiert wurde.
+     * Bereits gesetzte Werte bleiben unverändert; Werte, die sich nicht normalisieren lassen, bleiben {@code null}.
+     *
+     * @param id die ID des Kunden
+     * @param phoneNumberE164 die Telefonnummer nach E.164
+     * @param mobileNumberE164 die Handynummer nach E.164
+     * @param emailNormalized die E-Mail-Adresse in Kleinschreibung
+     * @param normalized ob der Kunde danach als normalisiert gilt
+     * @return Anzahl der geänderten Datensätze (0 oder 1)
+     */
+    @Modifying
+    @Query(value = "UPDATE customer SET phone_number_e164 = COALESCE(phone_number_e164, :phoneNumberE164), "
+            + "mobile_number_e164 = COALESCE(mobile_number_e164, :mobileNumberE164), "
+            + "email_normalized = COALESCE(email_normalized, :emailNormalized), normalized = :normalized "
+            + "WHERE id = :id", nativeQuery = true)
+    int updateNormalizedColumns(@Param("id") Long id,
+                                @Param("phoneNumberE164") String phoneNumberE164,
+                                @Param("mobileNumberE164") String mobileNumberE164,
+                                @Param("emailNormalized") String emailNormalized,
+                                @Param("normalized") boolean normalized);
+
+    /**
+     * Löscht einen Kunden dauerhaft, auch wenn er bereits als gelöscht markiert wurde.
+     *
+     * @param id die ID des Kunden
+     * @return Anzahl der gelöschten Datensätze (0 oder 1)
+     */
+    @Modifying
+    @Query(value = "DELETE FROM customer WHERE id = :id", nativeQuery = true)
+    int deleteByIdIncludingDeleted(@Param("id") Long id);
+
+    /**
+     * Liest Kunden seitenweise in aufsteigender Reihenfolge der ID (Keyset-Paginierung).
+     *
+     * @param id die ID, nach der die Seite beginnt
+     * @param limit maximale Anzahl an Kunden der Seite
+     * @return die Kunden mit größerer ID, aufsteigend sortiert
+     */
+    List<Customer> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Findet alle Kunden, deren ID in der angegebenen Sammlung enthalten ist.
+     *
+     * @param ids die IDs der Kunden
+     * @return Liste der gefundenen Kunden
+     */
+    List<Customer> findByIdIn(Collection<Long> ids);
+
+    /**
+     * Findet alle Kunden, deren Spitzname in der angegebenen Sammlung enthalten ist.
+     *
+     * @param nickNames die Spitznamen der Kunden
+     * @return Liste der gefundenen Kunden
+     */
+    List<Customer> findByNickNameIn(Collection<String> nickNames);
+
+    /**
+     * Findet alle Kunden, deren normalisierte E-Mail-Adresse in der angegebenen Sammlung enthalten ist.
+     *
+     * @param emailsNormalized die normalisierten E-Mail-Adressen der Kunden
+     * @return Liste der gefundenen Kunden
+     */
+    List<Customer> findByEmailNormalizedIn(Collection<String> emailsNormalized);
+
+    /**
+     * Findet alle Kunden, deren Handynummer in der angegebenen Sammlung enthalten ist.
+     *
+     * @param mobileNumbers die Handynummern der Kunden
+     * @return Liste der gefundenen Kunden
+     */
+    List<Customer> findByMobileNumberIn(Collection<String> mobileNumbers);
+
+    /**
+     * Findet alle Kunden, deren Handynummer nach E.164 in der angegebenen Sammlung enthalten ist. Wie bei
+     * {@link #findFirstByMobileNumberE164OrderByIdAsc(String)} steht bei mehreren Kunden mit derselben Nummer
+     * der älteste zuerst.
+     *
+     * @param mobileNumbersE164 die Handynummern nach E.164
+     * @return Liste der gefundenen Kunden, aufsteigend nach ID
+     */
+    List<Customer> findByMobileNumberE164InOrderByIdAsc(Collection<String> mobileNumbersE164);
 
     /**
      * Findet alle Kunden mit dem angegebenen Spitznamen.
@@ -47,12 +231,12 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     List<Customer> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(String firstName, String lastName);
 
     /**
-     * Findet einen Kunden anhand seiner E-Mail-Adresse.
+     * Findet einen Kunden anhand seiner normalisierten E-Mail-Adresse.
      *
-     * @param email die E-Mail-Adresse des Kunden
+     * @param emailNormalized die normalisierte E-Mail-Adresse des Kunden
      * @return {@link Optional} mit dem gefundenen Kunden oder leer, falls nicht vorhanden
      */
-    Optional<Customer> findByEmail(String email);
+    Optional<Customer> findByEmailNormalized(String emailNormalized);
 
     /**
      * Findet alle Kunden mit der angegebenen Telefonnummer.
@@ -62,6 +246,14 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
      */
     List<Customer> findByPhoneNumber(String phoneNumber);
 
+    /**
+     * Findet alle Kunden mit der angegebenen Telefonnummer nach E.164.
+     *
+     * @param phoneNumberE164 die Telefonnummer nach E.164
+     * @return Liste der Kunden mit übereinstimmender Telefonnummer
+     */
+    List<Customer> findByPhoneNumberE164(String phoneNumberE164);
+
     /**
      * Findet einen Kunden anhand seiner Handynummer.
      *
@@ -70,4 +262,13 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
      */
     Optional<Customer> findByMobileNumber(String mobileNumber);
 
+    /**
+     * Findet einen Kunden anhand seiner Handynummer nach E.164. Ältere Datensätze können dieselbe Nummer in
+     * verschiedenen Schreibweisen enthalten; dann wird der älteste Kunde geliefert.
+     *
+     * @param mobileNumberE164 die Handynummer nach E.164
+     * @return {@link Optional} mit dem gefundenen Kunden oder leer, falls nicht vorhanden
+     */
+    Optional<Customer> findFirstByMobileNumberE164OrderByIdAsc(String mobileNumberE164);
+
 }
@@ -0,0 +1,148 @@
+package de.spring.tutorial.repository;
+
+import de.spring.tutorial.model.Customer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Nicht-blockierendes Repository für die Lesepfade der {@link Customer}-Entität (Profil {@code reactive}).
+ * <p>
+ * Die Abfragen laufen über R2DBC statt über JPA. Da hier die {@code @SQLRestriction} der Entität nicht
+ * greift, filtert jede Abfrage soft-gelöschte Kunden explizit heraus. Listen werden seitenweise über die ID
+ * gelesen (Keyset-Paginierung), damit ein langsamer Client keine Verbindung für die Dauer seiner Antwort belegt.
+ * Der Connection-Pool wird bewusst nicht als {@code ConnectionFactory}-Bean registriert, da Spring Boot
+ * sonst die JDBC-{@code DataSource} für JPA nicht mehr automatisch konfiguriert.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveCustomerRepository {
+
+    private static final String SELECT_ACTIVE =
+            "SELECT id, nick_name, last_name, first_name, phone_number, mobile_number, email, deleted "
+                    + "FROM customer WHERE deleted = false";
+
+    private final ConnectionPool connectionPool;
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Konstruktor für das {@link ReactiveCustomerRepository}.
+     *
+     * @param url R2DBC-URL der Datenbank
+     * @param username Benutzername der Datenbank
+     * @param password Passwort der Datenbank
+     * @param initialSize Anzahl der beim Start geöffneten Verbindungen
+     * @param maxSize maximale Anzahl an Verbindungen im Pool
+     * @param maxIdleTime maximale Leerlaufzeit einer Verbindung
+     * @param maxAcquireTime maximale Wartezeit auf eine freie Verbindung, danach schlägt die Abfrage fehl
+     */
+    public ReactiveCustomerRepository(@Value("${app.r2dbc.url}") String url,
+                                      @Value("${app.r2dbc.username:${spring.datasource.username}}") String username,
+                                      @Value("${app.r2dbc.password:${spring.datasource.password}}") String password,
+                                      @Value("${app.r2dbc.pool.initial-size:2}") int initialSize,
+                                      @Value("${app.r2dbc.pool.max-size:10}") int maxSize,
+                                      @Value("${app.r2dbc.pool.max-idle-time:30m}") Duration maxIdleTime,
+                                      @Value("${app.r2dbc.pool.max-acquire-time:30s}") Duration maxAcquireTime) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxIdleTime(maxIdleTime)
+                .maxAcquireTime(maxAcquireTime)
+                .build());
+        this.databaseClient = DatabaseClient.create(connectionPool);
+    }
+
+    /**
+     * Findet einen aktiven Kunden anhand seiner ID.
+     *
+     * @param id die ID des Kunden
+     * @return {@link Mono} mit dem Kunden oder leer, falls nicht vorhanden
+     */
+    public Mono<Customer> findById(Long id) {
+        return databaseClient.sql(SELECT_ACTIVE + " AND id = :id")
+                .bind("id", id)
+                .map(ReactiveCustomerRepository::toCustomer)
+                .one();
+    }
+
+    /**
+     * Liefert eine Seite aktiver Kunden mit einer ID größer als {@code afterId}, aufsteigend nach ID.
+     * Die Verbindung wird nur für diese eine Abfrage belegt.
+     *
+     * @param afterId die ID des letzten Kunden der vorherigen Seite ({@code 0} für die erste Seite)
+     * @param limit maximale Anzahl an Kunden der Seite
+     * @return {@link Mono} mit den Kunden der Seite, leer als Liste, wenn keine weiteren Kunden existieren
+     */
+    public Mono<List<Customer>> findActivePage(long afterId, int limit) {
+        return databaseClient.sql(SELECT_ACTIVE + " AND id > :afterId ORDER BY id LIMIT :limit")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(ReactiveCustomerRepository::toCustomer)
+                .all()
+                .collectList();
+    }
+
+    /**
+     * Liefert eine Seite aktiver Kunden, deren Vor- oder Nachname das Namensfragment enthält (ohne Beachtung der
+     * Groß-/Kleinschreibung) und deren ID größer als {@code afterId} ist, aufsteigend nach ID.
+     *
+     * @param fragment das Namensfragment
+     * @param afterId die ID des letzten Kunden der vorherigen Seite ({@code 0} für die erste Seite)
+     * @param limit maximale Anzahl an Kunden der Seite
+     * @return {@link Mono} mit den Kunden der Seite, leer als Liste, wenn keine weiteren Kunden existieren
+     */
+    public Mono<List<Customer>> searchPageByName(String fragment, long afterId, int limit) {
+        return databaseClient.sql(SELECT_ACTIVE
+                        + " AND (LOWER(first_name) LIKE :pattern OR LOWER(last_name) LIKE :pattern)"
+                        + " AND id > :afterId ORDER BY id LIMIT :limit")
+                .bind("pattern", "%" + escapeLike(fragment.toLowerCase()) + "%")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(ReactiveCustomerRepository::toCustomer)
+                .all()
+                .collectList();
+    }
+
+    /**
+     * Schließt den Connection-Pool beim Herunterfahren.
+     */
+    @PreDestroy
+    public void close() {
+        connectionPool.dispose();
+    }
+
+    private static Customer toCustomer(Readable row) {
+        return Customer.builder()
+                .id(row.get("id", Long.class))
+                .nickName(row.get("nick_name", String.class))
+                .lastName(row.get("last_name", String.class))
+                .firstName(row.get("first_name", String.class))
+                .phoneNumber(row.get("phone_number", String.class))
+                .mobileNumber(row.get("mobile_number", String.class))
+                .email(row.get("email", String.class))
+                .deleted(Boolean.TRUE.equals(row.get("deleted", Boolean.class)))
+                .build();
+    }
+
+    /**
+     * Maskiert die Platzhalter von {@code LIKE}, damit sie wie bei den abgeleiteten JPA-Abfragen wörtlich gesucht werden.
+     */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
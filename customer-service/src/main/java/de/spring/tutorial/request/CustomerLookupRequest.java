@@ -0,0 +1,18 @@
+package de.spring.tutorial.request;
+
+import java.util.List;
+
+/**
+ * Request-Objekt für die Sammelabfrage mehrerer Kunden in einem einzigen Aufruf.
+ * Alle Listen sind optional und können beliebig kombiniert werden.
+ *
+ * @param ids           die IDs der gesuchten Kunden
+ * @param emails        die E-Mail-Adressen der gesuchten Kunden
+ * @param nickNames     die Spitznamen der gesuchten Kunden
+ * @param mobileNumbers die Handynummern der gesuchten Kunden
+ */
+public record CustomerLookupRequest(List<Long> ids,
+                                    List<String> emails,
+                                    List<String> nickNames,
+                                    List<String> mobileNumbers) {
+}
@@ -0,0 +1,21 @@
+package de.spring.tutorial.response;
+
+import de.spring.tutorial.model.Customer;
+
+import java.util.Map;
+
+/**
+ * Antwortobjekt der Sammelabfrage.
+ * Die gefundenen Kunden sind jeweils nach dem angefragten Wert geschlüsselt.
+ * Nicht gefundene Werte sind in den Maps nicht enthalten.
+ *
+ * @param ids           gefundene Kunden nach ID
+ * @param emails        gefundene Kunden nach E-Mail-Adresse
+ * @param nickNames     gefundene Kunden nach Spitzname
+ * @param mobileNumbers gefundene Kunden nach Handynummer
+ */
+public record CustomerLookupResponse(Map<Long, Customer> ids,
+                                     Map<String, Customer> emails,
+                                     Map<String, Customer> nickNames,
+                                     Map<String, Customer> mobileNumbers) {
+}
@@ -0,0 +1,12 @@
+package de.spring.tutorial.response;
+
+/**
+ * Vorschlag der Autovervollständigung mit den Namensfeldern eines Kunden.
+ *
+ * @param id        ID des Kunden
+ * @param nickName  Spitzname des Kunden
+ * @param firstName Vorname des Kunden
+ * @param lastName  Nachname des Kunden
+ */
+public record CustomerSuggestion(Long id, String nickName, String firstName, String lastName) {
+}
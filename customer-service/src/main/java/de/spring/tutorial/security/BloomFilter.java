@@ -0,0 +1,103 @@
+package de.spring.tutorial.security;
+
+import java.util.Collection;
+
+/**
+ * Unveränderlicher Bloom-Filter über Zeichenketten.
+ * <p>
+ * Die Bits liegen in einem {@code long[]}; die Positionen werden per Double Hashing aus zwei 64-Bit-Hashwerten
+ * (FNV-1a und dessen Durchmischung) abgeleitet. Eine negative Antwort ist immer korrekt, eine positive Antwort
+ * muss gegen die exakte Menge geprüft werden. Der Filter wird nach dem Befüllen nicht mehr verändert und kann
+ * daher ohne Synchronisation von beliebig vielen Threads gelesen werden.
+ */
+final class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final double expectedFpp;
+
+    /**
+     * Erzeugt einen Bloom-Filter mit den angegebenen Schlüsseln, dimensioniert für die gewünschte Fehlerrate.
+     *
+     * @param keys die aufzunehmenden Schlüssel
+     * @param fpp die gewünschte Falsch-Positiv-Rate (zwischen 0 und 1, exklusiv)
+     */
+    BloomFilter(Collection<String> keys, double fpp) {
+        int expected = Math.max(1, keys.size());
+        long optimalBits = (long) Math.ceil(-expected * Math.log(fpp) / (LN2 * LN2));
+        this.bits = new long[(int) Math.max(1, (optimalBits + 63) >>> 6)];
+        this.bitCount = (long) bits.length << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expected * LN2));
+
+        for (String key : keys) {
+            long hash1 = fnv1a(key);
+            long hash2 = mix(hash1);
+            for (int i = 0; i < hashCount; i++) {
+                long index = index(hash1, hash2, i);
+                bits[(int) (index >>> 6)] |= 1L << index;
+            }
+        }
+
+        long setBits = 0;
+        for (long word : bits) {
+            setBits += Long.bitCount(word);
+        }
+        this.expectedFpp = Math.pow((double) setBits / bitCount, hashCount);
+    }
+
+    /**
+     * Prüft, ob der Schlüssel enthalten sein könnte.
+     *
+     * @param key der zu prüfende Schlüssel
+     * @return {@code false}, wenn der Schlüssel sicher nicht enthalten ist
+     */
+    boolean mightContain(String key) {
+        long hash1 = fnv1a(key);
+        long hash2 = mix(hash1);
+        for (int i = 0; i < hashCount; i++) {
+            long index = index(hash1, hash2, i);
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Liefert die aus dem Füllgrad berechnete Falsch-Positiv-Rate.
+     *
+     * @return die erwartete Falsch-Positiv-Rate
+     */
+    double expectedFpp() {
+        return expectedFpp;
+    }
+
+    private long index(long hash1, long hash2, int i) {
+        return ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+    }
+
+    private static long fnv1a(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Finalisierung aus MurmurHash3 ({@code fmix64}); liefert einen vom FNV-Wert unabhängigen zweiten Hash.
+     * Das niedrigste Bit wird gesetzt, damit die Schrittweite nie 0 ist.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash | 1;
+    }
+}
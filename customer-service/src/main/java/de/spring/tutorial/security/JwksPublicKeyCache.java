@@ -0,0 +1,102 @@
+package de.spring.tutorial.security;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.net.http.HttpClient;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cache der öffentlichen Signaturschlüssel des Auth-Service, indiziert nach ihrer Kennung ({@code kid}).
+ * <p>
+ * Die Schlüssel werden aus dem JWKS des Auth-Service geladen und regelmäßig aktualisiert. Ein Schlüssel
+ * ändert sich unter seiner Kennung nie, daher genügt im Normalfall ein Map-Zugriff. Taucht eine unbekannte
+ * Kennung auf (z.B. direkt nach einer Rotation), wird das JWKS sofort neu geladen, höchstens jedoch einmal
+ * pro Mindestabstand, damit gefälschte Kennungen den Auth-Service nicht belasten.
+ */
+@Slf4j
+@Component
+public class JwksPublicKeyCache {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final RestClient restClient;
+    private final String jwksUri;
+    private final long minRefreshIntervalMillis;
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private long lastRefreshMillis;
+
+    /**
+     * Konstruktor für den {@link JwksPublicKeyCache}.
+     *
+     * @param jwksUri URI des JWKS im Auth-Service
+     * @param minRefreshIntervalMillis Mindestabstand zwischen zwei Ladevorgängen bei unbekannter Kennung in Millisekunden
+     */
+    public JwksPublicKeyCache(@Value("${app.jwt.jwks-uri}") String jwksUri,
+                              @Value("${app.jwt.jwks-min-refresh-interval-ms:10000}") long minRefreshIntervalMillis) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().connectTimeout(TIMEOUT).build());
+        requestFactory.setReadTimeout(TIMEOUT);
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+        this.jwksUri = jwksUri;
+        this.minRefreshIntervalMillis = minRefreshIntervalMillis;
+    }
+
+    /**
+     * Liefert den öffentlichen Schlüssel zur angegebenen Kennung.
+     * Ist die Kennung unbekannt, wird das JWKS einmalig neu geladen, sofern der Mindestabstand verstrichen ist.
+     *
+     * @param kid die Kennung des Schlüssels
+     * @return der öffentliche Schlüssel oder {@code null}, wenn die Kennung unbekannt ist
+     */
+    public PublicKey getKey(String kid) {
+        PublicKey key = keys.get(kid);
+        if (key == null) {
+            refreshIfDue();
+            key = keys.get(kid);
+        }
+        return key;
+    }
+
+    /**
+     * Lädt das JWKS in regelmäßigen Abständen neu, damit neue Schlüssel vor ihrer ersten Verwendung bekannt
+     * sind und zurückgezogene Schlüssel entfernt werden.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.jwks-refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        lastRefreshMillis = System.currentTimeMillis();
+        try {
+            JwkSet jwkSet = Jwks.setParser().ignoreUnsupported(true).build()
+                    .parse(restClient.get().uri(jwksUri).retrieve().body(String.class));
+            Map<String, PublicKey> loaded = new HashMap<>();
+            for (Jwk<?> jwk : jwkSet) {
+                if (jwk instanceof PublicJwk<?> publicJwk && jwk.getId() != null) {
+                    loaded.put(jwk.getId(), publicJwk.toKey());
+                }
+            }
+            keys = Map.copyOf(loaded);
+            log.debug("{} öffentliche Signaturschlüssel geladen", loaded.size());
+        } catch (RestClientException | JwtException | IllegalArgumentException ex) {
+            log.warn("JWKS konnte nicht von {} geladen werden: {}", jwksUri, ex.getMessage());
+        }
+    }
+
+    private synchronized void refreshIfDue() {
+        if (System.currentTimeMillis() - lastRefreshMillis >= minRefreshIntervalMillis) {
+            refresh();
+        }
+    }
+}
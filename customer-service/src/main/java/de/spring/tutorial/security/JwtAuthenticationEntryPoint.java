@@ -1,5 +1,7 @@
 package de.spring.tutorial.security;
 
+import de.spring.tutorial.exception.ErrorCode;
+import de.spring.tutorial.exception.ErrorResponseWriter;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
@@ -15,10 +17,22 @@ import java.io.IOException;
  * nicht authentifiziert ist oder ungültige Anmeldeinformationen bereitstellt.
  * Die `commence`-Methode sendet eine HTTP-Fehlermeldung mit dem Statuscode `401 Unauthorized`,
  * um anzuzeigen, dass der Benutzer nicht autorisiert ist, auf die angeforderte Ressource zuzugreifen.
+ * Die JSON-Antwort wird über den {@link ErrorResponseWriter} aus vorberechneten Bytes geschrieben.
  */
 @Component
 public class JwtAuthenticationEntryPoint implements AuthenticationEntryPoint {
 
+    private final ErrorResponseWriter errorResponseWriter;
+
+    /**
+     * Konstruktor für den {@link JwtAuthenticationEntryPoint}.
+     *
+     * @param errorResponseWriter Writer für die vorserialisierten Fehlerantworten
+     */
+    public JwtAuthenticationEntryPoint(ErrorResponseWriter errorResponseWriter) {
+        this.errorResponseWriter = errorResponseWriter;
+    }
+
     /**
      * Wird aufgerufen, wenn eine Authentifizierung erforderlich ist und der Benutzer nicht authentifiziert ist.
      * Diese Methode sendet eine `401 Unauthorized`-Antwort an den Client, wenn die Authentifizierung fehlschlägt.
@@ -33,6 +47,6 @@ public class JwtAuthenticationEntryPoint implements AuthenticationEntryPoint {
     public void commence(HttpServletRequest request, HttpServletResponse response, AuthenticationException authException)
             throws IOException, ServletException {
         // Antwort mit einem "401 Unauthorized"-Fehler zurücksenden
-        response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+        errorResponseWriter.write(response, ErrorCode.UNAUTHORIZED);
     }
 }
\ No newline at end of file
@@ -2,9 +2,11 @@ package de.spring.tutorial.security;
 
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
-import org.springframework.util.StringUtils;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,25 +20,47 @@ import java.util.List;
 /**
  * Filter zur JWT-Authentifizierung.
  * <p>
- * Dieser Filter wird bei jeder eingehenden HTTP-Anfrage ausgeführt. Er extrahiert das JWT aus dem
- * Authorization-Header, validiert es über den {@link JwtTokenProvider} und setzt bei erfolgreicher
- * Validierung die Benutzeridentität (in diesem Fall die E-Mail) in den SecurityContext von Spring Security.
+ * Dieser Filter wird bei jeder eingehenden HTTP-Anfrage ausgeführt, die nicht auf einen öffentlichen Pfad
+ * zielt. Er extrahiert das JWT aus dem Authorization-Header, validiert es über den {@link JwtTokenProvider}
+ * und setzt bei erfolgreicher Validierung die Benutzeridentität (in diesem Fall die E-Mail) in den
+ * SecurityContext von Spring Security.
  * <p>
  * Es werden dabei keine Rollen (Authorities) gesetzt – die Authentifizierung dient nur zur
- * Identifizierung des Benutzers, nicht zur Autorisierung.
+ * Identifizierung des Benutzers, nicht zur Autorisierung. Details zur Anfrage (IP-Adresse, Session)
+ * werden nur angehängt, wenn sie konfiguriert sind.
  */
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String BEARER_PREFIX = "Bearer ";
+
     private final JwtTokenProvider jwtTokenProvider;
+    private final RequestMatcher publicPaths;
+    private final WebAuthenticationDetailsSource authenticationDetailsSource;
+    private final SecurityContextHolderStrategy securityContextHolderStrategy = SecurityContextHolder.getContextHolderStrategy();
 
     /**
      * Konstruktor für den JWT-Authentifizierungsfilter.
      *
      * @param jwtTokenProvider der Provider zur Token-Validierung und Extraktion von Benutzerinformationen.
+     * @param publicPaths die öffentlichen Pfade, für die der Filter übersprungen wird.
+     * @param authenticationDetails ob an die Authentifizierung Details zur Anfrage angehängt werden sollen.
      */
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider) {
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, RequestMatcher publicPaths, boolean authenticationDetails) {
         this.jwtTokenProvider = jwtTokenProvider;
+        this.publicPaths = publicPaths;
+        this.authenticationDetailsSource = authenticationDetails ? new WebAuthenticationDetailsSource() : null;
+    }
+
+    /**
+     * Überspringt den Filter für öffentliche Pfade, da dort ohnehin keine Authentifizierung erforderlich ist.
+     *
+     * @param request die aktuelle HTTP-Anfrage
+     * @return {@code true}, wenn die Anfrage auf einen öffentlichen Pfad zielt
+     */
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return publicPaths.matches(request);
     }
 
     /**
@@ -56,18 +80,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         String jwt = getJwtFromRequest(request);
+        String mail = jwt != null ? jwtTokenProvider.getValidatedUserMail(jwt) : null;
 
-        if (StringUtils.hasText(jwt) && jwtTokenProvider.validateToken(jwt)) {
-            String mail = jwtTokenProvider.getUserMailFromToken(jwt);
-
-            log.info("Token ist gültig. Extrahierte E-MAil: {}", mail);
-
+        if (mail != null) {
             UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(mail, null, List.of());
-            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+                    UsernamePasswordAuthenticationToken.authenticated(mail, null, List.of());
+            if (authenticationDetailsSource != null) {
+                authentication.setDetails(authenticationDetailsSource.buildDetails(request));
+            }
+            SecurityContext context = securityContextHolderStrategy.createEmptyContext();
+            context.setAuthentication(authentication);
+            securityContextHolderStrategy.setContext(context);
         } else {
-            log.warn("Token ist nicht vorhanden oder ungültig.");
+            log.debug("Token ist nicht vorhanden oder ungültig.");
         }
 
         filterChain.doFilter(request, response);
@@ -83,8 +108,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
 
-        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(7);
+        if (bearerToken != null && bearerToken.length() > BEARER_PREFIX.length() && bearerToken.startsWith(BEARER_PREFIX)) {
+            return bearerToken.substring(BEARER_PREFIX.length());
         }
         return null;
     }
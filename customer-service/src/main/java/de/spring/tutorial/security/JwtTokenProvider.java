@@ -1,75 +1,82 @@
 package de.spring.tutorial.security;
 
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import java.util.Date;
+import java.security.Key;
 
 /**
- * Komponente zur Erstellung und Validierung von JWTs.
-
- * Diese Klasse verwendet das Secret aus den Application Properties zur Validierung der Signatur
- * und stellt Methoden bereit, um Informationen wie die E-Mail-Adresse (Subject) aus dem Token zu extrahieren.
+ * Komponente zur Validierung von JWTs.
+ * <p>
+ * Die Tokens werden vom Auth-Service asymmetrisch signiert. Der passende öffentliche Schlüssel wird anhand
+ * der Kennung ({@code kid}) im Header aus dem {@link JwksPublicKeyCache} gewählt; ein gemeinsames Secret
+ * ist nicht mehr nötig. Der Parser ist unveränderlich und threadsicher und wird daher nur einmal erzeugt.
+ * Widerrufene Tokens werden anhand ihrer Kennung ({@code jti}) über die {@link TokenRevocationList} abgelehnt.
+ * Jede Prüfung wird als Observation {@code jwt.verification} mit ihrem Ergebnis erfasst (Span und Timer).
  */
 @Component
 @Slf4j
 public class JwtTokenProvider {
 
-    private final SecretKey jwtSecret;
+    private static final String VERIFICATION_OBSERVATION = "jwt.verification";
+    private static final String OUTCOME = "outcome";
+
+    private final JwtParser jwtParser;
+    private final TokenRevocationList tokenRevocationList;
+    private final ObservationRegistry observationRegistry;
 
     /**
-     * Initialisiert den Token-Provider mit dem konfigurierten geheimen Schlüssel (Base64-kodiert).
+     * Initialisiert den Token-Provider mit dem Cache der öffentlichen Schlüssel und der Widerrufsliste.
      *
-     * @param secret das Base64-kodierte JWT-Secret aus der Konfiguration (z. B. application.yml)
+     * @param jwksPublicKeyCache Cache der öffentlichen Signaturschlüssel des Auth-Service
+     * @param tokenRevocationList Liste der widerrufenen Tokens
+     * @param observationRegistry Registry für die Observation der Prüfungen
      */
-    public JwtTokenProvider(@Value("${app.jwtSecret}") String secret) {
-        this.jwtSecret = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+    public JwtTokenProvider(JwksPublicKeyCache jwksPublicKeyCache, TokenRevocationList tokenRevocationList,
+                            ObservationRegistry observationRegistry) {
+        this.tokenRevocationList = tokenRevocationList;
+        this.observationRegistry = observationRegistry;
+        this.jwtParser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        String kid = header.getKeyId();
+                        return kid != null ? jwksPublicKeyCache.getKey(kid) : null;
+                    }
+                })
+                .build();
     }
 
     /**
-     * Validiert ein JWT.
+     * Validiert ein JWT und extrahiert in einem Durchgang die Benutzer-Mail (Subject).
+     * Signatur und Ablaufzeit werden dabei vom Parser geprüft, anschließend der Widerruf im Speicher.
      *
      * @param token das zu überprüfende Token
-     * @return {@code true}, wenn das Token gültig ist und nicht abgelaufen; andernfalls {@code false}
+     * @return die E-Mail-Adresse des Benutzers (Subject) oder {@code null}, wenn das Token ungültig, abgelaufen
+     *         oder widerrufen ist
      */
-    public boolean validateToken(String token) {
-        try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(jwtSecret)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+    public String getValidatedUserMail(String token) {
+        Observation observation = Observation.createNotStarted(VERIFICATION_OBSERVATION, observationRegistry);
+        return observation.observe(() -> validate(token, observation));
+    }
 
-            if (claims.getExpiration().before(new Date())) {
-                log.warn("Token abgelaufen: {}", token);
-                return false;
+    private String validate(String token, Observation observation) {
+        try {
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            if (tokenRevocationList.isRevoked(claims.getId())) {
+                log.debug("Widerrufenes JWT: {}", claims.getId());
+                observation.lowCardinalityKeyValue(OUTCOME, "revoked");
+                return null;
             }
-
-            return true;
+            observation.lowCardinalityKeyValue(OUTCOME, "valid");
+            return claims.getSubject();
         } catch (JwtException | IllegalArgumentException ex) {
-            log.error("Ungültiges JWT: {}", ex.getMessage());
-            return false;
+            log.debug("Ungültiges JWT: {}", ex.getMessage());
+            observation.lowCardinalityKeyValue(OUTCOME, "invalid");
+            return null;
         }
     }
-
-    /**
-     * Extrahiert die Benutzer-Mail (Subject) aus dem JWT.
-     *
-     * @param token das JWT
-     * @return die E-Mail-Adresse des Benutzers (Subject)
-     */
-    public String getUserMailFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(jwtSecret)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.getSubject();
-    }
 }
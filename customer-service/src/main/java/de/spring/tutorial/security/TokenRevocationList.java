@@ -0,0 +1,178 @@
+package de.spring.tutorial.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Liste der widerrufenen JWTs, abgeglichen mit dem Auth-Service.
+ * <p>
+ * Die Widerrufe werden regelmäßig inkrementell ab dem zuletzt gelesenen Offset geladen und als unveränderlicher
+ * Stand aus Bloom-Filter und exakter Menge bereitgestellt. Die Prüfung eines nicht widerrufenen Tokens kostet
+ * damit nur einige Hash-Berechnungen; nur bei einem Treffer im Bloom-Filter wird die exakte Menge befragt.
+ * Abgelaufene Tokens werden beim Abgleich entfernt, da sie ohnehin abgelehnt werden. In größeren Abständen wird
+ * die Liste vollständig neu geladen, damit auch Widerrufe erfasst werden, deren ID erst nach einer höheren ID
+ * sichtbar wurde.
+ * <p>
+ * Ist der Auth-Service nicht erreichbar, bleibt der letzte Stand bestehen (fail-open): Widerrufe nach dem letzten
+ * erfolgreichen Abgleich greifen erst, wenn der Auth-Service wieder erreichbar ist.
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final int PAGE_SIZE = 1000;
+
+    private final RestClient restClient;
+    private final String revocationsUri;
+    private final double bloomFpp;
+    private final long fullSyncIntervalMillis;
+    private final Counter bloomNegatives;
+    private final Counter revokedHits;
+    private final Counter falsePositives;
+    private volatile Snapshot snapshot;
+    private long lastFullSyncMillis;
+
+    /**
+     * Eintrag der Widerrufsliste des Auth-Service.
+     */
+    private record Revocation(long id, String jti, Instant expiresAt) {
+    }
+
+    /**
+     * Unveränderlicher Stand der Widerrufsliste.
+     *
+     * @param bloomFilter Bloom-Filter über alle Kennungen der exakten Menge
+     * @param revocations Kennungen der widerrufenen Tokens mit ihrer Ablaufzeit
+     * @param offset zuletzt gelesener Offset
+     */
+    private record Snapshot(BloomFilter bloomFilter, Map<String, Instant> revocations, long offset) {
+    }
+
+    /**
+     * Konstruktor für die {@link TokenRevocationList}.
+     *
+     * @param revocationsUri URI der Widerrufsliste im Auth-Service
+     * @param bloomFpp gewünschte Falsch-Positiv-Rate des Bloom-Filters
+     * @param fullSyncIntervalMillis Abstand zwischen zwei vollständigen Abgleichen in Millisekunden
+     * @param meterRegistry Registry für die Metriken der Prüfungen
+     */
+    public TokenRevocationList(@Value("${app.jwt.revocations-uri}") String revocationsUri,
+                               @Value("${app.jwt.revocation-bloom-fpp:0.01}") double bloomFpp,
+                               @Value("${app.jwt.revocation-full-sync-interval-ms:600000}") long fullSyncIntervalMillis,
+                               MeterRegistry meterRegistry) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().connectTimeout(TIMEOUT).build());
+        requestFactory.setReadTimeout(TIMEOUT);
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+        this.revocationsUri = revocationsUri;
+        this.bloomFpp = bloomFpp;
+        this.fullSyncIntervalMillis = fullSyncIntervalMillis;
+        this.snapshot = new Snapshot(new BloomFilter(List.of(), bloomFpp), Map.of(), 0);
+
+        this.bloomNegatives = checkCounter(meterRegistry, "bloom_negative");
+        this.revokedHits = checkCounter(meterRegistry, "revoked");
+        this.falsePositives = checkCounter(meterRegistry, "false_positive");
+        Gauge.builder("jwt.revocation.entries", this, list -> list.snapshot.revocations().size())
+                .description("Anzahl der bekannten, noch nicht abgelaufenen Widerrufe")
+                .register(meterRegistry);
+        Gauge.builder("jwt.revocation.bloom.expected-fpp", this, list -> list.snapshot.bloomFilter().expectedFpp())
+                .description("Aus dem Füllgrad berechnete Falsch-Positiv-Rate des Bloom-Filters")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Prüft, ob das Token mit der angegebenen Kennung widerrufen wurde.
+     *
+     * @param jti die Kennung des Tokens
+     * @return {@code true}, wenn das Token widerrufen wurde
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        Snapshot current = snapshot;
+        if (!current.bloomFilter().mightContain(jti)) {
+            bloomNegatives.increment();
+            return false;
+        }
+        if (current.revocations().containsKey(jti)) {
+            revokedHits.increment();
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    /**
+     * Gleicht die Widerrufe mit dem Auth-Service ab. Der Bloom-Filter wird nur neu aufgebaut, wenn sich
+     * die Menge geändert hat.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation-sync-interval-ms:10000}")
+    public synchronized void sync() {
+        Snapshot current = snapshot;
+        long now = System.currentTimeMillis();
+        boolean fullSync = now - lastFullSyncMillis >= fullSyncIntervalMillis;
+        Map<String, Instant> revocations = new HashMap<>(fullSync ? Map.of() : current.revocations());
+        long offset = fullSync ? 0 : current.offset();
+
+        try {
+            List<Revocation> page;
+            do {
+                page = restClient.get()
+                        .uri(revocationsUri + "?after={after}&limit={limit}", offset, PAGE_SIZE)
+                        .retrieve()
+                        .body(new ParameterizedTypeReference<>() {
+                        });
+                if (page == null) {
+                    break;
+                }
+                for (Revocation revocation : page) {
+                    revocations.put(revocation.jti(), revocation.expiresAt());
+                    offset = revocation.id();
+                }
+            } while (page.size() == PAGE_SIZE);
+        } catch (RestClientException ex) {
+            log.warn("Widerrufe konnten nicht von {} geladen werden, letzter Stand bleibt bestehen: {}",
+                    revocationsUri, ex.getMessage());
+            return;
+        }
+        if (fullSync) {
+            lastFullSyncMillis = now;
+        }
+
+        Instant instant = Instant.ofEpochMilli(now);
+        revocations.values().removeIf(expiresAt -> expiresAt.isBefore(instant));
+        if (revocations.equals(current.revocations())) {
+            if (offset != current.offset()) {
+                snapshot = new Snapshot(current.bloomFilter(), current.revocations(), offset);
+            }
+            return;
+        }
+        snapshot = new Snapshot(new BloomFilter(revocations.keySet(), bloomFpp), Map.copyOf(revocations), offset);
+        log.debug("{} Widerrufe geladen (Offset {})", revocations.size(), offset);
+    }
+
+    private static Counter checkCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("jwt.revocation.checks")
+                .description("Prüfungen gegen die Widerrufsliste nach Ergebnis")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
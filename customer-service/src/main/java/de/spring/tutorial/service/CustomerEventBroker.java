@@ -0,0 +1,49 @@
+package de.spring.tutorial.service;
+
+import de.spring.tutorial.model.CustomerEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Prozessinterner Broker, über den der {@link CustomerEventRelay} veröffentlichte Ereignisse
+ * an alle aktuell verbundenen Abonnenten verteilt.
+ * <p>
+ * Dient als lokaler Ersatz für einen externen Message-Broker. Abonnenten dürfen im Callback
+ * nicht blockieren, da die Zustellung im Thread des Relays erfolgt.
+ */
+@Slf4j
+@Component
+public class CustomerEventBroker {
+
+    private final List<Consumer<List<CustomerEvent>>> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registriert einen Abonnenten.
+     *
+     * @param subscriber wird mit jedem veröffentlichten Batch von Ereignissen aufgerufen
+     * @return eine Aktion, die das Abonnement wieder beendet
+     */
+    public Runnable subscribe(Consumer<List<CustomerEvent>> subscriber) {
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    /**
+     * Verteilt einen Batch von Ereignissen an alle Abonnenten.
+     *
+     * @param events die zu verteilenden Ereignisse in aufsteigender Reihenfolge
+     */
+    public void publish(List<CustomerEvent> events) {
+        for (Consumer<List<CustomerEvent>> subscriber : subscribers) {
+            try {
+                subscriber.accept(events);
+            } catch (RuntimeException ex) {
+                log.warn("Zustellung von Kundenereignissen an einen Abonnenten fehlgeschlagen: {}", ex.getMessage());
+            }
+        }
+    }
+}
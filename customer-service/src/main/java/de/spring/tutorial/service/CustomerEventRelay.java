@@ -0,0 +1,99 @@
+package de.spring.tutorial.service;
+
+import de.spring.tutorial.model.CustomerEvent;
+import de.spring.tutorial.repository.CustomerEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Relay der transaktionalen Outbox.
+ * <p>
+ * Liest in festen Abständen noch nicht veröffentlichte {@link CustomerEvent}-Einträge in Batches, vergibt ihnen
+ * die fortlaufende Sequenz des Ereignisstroms und verteilt sie nach dem Commit über den {@link CustomerEventBroker}.
+ * Ereignisse, deren Transaktion erst nach einem Lauf sichtbar wird, erhalten im nächsten Lauf eine höhere Sequenz;
+ * Konsumenten, die nach der Sequenz lesen, verpassen sie daher nicht.
+ * <p>
+ * Die Sequenz ist eindeutig indiziert. Laufen mehrere Instanzen gegen dieselbe Datenbank, scheitert bei einer
+ * Überschneidung der Commit eines Relays; seine Ereignisse werden im nächsten Lauf erneut vergeben.
+ */
+@Slf4j
+@Component
+public class CustomerEventRelay {
+
+    private final CustomerEventRepository customerEventRepository;
+    private final CustomerEventBroker customerEventBroker;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration retention;
+
+    /**
+     * Konstruktor für das {@link CustomerEventRelay} mit Dependency Injection.
+     *
+     * @param customerEventRepository Repository für den Zugriff auf die Outbox-Tabelle
+     * @param customerEventBroker Broker, über den die Ereignisse verteilt werden
+     * @param transactionTemplate Template für die Transaktion je Batch
+     * @param batchSize maximale Anzahl an Ereignissen pro Batch
+     * @param retentionHours Aufbewahrungsdauer veröffentlichter Ereignisse in Stunden
+     */
+    public CustomerEventRelay(CustomerEventRepository customerEventRepository,
+                              CustomerEventBroker customerEventBroker,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${app.customer-events.relay-batch-size:500}") int batchSize,
+                              @Value("${app.customer-events.retention-hours:72}") long retentionHours) {
+        this.customerEventRepository = customerEventRepository;
+        this.customerEventBroker = customerEventBroker;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    /**
+     * Veröffentlicht alle ausstehenden Ereignisse batchweise.
+     */
+    @Scheduled(fixedDelayString = "${app.customer-events.relay-interval-ms:500}")
+    public void relay() {
+        List<CustomerEvent> batch;
+        do {
+            batch = transactionTemplate.execute(status -> assignSequences());
+            if (batch == null || batch.isEmpty()) {
+                return;
+            }
+            // Erst nach dem Commit verteilen, damit Abonnenten nur Sequenzen sehen, die auch in der Outbox stehen
+            customerEventBroker.publish(batch);
+            log.debug("{} Kundenereignisse veröffentlicht.", batch.size());
+        } while (batch.size() == batchSize);
+    }
+
+    /**
+     * Vergibt den ältesten unveröffentlichten Ereignissen die nächsten Sequenzen; geschrieben wird beim Commit.
+     */
+    private List<CustomerEvent> assignSequences() {
+        List<CustomerEvent> batch = customerEventRepository.findBySequenceIsNullOrderByIdAsc(PageRequest.of(0, batchSize));
+        long sequence = batch.isEmpty() ? 0 : customerEventRepository.findMaxSequence();
+        for (CustomerEvent event : batch) {
+            event.setSequence(++sequence);
+            event.setPublished(true);
+        }
+        return batch;
+    }
+
+    /**
+     * Entfernt veröffentlichte Ereignisse, deren Aufbewahrungsdauer abgelaufen ist.
+     */
+    @Scheduled(cron = "${app.customer-events.cleanup-cron:0 0 * * * *}")
+    @Transactional
+    public void cleanUp() {
+        int deleted = customerEventRepository.deletePublishedBefore(Instant.now().minus(retention),
+                customerEventRepository.findMaxSequence());
+        log.info("{} veröffentlichte Kundenereignisse entfernt.", deleted);
+    }
+}
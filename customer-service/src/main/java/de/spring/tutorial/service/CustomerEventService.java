@@ -0,0 +1,79 @@
+package de.spring.tutorial.service;
+
+import de.spring.tutorial.model.CustomerEvent;
+import de.spring.tutorial.model.CustomerEventType;
+import de.spring.tutorial.model.CustomerField;
+import de.spring.tutorial.repository.CustomerEventRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service für die transaktionale Outbox der Kundenänderungen.
+ * Schreibt Ereignisse in derselben Transaktion wie die Änderung am Kunden und stellt
+ * den Ereignisstrom für das inkrementelle Lesen anhand von Offsets bereit.
+ */
+@Service
+public class CustomerEventService {
+
+    private final CustomerEventRepository customerEventRepository;
+
+    /**
+     * Konstruktor für den {@link CustomerEventService} mit Dependency Injection.
+     *
+     * @param customerEventRepository Repository für den Zugriff auf die Outbox-Tabelle
+     */
+    public CustomerEventService(CustomerEventRepository customerEventRepository) {
+        this.customerEventRepository = customerEventRepository;
+    }
+
+    /**
+     * Schreibt ein Ereignis in die Outbox. Muss innerhalb der Transaktion aufgerufen werden,
+     * in der auch die Änderung am Kunden erfolgt.
+     *
+     * @param type die Art der Änderung
+     * @param customerId die ID des betroffenen Kunden
+     * @param changes die geänderten Felder mit ihren neuen Werten
+     * @return das gespeicherte Ereignis
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public CustomerEvent record(CustomerEventType type, Long customerId, Map<CustomerField, String> changes) {
+        Map<String, String> changesByName = new LinkedHashMap<>();
+        changes.forEach((field, value) -> changesByName.put(field.getJsonName(), value));
+
+        return customerEventRepository.save(CustomerEvent.builder()
+                .customerId(customerId)
+                .type(type)
+                .changes(changesByName)
+                .occurredAt(Instant.now())
+                .build());
+    }
+
+    /**
+     * Liefert die Ereignisse nach dem angegebenen Offset.
+     *
+     * @param after der zuletzt gelesene Offset (Sequenz)
+     * @param limit maximale Anzahl an Ereignissen
+     * @return veröffentlichte Ereignisse in aufsteigender Reihenfolge der Sequenz
+     */
+    @Transactional(readOnly = true)
+    public List<CustomerEvent> getEventsAfter(long after, int limit) {
+        return customerEventRepository.findBySequenceGreaterThanOrderBySequenceAsc(after, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Liefert den aktuellen Offset des Ereignisstroms.
+     *
+     * @return die Sequenz des zuletzt veröffentlichten Ereignisses oder 0, falls noch keine existieren
+     */
+    @Transactional(readOnly = true)
+    public long getLatestOffset() {
+        return customerEventRepository.findMaxSequence();
+    }
+}
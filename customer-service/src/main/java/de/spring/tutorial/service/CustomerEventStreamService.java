@@ -0,0 +1,191 @@
+package de.spring.tutorial.service;
+
+import de.spring.tutorial.exception.InvalidCustomerDataException;
+import de.spring.tutorial.model.Customer;
+import de.spring.tutorial.model.CustomerEvent;
+import de.spring.tutorial.repository.CustomerRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Stellt den Outbox-Ereignisstrom sowie Abonnements auf einzelne Kunden als Server-Sent Events bereit.
+ * <p>
+ * Jeder Stream liest zunächst alle Ereignisse ab dem angefragten Offset aus der Outbox nach und
+ * erhält anschließend neue Ereignisse über den {@link CustomerEventBroker}. Die Zustellung an den
+ * Client erfolgt in einem eigenen virtuellen Thread, damit langsame Clients das Relay nicht blockieren.
+ * Läuft die Warteschlange eines Clients über, wird der Stream beendet; der Client setzt ihn über
+ * {@code Last-Event-ID} fort. In Ruhephasen wird regelmäßig ein Kommentar als Heartbeat gesendet,
+ * damit getrennte Clients erkannt und ihre Streams freigegeben werden.
+ */
+@Slf4j
+@Service
+public class CustomerEventStreamService {
+
+    private static final String SNAPSHOT_EVENT = "SNAPSHOT";
+
+    private final CustomerEventService customerEventService;
+    private final CustomerEventBroker customerEventBroker;
+    private final CustomerRepository customerRepository;
+    private final long streamTimeoutMillis;
+    private final int queueCapacity;
+    private final int replayBatchSize;
+    private final long heartbeatMillis;
+    private final int subscriptionMaxIds;
+    private final Set<SseEmitter> openStreams = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Konstruktor für den {@link CustomerEventStreamService} mit Dependency Injection.
+     *
+     * @param customerEventService Service für das Nachlesen der Outbox
+     * @param customerEventBroker Broker für neue Ereignisse
+     * @param customerRepository Repository für den aktuellen Stand abonnierter Kunden
+     * @param streamTimeoutMillis maximale Lebensdauer eines Streams in Millisekunden
+     * @param queueCapacity maximale Anzahl an Ereignissen, die pro Client zwischengespeichert werden
+     * @param replayBatchSize Anzahl an Ereignissen pro Abfrage beim Nachlesen
+     * @param heartbeatMillis Abstand der Heartbeats in Ruhephasen in Millisekunden
+     * @param subscriptionMaxIds maximale Anzahl an Kunden-IDs pro Abonnement
+     */
+    public CustomerEventStreamService(CustomerEventService customerEventService,
+                                      CustomerEventBroker customerEventBroker,
+                                      CustomerRepository customerRepository,
+                                      @Value("${app.customer-events.stream-timeout-ms:1800000}") long streamTimeoutMillis,
+                                      @Value("${app.customer-events.stream-queue-capacity:1000}") int queueCapacity,
+                                      @Value("${app.customer-events.relay-batch-size:500}") int replayBatchSize,
+                                      @Value("${app.customer-events.stream-heartbeat-ms:15000}") long heartbeatMillis,
+                                      @Value("${app.customer-events.subscription-max-ids:200}") int subscriptionMaxIds) {
+        this.customerEventService = customerEventService;
+        this.customerEventBroker = customerEventBroker;
+        this.customerRepository = customerRepository;
+        this.streamTimeoutMillis = streamTimeoutMillis;
+        this.queueCapacity = queueCapacity;
+        this.replayBatchSize = replayBatchSize;
+        this.heartbeatMillis = heartbeatMillis;
+        this.subscriptionMaxIds = subscriptionMaxIds;
+    }
+
+    /**
+     * Öffnet einen Ereignisstrom ab dem angegebenen Offset.
+     *
+     * @param after der zuletzt gelesene Offset oder {@code null}, um nur neue Ereignisse zu erhalten
+     * @return der {@link SseEmitter} des Streams
+     */
+    public SseEmitter openStream(Long after) {
+        long offset = after != null ? after : customerEventService.getLatestOffset();
+        return open(offset, event -> true, Set.of());
+    }
+
+    /**
+     * Öffnet ein Abonnement für die Änderungen der angegebenen Kunden.
+     * Zu Beginn wird der aktuelle Stand jedes gefundenen Kunden als {@code SNAPSHOT}-Ereignis gesendet,
+     * danach nur noch die geänderten Felder der Kunden.
+     *
+     * @param customerIds die IDs der abonnierten Kunden
+     * @return der {@link SseEmitter} des Abonnements
+     * @throws InvalidCustomerDataException wenn keine oder zu viele IDs angegeben sind
+     */
+    public SseEmitter openSubscription(Set<Long> customerIds) {
+        if (customerIds.isEmpty() || customerIds.size() > subscriptionMaxIds) {
+            throw new InvalidCustomerDataException("Ein Abonnement muss zwischen 1 und " + subscriptionMaxIds
+                    + " Kunden-IDs enthalten.");
+        }
+        long offset = customerEventService.getLatestOffset();
+        return open(offset, event -> customerIds.contains(event.getCustomerId()), customerIds);
+    }
+
+    private SseEmitter open(long offset, Predicate<CustomerEvent> filter, Set<Long> snapshotIds) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        BlockingQueue<CustomerEvent> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicBoolean closed = new AtomicBoolean();
+
+        Runnable unsubscribe = customerEventBroker.subscribe(events -> {
+            for (CustomerEvent event : events) {
+                if (filter.test(event) && !queue.offer(event)) {
+                    closed.set(true);
+                    return;
+                }
+            }
+        });
+        Runnable close = () -> {
+            closed.set(true);
+            unsubscribe.run();
+            openStreams.remove(emitter);
+        };
+        openStreams.add(emitter);
+        emitter.onCompletion(close);
+        emitter.onTimeout(close);
+        emitter.onError(ex -> close.run());
+
+        Thread.ofVirtual()
+                .name("customer-event-stream")
+                .start(() -> deliver(emitter, queue, closed, offset, filter, snapshotIds));
+        return emitter;
+    }
+
+    private void deliver(SseEmitter emitter, BlockingQueue<CustomerEvent> queue, AtomicBoolean closed,
+                         long offset, Predicate<CustomerEvent> filter, Set<Long> snapshotIds) {
+        long lastSent = offset;
+        try {
+            if (!snapshotIds.isEmpty()) {
+                for (Customer customer : customerRepository.findByIdIn(snapshotIds)) {
+                    emitter.send(SseEmitter.event().name(SNAPSHOT_EVENT).data(customer));
+                }
+            }
+
+            List<CustomerEvent> replay;
+            do {
+                replay = customerEventService.getEventsAfter(lastSent, replayBatchSize);
+                for (CustomerEvent event : replay) {
+                    if (filter.test(event)) {
+                        send(emitter, event);
+                    }
+                    lastSent = event.getSequence();
+                }
+            } while (replay.size() == replayBatchSize && !closed.get());
+
+            while (!closed.get()) {
+                CustomerEvent event = queue.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                if (event == null) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else if (event.getSequence() > lastSent) {
+                    send(emitter, event);
+                    lastSent = event.getSequence();
+                }
+            }
+            emitter.complete();
+        } catch (IOException | IllegalStateException ex) {
+            log.debug("Kundenereignis-Stream beendet: {}", ex.getMessage());
+            emitter.completeWithError(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        }
+    }
+
+    /**
+     * Beendet beim Herunterfahren alle offenen Streams, damit laufende Requests abgeschlossen werden können.
+     */
+    @PreDestroy
+    public void closeAllStreams() {
+        openStreams.forEach(SseEmitter::complete);
+    }
+
+    private static void send(SseEmitter emitter, CustomerEvent event) throws IOException {
+        emitter.send(SseEmitter.event()
+                .id(String.valueOf(event.getSequence()))
+                .name(event.getType().name())
+                .data(event));
+    }
+}
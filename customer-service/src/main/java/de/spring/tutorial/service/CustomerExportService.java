@@ -0,0 +1,244 @@
+package de.spring.tutorial.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Export aller aktiven Kunden als gzip-komprimierte CSV-Datei für Auswertungen.
+ * <p>
+ * Der Export liest die Tabelle mit einem Cursor, der nur vorwärts läuft ({@code fetch-size} Zeilen je Abruf),
+ * und schreibt jede Zeile sofort in die Datei; weder Entitäten noch die ganze Tabelle liegen im Speicher. Gelesen
+ * wird in einer Lesetransaktion, die Datei enthält damit einen konsistenten Stand. Unter MySQL streamt der
+ * Treiber die Zeilen nur mit der Fetch-Size {@link Integer#MIN_VALUE}; sie wird hier nur für diese eine Abfrage
+ * gesetzt, {@code useCursorFetch} in der JDBC-URL würde dagegen alle Abfragen auf serverseitige Prepared
+ * Statements umstellen.
+ * <p>
+ * Jeder Export entsteht zunächst als temporäre Datei im Exportverzeichnis und wird erst vollständig geschrieben
+ * unter seinem endgültigen Namen ({@code customers-<Zeitstempel>.csv.gz}) sichtbar. Der vorherige Export bleibt
+ * erhalten, damit laufende Downloads nicht abbrechen; ältere werden entfernt.
+ */
+@Slf4j
+@Component
+public class CustomerExportService {
+
+    private static final String PREFIX = "customers-";
+    private static final String SUFFIX = ".csv.gz";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int KEPT_SNAPSHOTS = 2;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String HEADER = "id,nickName,lastName,firstName,phoneNumber,mobileNumber,email";
+    private static final String QUERY = "SELECT id, nick_name, last_name, first_name, phone_number, mobile_number, "
+            + "email FROM customer WHERE deleted = false ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directory;
+    private final boolean enabled;
+    private volatile Path current;
+
+    /**
+     * Konstruktor für den {@link CustomerExportService}.
+     *
+     * @param dataSource Datenquelle, aus der die Kunden gelesen werden
+     * @param url JDBC-URL der Datenquelle, bestimmt, wie die Zeilen gestreamt werden
+     * @param transactionManager Transaktionsmanager für die Lesetransaktion des Exports
+     * @param directory Verzeichnis der Exportdateien
+     * @param fetchSize Anzahl der Zeilen, die der Cursor je Abruf aus der Datenbank holt (nicht unter MySQL)
+     * @param enabled ob Exporte nach Zeitplan und beim Start erstellt werden
+     */
+    public CustomerExportService(DataSource dataSource,
+                                 @Value("${spring.datasource.url:}") String url,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.customers.export.directory:exports}") Path directory,
+                                 @Value("${app.customers.export.fetch-size:1000}") int fetchSize,
+                                 @Value("${app.customers.export.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // Connector/J streamt Zeile für Zeile nur mit dieser Fetch-Size, andere Werte laden das ganze Ergebnis
+        this.jdbcTemplate.setFetchSize(DatabaseDriver.fromJdbcUrl(url) == DatabaseDriver.MYSQL ? Integer.MIN_VALUE : fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.directory = directory.toAbsolutePath();
+        this.enabled = enabled;
+    }
+
+    /**
+     * Übernimmt nach dem Start den neuesten vorhandenen Export und erstellt einen, falls noch keiner vorliegt.
+     *
+     * @throws IOException wenn das Exportverzeichnis nicht gelesen werden kann
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> snapshots = listSnapshots();
+        current = snapshots.isEmpty() ? null : snapshots.getLast();
+        // Reste abgebrochener Exporte
+        try (DirectoryStream<Path> temporary = Files.newDirectoryStream(directory, PREFIX + "*" + TEMP_SUFFIX)) {
+            for (Path file : temporary) {
+                Files.deleteIfExists(file);
+            }
+        }
+        if (enabled && current == null) {
+            try {
+                export();
+            } catch (RuntimeException e) {
+                // Der Service bleibt verfügbar, der nächste geplante Lauf versucht es erneut
+                log.error("Erster Export der Kunden fehlgeschlagen", e);
+            }
+        }
+    }
+
+    /**
+     * Erstellt den Export nach Zeitplan.
+     */
+    @Scheduled(cron = "${app.customers.export.cron:0 0 2 * * *}")
+    public void scheduledExport() {
+        if (enabled) {
+            export();
+        }
+    }
+
+    /**
+     * Liefert den neuesten vollständigen Export.
+     *
+     * @return die Exportdatei oder leer, wenn noch kein Export erstellt wurde
+     */
+    public Optional<Path> currentSnapshot() {
+        return Optional.ofNullable(current);
+    }
+
+    /**
+     * Schreibt alle aktiven Kunden in einen neuen Export und macht ihn anschließend sichtbar.
+     *
+     * @return die neue Exportdatei
+     */
+    public synchronized Path export() {
+        long start = System.nanoTime();
+        Path target = directory.resolve(PREFIX + System.currentTimeMillis() + SUFFIX);
+        Path temporary = directory.resolve(target.getFileName() + TEMP_SUFFIX);
+        try {
+            long rows = write(temporary);
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            current = target;
+            log.info("Export mit {} Kunden ({} KiB) in {} ms erstellt: {}", rows, Files.size(target) / 1024,
+                    (System.nanoTime() - start) / 1_000_000, target.getFileName());
+            removeOldSnapshots();
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Export der Kunden fehlgeschlagen", e);
+        } finally {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException e) {
+                log.warn("Temporäre Exportdatei {} konnte nicht entfernt werden", temporary, e);
+            }
+        }
+    }
+
+    /**
+     * Schreibt die Kunden in die Datei und stellt sicher, dass sie vollständig auf dem Datenträger liegt.
+     */
+    private long write(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+             GZIPOutputStream gzip = new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            writer.write(HEADER);
+            writer.write("\r\n");
+            Long rows = transactionTemplate.execute(status -> {
+                long[] count = {0};
+                jdbcTemplate.query(QUERY, (RowCallbackHandler) resultSet -> {
+                    writeRow(writer, resultSet);
+                    count[0]++;
+                });
+                return count[0];
+            });
+            writer.flush();
+            gzip.finish();
+            channel.force(true);
+            return rows != null ? rows : 0;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void writeRow(Writer writer, ResultSet resultSet) throws SQLException {
+        try {
+            writer.write(Long.toString(resultSet.getLong(1)));
+            for (int column = 2; column <= 7; column++) {
+                writer.write(',');
+                writeField(writer, resultSet.getString(column));
+            }
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Schreibt ein Feld nach RFC 4180: in Anführungszeichen, wenn es Trennzeichen, Anführungszeichen oder
+     * Zeilenumbrüche enthält.
+     */
+    private static void writeField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private List<Path> listSnapshots() throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "[0-9]*" + SUFFIX)) {
+            files.forEach(snapshots::add);
+        }
+        snapshots.sort(Comparator.comparingLong(CustomerExportService::timestamp));
+        return snapshots;
+    }
+
+    private void removeOldSnapshots() throws IOException {
+        List<Path> snapshots = listSnapshots();
+        for (Path snapshot : snapshots.subList(0, Math.max(0, snapshots.size() - KEPT_SNAPSHOTS))) {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    private static long timestamp(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -3,15 +3,30 @@ package de.spring.tutorial.service;
 import de.spring.tutorial.exception.CustomerNotFoundException;
 import de.spring.tutorial.exception.DuplicateEmailException;
 import de.spring.tutorial.exception.DuplicateMobileNumberException;
+import de.spring.tutorial.exception.InvalidCustomerDataException;
 import de.spring.tutorial.model.Customer;
+import de.spring.tutorial.model.CustomerEventType;
+import de.spring.tutorial.model.CustomerField;
+import de.spring.tutorial.model.EmailNormalizer;
+import de.spring.tutorial.model.PhoneNumberNormalizer;
 import de.spring.tutorial.repository.CustomerRepository;
+import de.spring.tutorial.request.CustomerLookupRequest;
+import de.spring.tutorial.response.CustomerLookupResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * Service-Klasse für die Geschäftslogik der {@link Customer}-Entität.
@@ -19,48 +34,56 @@ import java.util.Optional;
  * Zusätzlich werden Methoden für das Abrufen von Kunden basierend auf verschiedenen Attributen wie
  * ID, Spitzname, Nachname, E-Mail-Adresse und Telefonnummer bereitgestellt.
  * Diese Klasse stellt auch Methoden für Soft- und Hard-Deletes von Kunden zur Verfügung.
+ * Jede Änderung wird in derselben Transaktion als Ereignis in die Outbox geschrieben.
  */
 @Slf4j
 @Service
 public class CustomerService {
 
     private final CustomerRepository customerRepository;
+    private final CustomerEventService customerEventService;
+    private final int lookupChunkSize;
+    private final int lookupMaxKeys;
     private static final String CUSTOMER_NOT_FOUND = " wurde nicht gefunden.";
     private static final String CUSTOMER_ID_PREFIX = "Kunde mit der ID ";
-    private static final String CUSTOMER_NICKNAME = "Kunde mit dem Spitznamen ";
-    private static final String CUSTOMER_LASTNAME = "Kunde mit dem Nachnamen ";
-    private static final String CUSTOMER_NAME = "Kunde mit dem Namen ";
-    private static final String CUSTOMER_EMAIL = "Kunde mit der E-Mail ";
-    private static final String CUSTOMER_PHONE = "Kunde mit der Telefonnummer ";
-    private static final String CUSTOMER_MOBILE = "Kunde mit der Handynummer ";
 
     /**
      * Konstruktor für den {@link CustomerService} mit Dependency Injection.
      *
      * @param customerRepository Repository für den Zugriff auf Kundendaten
+     * @param customerEventService Service für die Outbox der Kundenänderungen
+     * @param lookupChunkSize maximale Anzahl an Werten pro {@code IN}-Abfrage der Sammelabfrage
+     * @param lookupMaxKeys maximale Anzahl an Werten, die eine Sammelabfrage insgesamt enthalten darf
      */
-    public CustomerService(CustomerRepository customerRepository) {
+    public CustomerService(CustomerRepository customerRepository,
+                           CustomerEventService customerEventService,
+                           @Value("${app.customers.lookup.chunk-size:500}") int lookupChunkSize,
+                           @Value("${app.customers.lookup.max-keys:1000}") int lookupMaxKeys) {
         this.customerRepository = customerRepository;
+        this.customerEventService = customerEventService;
+        this.lookupChunkSize = lookupChunkSize;
+        this.lookupMaxKeys = lookupMaxKeys;
     }
 
     // ------------------ Standard-Logik --------------------
 
     /**
-     * Ruft alle Kunden aus der Datenbank ab.
+     * Ruft alle Kunden aus der Datenbank ab, einschließlich der als gelöscht markierten.
      *
      * @return Liste aller Kunden
      */
     public List<Customer> getAllCustomers() {
-        return customerRepository.findAll();
+        return customerRepository.findAllIncludingDeleted();
     }
 
     /**
      * Ruft alle Kunden ab, die nicht als gelöscht markiert wurden (Soft-Delete).
+     * Der Filter auf {@code deleted = false} wird bereits von der Entität selbst angewendet.
      *
      * @return Liste von nicht gelöschten Kunden
      */
     public List<Customer> getAllActiveCustomers() {
-        return customerRepository.findByDeletedFalse();
+        return customerRepository.findAll();
     }
 
     /**
@@ -74,14 +97,21 @@ public class CustomerService {
      */
     @Transactional
     public Customer saveCustomer(Customer customer) {
-        if (customerRepository.findByEmail(customer.getEmail()).isPresent()) {
+        if (isEmailTaken(customer.getEmail())) {
             log.warn("Ein Kunde mit der E-Mail {} existiert bereits.", customer.getEmail());
             throw new DuplicateEmailException("Ein Kunde mit dieser E-Mail existiert bereits.");
-        } else if (customerRepository.findByMobileNumber(customer.getMobileNumber()).isPresent()) {
+        } else if (isMobileNumberTaken(customer.getMobileNumber())) {
             log.warn("Ein Kunde mit der Handynummer {} existiert bereits.", customer.getMobileNumber());
             throw new DuplicateMobileNumberException("Ein Kunde mit dieser Handynummer existiert bereits.");
         }
-        return customerRepository.save(customer);
+        Customer savedCustomer = customerRepository.save(customer);
+
+        Map<CustomerField, String> snapshot = new EnumMap<>(CustomerField.class);
+        for (CustomerField field : CustomerField.values()) {
+            snapshot.put(field, field.get(savedCustomer));
+        }
+        customerEventService.record(CustomerEventType.CREATED, savedCustomer.getId(), snapshot);
+        return savedCustomer;
     }
 
     /**
@@ -98,15 +128,50 @@ public class CustomerService {
         Customer existingCustomer = customerRepository.findById(id)
                 .orElseThrow(() -> new CustomerNotFoundException(CUSTOMER_ID_PREFIX + id + CUSTOMER_NOT_FOUND));
 
-        existingCustomer.setNickName(StringUtils.defaultIfBlank(customer.getNickName(), existingCustomer.getNickName()));
-        existingCustomer.setFirstName(StringUtils.defaultIfBlank(customer.getFirstName(), existingCustomer.getFirstName()));
-        existingCustomer.setLastName(StringUtils.defaultIfBlank(customer.getLastName(), existingCustomer.getLastName()));
-        existingCustomer.setPhoneNumber(StringUtils.defaultIfBlank(customer.getPhoneNumber(), existingCustomer.getPhoneNumber()));
-        existingCustomer.setMobileNumber(StringUtils.defaultIfBlank(customer.getMobileNumber(), existingCustomer.getMobileNumber()));
-        existingCustomer.setEmail(StringUtils.defaultIfBlank(customer.getEmail(), existingCustomer.getEmail()));
+        Map<CustomerField, String> values = new EnumMap<>(CustomerField.class);
+        for (CustomerField field : CustomerField.values()) {
+            String value = field.get(customer);
+            if (StringUtils.isNotBlank(value)) {
+                values.put(field, value);
+            }
+        }
+        recordUpdate(id, applyChanges(existingCustomer, values));
 
         log.info("Kunde mit der ID {} wurde aktualisiert.", id);
-        return Optional.of(customerRepository.save(existingCustomer));
+        return Optional.of(existingCustomer);
+    }
+
+    /**
+     * Aktualisiert einen bestehenden Kunden nach JSON-Merge-Patch-Semantik (RFC 7396).
+     * Nur die im Patch enthaltenen Felder werden berücksichtigt. Da alle Kundenfelder Pflichtfelder sind,
+     * ist das Entfernen eines Feldes über {@code null} nicht erlaubt.
+     *
+     * @param id die ID des zu aktualisierenden Kunden
+     * @param patch das Merge-Patch-Dokument mit den zu ändernden Feldern
+     * @return Optional mit dem aktualisierten Kunden
+     * @throws CustomerNotFoundException wenn kein Kunde mit der angegebenen ID existiert
+     * @throws InvalidCustomerDataException wenn der Patch unbekannte, nicht änderbare oder leere Felder enthält
+     */
+    @Transactional
+    public Optional<Customer> patchCustomerById(Long id, Map<String, Object> patch) {
+        Customer existingCustomer = customerRepository.findById(id)
+                .orElseThrow(() -> new CustomerNotFoundException(CUSTOMER_ID_PREFIX + id + CUSTOMER_NOT_FOUND));
+
+        Map<CustomerField, String> values = new EnumMap<>(CustomerField.class);
+        for (Map.Entry<String, Object> entry : patch.entrySet()) {
+            CustomerField field = CustomerField.fromJsonName(entry.getKey());
+            if (field == null) {
+                throw new InvalidCustomerDataException("Das Feld '" + entry.getKey() + "' kann nicht geändert werden.");
+            }
+            if (!(entry.getValue() instanceof String value) || StringUtils.isBlank(value)) {
+                throw new InvalidCustomerDataException("Das Feld '" + entry.getKey() + "' muss einen nicht leeren Text enthalten.");
+            }
+            values.put(field, value);
+        }
+        recordUpdate(id, applyChanges(existingCustomer, values));
+
+        log.info("Kunde mit der ID {} wurde teilweise aktualisiert.", id);
+        return Optional.of(existingCustomer);
     }
 
     /**
@@ -125,21 +190,23 @@ public class CustomerService {
         Customer customer = customerOpt.get();
         customer.setDeleted(true);  // Soft-Delete durchführen
         customerRepository.save(customer);
+        customerEventService.record(CustomerEventType.SOFT_DELETED, id, Map.of());
         log.info("Kunde mit der ID {} wurde soft gelöscht.", id);
     }
 
     /**
      * Führt ein Hard-Delete durch, indem der Kunde aus der Datenbank gelöscht wird.
+     * Bereits soft-gelöschte Kunden können ebenfalls dauerhaft entfernt werden.
      *
      * @param id Die ID des zu löschenden Kunden.
      * @throws CustomerNotFoundException wenn der Kunde mit der angegebenen ID nicht existiert.
      */
     @Transactional
     public void hardDeleteCustomerById(Long id) {
-        if (!customerRepository.existsById(id)) {
+        if (customerRepository.deleteByIdIncludingDeleted(id) == 0) {  // Hard-Delete durchführen
             throw new CustomerNotFoundException(CUSTOMER_ID_PREFIX + id + CUSTOMER_NOT_FOUND);
         }
-        customerRepository.deleteById(id);  // Hard-Delete durchführen
+        customerEventService.record(CustomerEventType.HARD_DELETED, id, Map.of());
         log.info("Kunde mit der ID {} wurde hard gelöscht.", id);
     }
 
@@ -149,93 +216,284 @@ public class CustomerService {
      * Ruft einen Kunden anhand seiner ID ab.
      *
      * @param id die ID des Kunden
-     * @return Optional mit dem gefundenen Kunden
-     * @throws CustomerNotFoundException wenn kein Kunde mit der angegebenen ID existiert
+     * @return Optional mit dem gefundenen Kunden oder leer, falls kein Kunde existiert
      */
     public Optional<Customer> getCustomerById(Long id) {
-        return Optional.ofNullable(customerRepository.findById(id)
-                .orElseThrow(() -> new CustomerNotFoundException(CUSTOMER_ID_PREFIX + id + CUSTOMER_NOT_FOUND)));
+        return customerRepository.findById(id);
+    }
+
+    /**
+     * Ruft einen Kunden anhand seiner ID ab, auch wenn er als gelöscht markiert wurde.
+     *
+     * @param id die ID des Kunden
+     * @return Optional mit dem gefundenen Kunden oder leer, falls kein Kunde existiert
+     */
+    public Optional<Customer> getCustomerByIdIncludingDeleted(Long id) {
+        return customerRepository.findByIdIncludingDeleted(id);
     }
 
     /**
      * Ruft einen Kunden mit dem angegebenen Spitznamen ab.
      *
      * @param nickName der Spitzname des Kunden
-     * @return Kunde mit übereinstimmendem Spitznamen
-     * @throws CustomerNotFoundException wenn kein Kunde mit dem angegebenen Spitznamen existiert
+     * @return Optional mit dem Kunden mit übereinstimmendem Spitznamen oder leer, falls keiner existiert
      */
     public Optional<Customer> getCustomerByNickName(String nickName) {
-        return Optional.ofNullable(customerRepository.findByNickName(nickName)
-                .orElseThrow(() -> new CustomerNotFoundException(CUSTOMER_NICKNAME + nickName + CUSTOMER_NOT_FOUND)));
+        return customerRepository.findByNickName(nickName);
     }
 
     /**
      * Ruft alle Kunden mit dem angegebenen Nachnamen ab.
      *
      * @param lastName der Nachname des Kunden
-     * @return Liste von Kunden mit übereinstimmendem Nachnamen
-     * @throws CustomerNotFoundException wenn keine Kunden mit dem angegebenen Nachnamen existieren
+     * @return Liste von Kunden mit übereinstimmendem Nachnamen, leer falls keine existieren
      */
     public List<Customer> getCustomersByLastName(String lastName) {
-        List<Customer> customers = customerRepository.findByLastName(lastName);
-        if (customers.isEmpty()) {
-            throw new CustomerNotFoundException(CUSTOMER_LASTNAME + lastName + CUSTOMER_NOT_FOUND);
-        }
-        return customers;
+        return customerRepository.findByLastName(lastName);
     }
 
     /**
      * Sucht Kunden anhand eines Suchbegriffs im Vor- oder Nachnamen (case-insensitive).
      *
      * @param searchQuery der Suchbegriff
-     * @return Liste von passenden Kunden
-     * @throws CustomerNotFoundException wenn keine Kunden gefunden werden
+     * @return Liste von passenden Kunden, leer falls keine gefunden werden
      */
     public List<Customer> searchCustomersByName(String searchQuery) {
-        List<Customer> customers = customerRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(searchQuery, searchQuery);
-        if (customers.isEmpty()) {
-            throw new CustomerNotFoundException(CUSTOMER_NAME + searchQuery + CUSTOMER_NOT_FOUND);
-        }
-        return customers;
+        return customerRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(searchQuery, searchQuery);
     }
 
     /**
-     * Ruft einen Kunden anhand seiner E-Mail-Adresse ab.
+     * Ruft einen Kunden anhand seiner E-Mail-Adresse ab. Groß-/Kleinschreibung wird nicht unterschieden.
      *
      * @param email die E-Mail-Adresse des Kunden
-     * @return Optional mit dem gefundenen Kunden
-     * @throws CustomerNotFoundException wenn kein Kunde mit der angegebenen E-Mail existiert
+     * @return Optional mit dem gefundenen Kunden oder leer, falls kein Kunde existiert
      */
     public Optional<Customer> getCustomerByEmail(String email) {
-        return Optional.ofNullable(customerRepository.findByEmail(email)
-                .orElseThrow(() -> new CustomerNotFoundException(CUSTOMER_EMAIL + email + CUSTOMER_NOT_FOUND)));
+        return customerRepository.findByEmailNormalized(EmailNormalizer.normalize(email));
     }
 
     /**
      * Ruft alle Kunden mit der angegebenen Telefonnummer ab.
+     * Die Nummer wird nach E.164 normalisiert, sodass jede Schreibweise mit einer Abfrage über den Index
+     * gefunden wird. Nur Nummern, die sich nicht normalisieren lassen, werden unverändert verglichen.
      *
-     * @param phoneNumber die Telefonnummer des Kunden
-     * @return Liste von Kunden mit übereinstimmender Telefonnummer
-     * @throws CustomerNotFoundException wenn keine Kunden mit der angegebenen Telefonnummer existieren
+     * @param phoneNumber die Telefonnummer des Kunden in beliebiger Schreibweise
+     * @return Liste von Kunden mit übereinstimmender Telefonnummer, leer falls keine existieren
      */
     public List<Customer> getCustomersByPhoneNumber(String phoneNumber) {
-        List<Customer> customers = customerRepository.findByPhoneNumber(phoneNumber);
-        if (customers.isEmpty()) {
-            throw new CustomerNotFoundException(CUSTOMER_PHONE + phoneNumber + CUSTOMER_NOT_FOUND);
-        }
-        return customers;
+        String phoneNumberE164 = PhoneNumberNormalizer.toE164(phoneNumber);
+        return phoneNumberE164 != null
+                ? customerRepository.findByPhoneNumberE164(phoneNumberE164)
+                : customerRepository.findByPhoneNumber(phoneNumber);
     }
 
     /**
      * Ruft einen Kunden anhand seiner Handynummer ab.
+     * Die Nummer wird wie bei {@link #getCustomersByPhoneNumber(String)} nach E.164 normalisiert.
      *
-     * @param mobileNumber die Handynummer des Kunden
-     * @return Optional mit dem gefundenen Kunden
-     * @throws CustomerNotFoundException wenn kein Kunde mit der angegebenen Handynummer existiert
+     * @param mobileNumber die Handynummer des Kunden in beliebiger Schreibweise
+     * @return Optional mit dem gefundenen Kunden oder leer, falls kein Kunde existiert
      */
     public Optional<Customer> getCustomerByMobileNumber(String mobileNumber) {
-        return Optional.ofNullable(customerRepository.findByMobileNumber(mobileNumber)
-                .orElseThrow(() -> new CustomerNotFoundException(CUSTOMER_MOBILE + mobileNumber + CUSTOMER_NOT_FOUND)));
+        String mobileNumberE164 = PhoneNumberNormalizer.toE164(mobileNumber);
+        return mobileNumberE164 != null
+                ? customerRepository.findFirstByMobileNumberE164OrderByIdAsc(mobileNumberE164)
+                : customerRepository.findByMobileNumber(mobileNumber);
+    }
+
+    /**
+     * Prüft, ob die E-Mail-Adresse in beliebiger Schreibweise bereits vergeben ist, auch an einen als gelöscht
+     * markierten Kunden.
+     *
+     * @param email die E-Mail-Adresse
+     * @return {@code true}, wenn die Adresse bereits vergeben ist
+     */
+    private boolean isEmailTaken(String email) {
+        return customerRepository.countByEmailNormalizedIncludingDeleted(EmailNormalizer.normalize(email)) > 0;
+    }
+
+    /**
+     * Prüft, ob die Handynummer bereits vergeben ist, auch an einen als gelöscht markierten Kunden.
+     * Verglichen wird nach E.164, damit dieselbe Nummer nicht in anderer Schreibweise erneut vergeben wird.
+     *
+     * @param mobileNumber die Handynummer in beliebiger Schreibweise
+     * @return {@code true}, wenn die Nummer bereits vergeben ist
+     */
+    private boolean isMobileNumberTaken(String mobileNumber) {
+        String mobileNumberE164 = PhoneNumberNormalizer.toE164(mobileNumber);
+        return mobileNumberE164 != null
+                ? customerRepository.countByMobileNumberE164IncludingDeleted(mobileNumberE164) > 0
+                : customerRepository.countByMobileNumberIncludingDeleted(mobileNumber) > 0;
+    }
+
+    /**
+     * Übernimmt die angegebenen Werte in den Kunden, sofern sie sich vom aktuellen Wert unterscheiden.
+     * Die Eindeutigkeit von E-Mail-Adresse und Handynummer wird nur geprüft, wenn sich diese tatsächlich ändern.
+     * Dank {@code @DynamicUpdate} schreibt Hibernate beim Flush nur die geänderten Spalten.
+     *
+     * @param customer der zu ändernde, verwaltete Kunde
+     * @param values die neuen Werte je Feld
+     * @return die tatsächlich geänderten Felder mit ihren neuen Werten
+     * @throws DuplicateEmailException wenn die neue E-Mail bereits vergeben ist
+     * @throws DuplicateMobileNumberException wenn die neue Handynummer bereits vergeben ist
+     */
+    private Map<CustomerField, String> applyChanges(Customer customer, Map<CustomerField, String> values) {
+        Map<CustomerField, String> changes = new EnumMap<>(CustomerField.class);
+        values.forEach((field, value) -> {
+            if (!value.equals(field.get(customer))) {
+                changes.put(field, value);
+            }
+        });
+
+        // Dieselbe Adresse oder Nummer in anderer Schreibweise gehört bereits diesem Kunden und gilt nicht als vergeben
+        String email = changes.get(CustomerField.EMAIL);
+        if (email != null
+                && !EmailNormalizer.normalize(email).equals(customer.getEmailNormalized())
+                && isEmailTaken(email)) {
+            log.warn("Ein Kunde mit der E-Mail {} existiert bereits.", email);
+            throw new DuplicateEmailException("Ein Kunde mit dieser E-Mail existiert bereits.");
+        }
+        String mobileNumber = changes.get(CustomerField.MOBILE_NUMBER);
+        String mobileNumberE164 = PhoneNumberNormalizer.toE164(mobileNumber);
+        if (mobileNumber != null
+                && (mobileNumberE164 == null || !mobileNumberE164.equals(customer.getMobileNumberE164()))
+                && isMobileNumberTaken(mobileNumber)) {
+            log.warn("Ein Kunde mit der Handynummer {} existiert bereits.", mobileNumber);
+            throw new DuplicateMobileNumberException("Ein Kunde mit dieser Handynummer existiert bereits.");
+        }
+
+        changes.forEach((field, value) -> field.set(customer, value));
+        return changes;
+    }
+
+    /**
+     * Schreibt ein Aktualisierungsereignis in die Outbox, sofern sich tatsächlich Felder geändert haben.
+     *
+     * @param id die ID des aktualisierten Kunden
+     * @param changes die geänderten Felder mit ihren neuen Werten
+     */
+    private void recordUpdate(Long id, Map<CustomerField, String> changes) {
+        if (!changes.isEmpty()) {
+            customerEventService.record(CustomerEventType.UPDATED, id, changes);
+        }
     }
 
-}
\ No newline at end of file
+    /**
+     * Sucht mehrere Kunden in einem Aufruf anhand von IDs, E-Mail-Adressen, Spitznamen und Handynummern.
+     * Jede Liste wird dedupliziert und in Blöcken von höchstens {@code lookupChunkSize} Werten
+     * über eine {@code IN}-Abfrage aufgelöst.
+     *
+     * @param request die angefragten Werte
+     * @return die gefundenen Kunden, geschlüsselt nach dem jeweils angefragten Wert
+     * @throws InvalidCustomerDataException wenn insgesamt mehr als {@code lookupMaxKeys} Werte angefragt werden
+     */
+    @Transactional(readOnly = true)
+    public CustomerLookupResponse lookupCustomers(CustomerLookupRequest request) {
+        int keyCount = sizeOf(request.ids()) + sizeOf(request.emails())
+                + sizeOf(request.nickNames()) + sizeOf(request.mobileNumbers());
+        if (keyCount > lookupMaxKeys) {
+            throw new InvalidCustomerDataException("Eine Sammelabfrage darf höchstens " + lookupMaxKeys
+                    + " Werte enthalten, angefragt wurden " + keyCount + ".");
+        }
+
+        return new CustomerLookupResponse(
+                lookupInChunks(request.ids(), customerRepository::findByIdIn, Customer::getId),
+                lookupEmails(request.emails()),
+                lookupInChunks(request.nickNames(), customerRepository::findByNickNameIn, Customer::getNickName),
+                lookupMobileNumbers(request.mobileNumbers())
+        );
+    }
+
+    /**
+     * Löst E-Mail-Adressen unabhängig von der Groß-/Kleinschreibung über die normalisierte Spalte auf. Jede
+     * angefragte Schreibweise erscheint im Ergebnis mit ihrem Kunden.
+     *
+     * @param emails die angefragten E-Mail-Adressen, darf {@code null} sein
+     * @return die gefundenen Kunden, geschlüsselt nach der angefragten E-Mail-Adresse
+     */
+    private Map<String, Customer> lookupEmails(List<String> emails) {
+        if (emails == null || emails.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, List<String>> requestedByNormalized = new HashMap<>();
+        for (String email : new LinkedHashSet<>(emails)) {
+            if (email != null) {
+                requestedByNormalized.computeIfAbsent(EmailNormalizer.normalize(email), key -> new ArrayList<>(1))
+                        .add(email);
+            }
+        }
+
+        Map<String, Customer> result = new HashMap<>();
+        lookupInChunks(new ArrayList<>(requestedByNormalized.keySet()),
+                customerRepository::findByEmailNormalizedIn, Customer::getEmailNormalized)
+                .forEach((emailNormalized, customer) ->
+                        requestedByNormalized.get(emailNormalized).forEach(requested -> result.put(requested, customer)));
+        return result;
+    }
+
+    /**
+     * Löst Handynummern in beliebiger Schreibweise über ihre Form nach E.164 auf. Jede angefragte Schreibweise
+     * erscheint im Ergebnis mit ihrem Kunden; Nummern, die sich nicht normalisieren lassen, werden unverändert
+     * verglichen.
+     *
+     * @param mobileNumbers die angefragten Handynummern, darf {@code null} sein
+     * @return die gefundenen Kunden, geschlüsselt nach der angefragten Handynummer
+     */
+    private Map<String, Customer> lookupMobileNumbers(List<String> mobileNumbers) {
+        if (mobileNumbers == null || mobileNumbers.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, List<String>> requestedByE164 = new HashMap<>();
+        List<String> unnormalized = new ArrayList<>();
+        for (String mobileNumber : new LinkedHashSet<>(mobileNumbers)) {
+            String mobileNumberE164 = PhoneNumberNormalizer.toE164(mobileNumber);
+            if (mobileNumberE164 != null) {
+                requestedByE164.computeIfAbsent(mobileNumberE164, key -> new ArrayList<>(1)).add(mobileNumber);
+            } else if (mobileNumber != null) {
+                unnormalized.add(mobileNumber);
+            }
+        }
+
+        Map<String, Customer> result = new HashMap<>(lookupInChunks(unnormalized,
+                customerRepository::findByMobileNumberIn, Customer::getMobileNumber));
+        Map<String, Customer> byE164 = lookupInChunks(new ArrayList<>(requestedByE164.keySet()),
+                customerRepository::findByMobileNumberE164InOrderByIdAsc, Customer::getMobileNumberE164);
+        byE164.forEach((mobileNumberE164, customer) ->
+                requestedByE164.get(mobileNumberE164).forEach(requested -> result.put(requested, customer)));
+        return result;
+    }
+
+    /**
+     * Löst die angegebenen Werte blockweise über die übergebene {@code IN}-Abfrage auf.
+     *
+     * @param keys die angefragten Werte, darf {@code null} sein
+     * @param query die Abfrage für einen Block von Werten
+     * @param keyExtractor liefert den Wert eines gefundenen Kunden, über den er angefragt wurde
+     * @return die gefundenen Kunden, geschlüsselt nach dem angefragten Wert; passen mehrere Kunden zu einem
+     *         Wert, gilt der erste in der Reihenfolge der Abfrage
+     */
+    private <K> Map<K, Customer> lookupInChunks(List<K> keys,
+                                               Function<Collection<K>, List<Customer>> query,
+                                               Function<Customer, K> keyExtractor) {
+        if (keys == null || keys.isEmpty()) {
+            return Map.of();
+        }
+
+        List<K> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        distinctKeys.remove(null);
+        Map<K, Customer> result = new HashMap<>(distinctKeys.size() * 2);
+        for (int from = 0; from < distinctKeys.size(); from += lookupChunkSize) {
+            List<K> chunk = distinctKeys.subList(from, Math.min(from + lookupChunkSize, distinctKeys.size()));
+            for (Customer customer : query.apply(chunk)) {
+                result.putIfAbsent(keyExtractor.apply(customer), customer);
+            }
+        }
+        return result;
+    }
+
+    private static int sizeOf(List<?> values) {
+        return values == null ? 0 : values.size();
+    }
+}
@@ -0,0 +1,214 @@
+package de.spring.tutorial.service;
+
+import de.spring.tutorial.model.Customer;
+import de.spring.tutorial.model.CustomerEvent;
+import de.spring.tutorial.model.CustomerField;
+import de.spring.tutorial.repository.CustomerRepository;
+import de.spring.tutorial.response.CustomerSuggestion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Präfix-Index über Spitzname, Vorname, Nachname und vollständigen Namen aller aktiven Kunden für die
+ * Autovervollständigung.
+ * <p>
+ * Die Begriffe liegen normalisiert (Kleinschreibung, ohne diakritische Zeichen) in einer sortierten
+ * {@link ConcurrentSkipListMap}; alle Begriffe mit einem Präfix bilden dort einen zusammenhängenden Bereich.
+ * Eine Anfrage liest nur diesen Bereich bis zur gewünschten Anzahl an Kunden und berührt die Datenbank nicht.
+ * <p>
+ * Der Index wird nach dem Start seitenweise aus der Datenbank aufgebaut und über den {@link CustomerEventBroker}
+ * aktuell gehalten. Änderungen erscheinen damit mit der Verzögerung des Outbox-Relays; während des Aufbaus
+ * liefert der Index nur die bereits geladenen Kunden. Ereignisse, die bis zum Ende des Aufbaus eintreffen, werden
+ * gepuffert und danach in ihrer Reihenfolge angewendet; sie überschreiben damit auch Kunden, die der Aufbau mit
+ * einem älteren Stand gelesen hat.
+ */
+@Slf4j
+@Component
+public class CustomerSuggestionIndex {
+
+    private static final char SEPARATOR = '\u0000';
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final CustomerRepository customerRepository;
+    private final int loadPageSize;
+    private final int maxResults;
+    private final NavigableMap<String, CustomerSuggestion> terms = new ConcurrentSkipListMap<>();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private List<CustomerEvent> pendingEvents = new ArrayList<>();
+
+    /**
+     * Vorschlag eines Kunden mit den Schlüsseln, unter denen er im Index steht.
+     */
+    private record Entry(CustomerSuggestion suggestion, List<String> keys) {
+    }
+
+    /**
+     * Konstruktor für den {@link CustomerSuggestionIndex}. Das Abonnement beginnt vor dem Aufbau; bis dieser
+     * abgeschlossen ist, werden die Ereignisse nur gepuffert.
+     *
+     * @param customerRepository Repository zum Aufbau des Index
+     * @param customerEventBroker Broker der Kundenänderungen
+     * @param loadPageSize Anzahl der Kunden je Seite beim Aufbau
+     * @param maxResults maximale Anzahl an Vorschlägen je Anfrage
+     */
+    public CustomerSuggestionIndex(CustomerRepository customerRepository,
+                                   CustomerEventBroker customerEventBroker,
+                                   @Value("${app.customers.suggest.load-page-size:1000}") int loadPageSize,
+                                   @Value("${app.customers.suggest.max-results:50}") int maxResults) {
+        this.customerRepository = customerRepository;
+        this.loadPageSize = loadPageSize;
+        this.maxResults = maxResults;
+        customerEventBroker.subscribe(this::apply);
+    }
+
+    /**
+     * Baut den Index nach dem Start aus allen aktiven Kunden auf und wendet anschließend die währenddessen
+     * gepufferten Ereignisse an.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        long lastId = 0;
+        int count = 0;
+        try {
+            List<Customer> page;
+            do {
+                page = customerRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(loadPageSize));
+                for (Customer customer : page) {
+                    entries.put(customer.getId(), index(new CustomerSuggestion(
+                            customer.getId(), customer.getNickName(), customer.getFirstName(), customer.getLastName())));
+                    lastId = customer.getId();
+                }
+                count += page.size();
+            } while (page.size() == loadPageSize);
+        } finally {
+            // Auch nach einem Fehler, sonst würde der Puffer unbegrenzt wachsen
+            replayPendingEvents();
+        }
+        log.info("Vorschlagsindex mit {} Kunden in {} ms aufgebaut", count, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Wendet die während des Aufbaus gepufferten Ereignisse an und beendet das Puffern.
+     */
+    private synchronized void replayPendingEvents() {
+        List<CustomerEvent> events = pendingEvents;
+        pendingEvents = null;
+        if (events != null) {
+            applyNow(events);
+        }
+    }
+
+    /**
+     * Liefert die Kunden, deren Spitzname, Vorname, Nachname oder vollständiger Name mit dem Präfix beginnt.
+     * Groß-/Kleinschreibung und diakritische Zeichen werden nicht unterschieden. Sortiert wird nach dem
+     * passenden Begriff, jeder Kunde erscheint nur einmal.
+     *
+     * @param prefix das eingegebene Präfix
+     * @param limit gewünschte Anzahl an Vorschlägen, höchstens {@code app.customers.suggest.max-results}
+     * @return die Vorschläge, leer, wenn kein Kunde passt
+     */
+    public List<CustomerSuggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        limit = Math.min(limit, maxResults);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Map<Long, CustomerSuggestion> suggestions = new LinkedHashMap<>();
+        NavigableMap<String, CustomerSuggestion> matches =
+                terms.subMap(normalized, true, normalized + Character.MAX_VALUE, false);
+        for (CustomerSuggestion suggestion : matches.values()) {
+            suggestions.putIfAbsent(suggestion.id(), suggestion);
+            if (suggestions.size() == limit) {
+                break;
+            }
+        }
+        return new ArrayList<>(suggestions.values());
+    }
+
+    /**
+     * Übernimmt veröffentlichte Änderungen in den Index bzw. puffert sie, solange der Aufbau läuft.
+     */
+    private synchronized void apply(List<CustomerEvent> events) {
+        if (pendingEvents != null) {
+            pendingEvents.addAll(events);
+            return;
+        }
+        applyNow(events);
+    }
+
+    private void applyNow(List<CustomerEvent> events) {
+        for (CustomerEvent event : events) {
+            switch (event.getType()) {
+                case CREATED -> entries.compute(event.getCustomerId(), (id, existing) -> {
+                    if (existing != null) {
+                        existing.keys().forEach(terms::remove);
+                    }
+                    return index(merge(id, existing, event.getChanges()));
+                });
+                // Ohne Eintrag ist der Kunde gelöscht oder wird erst mit seinem CREATED-Ereignis angelegt
+                case UPDATED -> entries.computeIfPresent(event.getCustomerId(), (id, existing) -> {
+                    existing.keys().forEach(terms::remove);
+                    return index(merge(id, existing, event.getChanges()));
+                });
+                case SOFT_DELETED, HARD_DELETED -> entries.computeIfPresent(event.getCustomerId(), (id, existing) -> {
+                    existing.keys().forEach(terms::remove);
+                    return null;
+                });
+            }
+        }
+    }
+
+    private static CustomerSuggestion merge(Long id, Entry existing, Map<String, String> changes) {
+        CustomerSuggestion current = existing != null ? existing.suggestion() : new CustomerSuggestion(id, null, null, null);
+        Map<String, String> values = changes != null ? changes : Map.of();
+        return new CustomerSuggestion(id,
+                values.getOrDefault(CustomerField.NICK_NAME.getJsonName(), current.nickName()),
+                values.getOrDefault(CustomerField.FIRST_NAME.getJsonName(), current.firstName()),
+                values.getOrDefault(CustomerField.LAST_NAME.getJsonName(), current.lastName()));
+    }
+
+    private Entry index(CustomerSuggestion suggestion) {
+        List<String> keys = new ArrayList<>(4);
+        addTerm(keys, suggestion, suggestion.nickName());
+        addTerm(keys, suggestion, suggestion.firstName());
+        addTerm(keys, suggestion, suggestion.lastName());
+        if (suggestion.firstName() != null && suggestion.lastName() != null) {
+            addTerm(keys, suggestion, suggestion.firstName() + " " + suggestion.lastName());
+        }
+        return new Entry(suggestion, List.copyOf(keys));
+    }
+
+    private void addTerm(List<String> keys, CustomerSuggestion suggestion, String value) {
+        String term = value != null ? normalize(value) : "";
+        if (term.isEmpty()) {
+            return;
+        }
+        // Die ID im Schlüssel hält gleiche Begriffe verschiedener Kunden auseinander
+        String key = term + SEPARATOR + suggestion.id();
+        if (!keys.contains(key)) {
+            keys.add(key);
+            terms.put(key, suggestion);
+        }
+    }
+
+    private static String normalize(String value) {
+        String decomposed = Normalizer.normalize(value.strip(), Normalizer.Form.NFKD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
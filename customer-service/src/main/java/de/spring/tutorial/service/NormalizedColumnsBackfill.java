@@ -0,0 +1,110 @@
+package de.spring.tutorial.service;
+
+import de.spring.tutorial.model.EmailNormalizer;
+import de.spring.tutorial.model.PhoneNumberNormalizer;
+import de.spring.tutorial.repository.CustomerRepository;
+import de.spring.tutorial.repository.CustomerRepository.ContactDetails;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Berechnet nach dem Start die normalisierten Spalten (Nummern nach E.164, E-Mail-Adresse in Kleinschreibung)
+ * für Kunden, die vor deren Einführung angelegt wurden, einschließlich der als gelöscht markierten.
+ * <p>
+ * Die Kunden werden seitenweise nach ID gelesen und je Seite in einer eigenen Transaktion aktualisiert, damit
+ * auch große Tabellen nicht in einer langen Transaktion gesperrt werden. Verarbeitete Kunden werden als
+ * normalisiert markiert, auch wenn sich eine Nummer nicht nach E.164 umwandeln lässt; sind alle verarbeitet,
+ * kostet der Lauf nur eine leere Abfrage über den Index. Neue und geänderte Kunden erhalten die Werte und die
+ * Markierung bereits beim Schreiben.
+ * <p>
+ * Unterscheiden sich bestehende Kunden nur in der Schreibweise ihrer E-Mail-Adresse, erhält nur der erste die
+ * normalisierte Adresse. Die übrigen bleiben unmarkiert; für sie wird bei jedem Start eine Warnung geschrieben,
+ * bis die Dubletten bereinigt sind. Geschrieben werden nur Spalten, die noch leer sind.
+ */
+@Slf4j
+@Component
+public class NormalizedColumnsBackfill {
+
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+
+    /**
+     * Konstruktor für den {@link NormalizedColumnsBackfill}.
+     *
+     * @param customerRepository Repository für den Zugriff auf die Kundendaten
+     * @param transactionTemplate Template für die Transaktion je Seite
+     * @param enabled ob die fehlenden Werte nach dem Start berechnet werden
+     * @param batchSize Anzahl der Kunden je Seite
+     */
+    public NormalizedColumnsBackfill(CustomerRepository customerRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${app.customers.normalized-backfill.enabled:true}") boolean enabled,
+                                     @Value("${app.customers.normalized-backfill.batch-size:500}") int batchSize) {
+        this.customerRepository = customerRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Berechnet die fehlenden normalisierten Werte.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+        long afterId = 0;
+        int updated = 0;
+        List<ContactDetails> batch;
+        do {
+            batch = customerRepository.findContactDetailsWithoutNormalized(afterId, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<ContactDetails> current = batch;
+            updated += transactionTemplate.execute(status -> {
+                int count = 0;
+                for (ContactDetails details : current) {
+                    String emailNormalized = uniqueEmailNormalized(details);
+                    boolean complete = emailNormalized != null || details.getEmail() == null;
+                    int rows = customerRepository.updateNormalizedColumns(details.getId(),
+                            PhoneNumberNormalizer.toE164(details.getPhoneNumber()),
+                            PhoneNumberNormalizer.toE164(details.getMobileNumber()),
+                            emailNormalized, complete);
+                    // Dubletten werden bei jedem Start erneut gelesen und nicht als nachgetragen gezählt
+                    count += complete ? rows : 0;
+                }
+                return count;
+            });
+            afterId = batch.getLast().getId();
+        } while (batch.size() == batchSize);
+
+        if (updated > 0) {
+            log.info("Normalisierte Spalten für {} Kunden nachgetragen.", updated);
+        }
+    }
+
+    /**
+     * Liefert die normalisierte E-Mail-Adresse des Kunden oder {@code null}, wenn sie bereits einem anderen
+     * Kunden gehört und der eindeutige Index das Schreiben verhindern würde.
+     */
+    private String uniqueEmailNormalized(ContactDetails details) {
+        String emailNormalized = EmailNormalizer.normalize(details.getEmail());
+        if (emailNormalized != null
+                && customerRepository.countOthersByEmailNormalizedIncludingDeleted(emailNormalized, details.getId()) > 0) {
+            log.warn("Kunde {}: E-Mail-Adresse {} ist in anderer Schreibweise bereits vergeben und wird nicht "
+                    + "normalisiert.", details.getId(), details.getEmail());
+            return null;
+        }
+        return emailNormalized;
+    }
+}
@@ -0,0 +1,90 @@
+package de.spring.tutorial.service;
+
+import de.spring.tutorial.model.Customer;
+import de.spring.tutorial.repository.ReactiveCustomerRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongFunction;
+
+/**
+ * Service für die nicht-blockierenden Lesepfade der {@link Customer}-Entität (Profil {@code reactive}).
+ * Schreibende Operationen laufen weiterhin über den {@link CustomerService}.
+ * <p>
+ * Listen werden als {@link Flux} von Seiten geliefert. Die nächste Seite wird erst gelesen, wenn der Abnehmer
+ * die vorherige verarbeitet hat; pro Antwort liegt daher höchstens eine Seite im Speicher.
+ * <p>
+ * Nur das erste Ergebnis einer Abfrage muss innerhalb von {@code app.r2dbc.max-wait} vorliegen, sonst endet sie
+ * mit einer {@link TimeoutException}. Folgende Seiten einer bereits begonnenen Antwort warten dagegen auf eine freie
+ * Verbindung, damit eine Überlast neue Anfragen abweist, statt begonnene Antworten abzubrechen.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveCustomerService {
+
+    private final ReactiveCustomerRepository reactiveCustomerRepository;
+    private final int pageSize;
+    private final Duration maxWait;
+
+    /**
+     * Konstruktor für den {@link ReactiveCustomerService} mit Dependency Injection.
+     *
+     * @param reactiveCustomerRepository Repository für den nicht-blockierenden Datenbankzugriff
+     * @param pageSize Anzahl der Kunden, die pro Abfrage gelesen werden
+     * @param maxWait maximale Wartezeit auf das erste Ergebnis einer Abfrage
+     */
+    public ReactiveCustomerService(ReactiveCustomerRepository reactiveCustomerRepository,
+                                   @Value("${app.r2dbc.page-size:100}") int pageSize,
+                                   @Value("${app.r2dbc.max-wait:2s}") Duration maxWait) {
+        this.reactiveCustomerRepository = reactiveCustomerRepository;
+        this.pageSize = pageSize;
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * Ruft einen aktiven Kunden anhand seiner ID ab.
+     *
+     * @param id Die ID des Kunden.
+     * @return {@link Mono} mit dem Kunden oder leer, falls nicht vorhanden.
+     */
+    public Mono<Customer> getCustomerById(Long id) {
+        return reactiveCustomerRepository.findById(id).timeout(maxWait);
+    }
+
+    /**
+     * Ruft alle aktiven Kunden seitenweise ab.
+     *
+     * @return {@link Flux} der nicht leeren Seiten, aufsteigend nach ID; leer, wenn es keine aktiven Kunden gibt.
+     */
+    public Flux<List<Customer>> getActiveCustomerPages() {
+        return pages(afterId -> reactiveCustomerRepository.findActivePage(afterId, pageSize));
+    }
+
+    /**
+     * Sucht aktive Kunden anhand eines Namensfragments und liefert sie seitenweise.
+     *
+     * @param searchQuery Der Suchbegriff für den Namen.
+     * @return {@link Flux} der nicht leeren Seiten, aufsteigend nach ID; leer, wenn kein Kunde passt.
+     */
+    public Flux<List<Customer>> searchCustomerPagesByName(String searchQuery) {
+        return pages(afterId -> reactiveCustomerRepository.searchPageByName(searchQuery, afterId, pageSize));
+    }
+
+    /**
+     * Liest Seiten ab der kleinsten ID, bis eine Seite weniger als {@code pageSize} Kunden enthält.
+     */
+    private Flux<List<Customer>> pages(LongFunction<Mono<List<Customer>>> pageAfter) {
+        return pageAfter.apply(0L)
+                .timeout(maxWait)
+                .expand(page -> page.size() < pageSize
+                        ? Mono.empty()
+                        : pageAfter.apply(page.get(page.size() - 1).getId()))
+                .filter(page -> !page.isEmpty());
+    }
+}
@@ -0,0 +1,139 @@
+package de.spring.tutorial.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Erfasst Latenzen und Statuscodes je Route und gibt sie als Tabelle aus.
+ * <p>
+ * Die Latenz wird ab dem geplanten Startzeitpunkt der Anfrage gemessen, nicht ab dem tatsächlichen. Staut sich der
+ * Lastgenerator oder der Service, fließt die Wartezeit damit in die Perzentile ein (keine Coordinated Omission).
+ * <p>
+ * Startet der Lasttest die Services selbst, wird zusätzlich deren CPU-Zeit während der Messung je Anfrage ausgegeben.
+ */
+public class LatencyReport {
+
+    private static final long MAX_LATENCY_MICROS = Duration.ofMinutes(1).toNanos() / 1000;
+
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, Map<Integer, LongAdder>> statusCounts = new EnumMap<>(Operation.class);
+    private final Map<String, Duration> cpuTimes = new LinkedHashMap<>();
+    private final Map<String, ServiceLauncher.ProcessStatus> peakStatus = new ConcurrentHashMap<>();
+    private long slowStreams;
+    private long slowStreamFailures;
+
+    /**
+     * Konstruktor für den {@link LatencyReport}.
+     */
+    public LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(MAX_LATENCY_MICROS, 3));
+            statusCounts.put(operation, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Erfasst eine abgeschlossene Anfrage.
+     *
+     * @param operation die Operation
+     * @param status der HTTP-Status oder 0 ohne Antwort
+     * @param latencyNanos die Latenz ab dem geplanten Start in Nanosekunden
+     */
+    public void record(Operation operation, int status, long latencyNanos) {
+        histograms.get(operation).recordValue(Math.min(latencyNanos / 1000, MAX_LATENCY_MICROS));
+        statusCounts.get(operation).computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Erfasst die CPU-Zeit der Services während der Messung.
+     *
+     * @param before CPU-Zeit je Service zu Beginn der Messung
+     * @param after CPU-Zeit je Service am Ende der Messung
+     */
+    public void recordCpuTimes(Map<String, Duration> before, Map<String, Duration> after) {
+        after.forEach((service, cpu) -> cpuTimes.put(service, cpu.minus(before.getOrDefault(service, Duration.ZERO))));
+    }
+
+    /**
+     * Erfasst Speicher und Threads der Services; ausgegeben wird jeweils der Höchstwert.
+     *
+     * @param status aktueller Zustand je Service
+     */
+    public void recordProcessStatus(Map<String, ServiceLauncher.ProcessStatus> status) {
+        status.forEach((service, current) -> peakStatus.merge(service, current, (peak, value) ->
+                new ServiceLauncher.ProcessStatus(Math.max(peak.rssKib(), value.rssKib()),
+                        Math.max(peak.threads(), value.threads()))));
+    }
+
+    /**
+     * Erfasst die Abrufe der langsamen Clients.
+     *
+     * @param completed Abrufe mit Status 200
+     * @param failed Abrufe mit Fehler oder anderem Status
+     */
+    public void recordSlowStreams(long completed, long failed) {
+        this.slowStreams = completed;
+        this.slowStreamFailures = failed;
+    }
+
+    /**
+     * Gibt den Bericht aus.
+     *
+     * @param measured die Dauer der Messung, auf die sich der Durchsatz bezieht
+     */
+    public void print(Duration measured) {
+        double seconds = measured.toNanos() / 1e9;
+        System.out.printf("%n%-40s %8s %8s %8s %8s %8s %8s %8s  %s%n",
+                "Route", "Anfragen", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "Statuscodes");
+        long total = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            long count = histogram.getTotalCount();
+            if (count == 0) {
+                continue;
+            }
+            total += count;
+            System.out.printf("%-40s %8d %8.1f %8.1f %8.1f %8.1f %8.1f %8.1f  %s%n",
+                    operation.getRoute(), count, count / seconds,
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()), statusCodes(operation));
+        }
+        System.out.printf("%-40s %8d %8.1f%n", "Gesamt", total, total / seconds);
+        if (slowStreams + slowStreamFailures > 0) {
+            System.out.printf("Langsame Clients: %d Abrufe vollständig, %d fehlgeschlagen%n", slowStreams, slowStreamFailures);
+        }
+        if (total > 0 && !cpuTimes.isEmpty()) {
+            System.out.printf("%n%-40s %12s %14s %12s %12s%n", "Service", "CPU s", "CPU µs/Anfrage", "max RSS MiB", "max Threads");
+            for (Map.Entry<String, Duration> entry : cpuTimes.entrySet()) {
+                long cpuMicros = entry.getValue().toNanos() / 1000;
+                ServiceLauncher.ProcessStatus peak = peakStatus.get(entry.getKey());
+                System.out.printf("%-40s %12.1f %14.0f %12s %12s%n", entry.getKey(), cpuMicros / 1e6,
+                        (double) cpuMicros / total, peak != null ? Long.toString(peak.rssKib() / 1024) : "-",
+                        peak != null ? Integer.toString(peak.threads()) : "-");
+            }
+        }
+    }
+
+    private String statusCodes(Operation operation) {
+        StringBuilder result = new StringBuilder();
+        new TreeMap<>(statusCounts.get(operation)).forEach((status, count) -> result
+                .append(result.isEmpty() ? "" : ", ")
+                .append(status == 0 ? "ohne Antwort" : status)
+                .append('=')
+                .append(count.sum()));
+        return result.toString();
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
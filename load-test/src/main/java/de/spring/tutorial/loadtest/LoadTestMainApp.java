@@ -0,0 +1,119 @@
+package de.spring.tutorial.loadtest;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hauptklasse des Lasttests.
+ * <p>
+ * Startet Auth-Service, Customer-Service und Gateway gegen H2 (oder verwendet mit {@code --external} bereits
+ * laufende Services), legt Benutzer und Kunden an und erzeugt anschließend über das Gateway eine gemischte Last
+ * mit fester Zielrate. Jede Anfrage läuft in einem eigenen virtuellen Thread, sodass langsame Antworten die Rate
+ * nicht drosseln (offenes Lastmodell). Nach der Aufwärmphase werden Durchsatz und Latenz-Perzentile je Route erfasst.
+ * <p>
+ * Vorbereitung: {@code mvn -Ploadtest package -DskipTests}, danach z.B.
+ * {@code mvn -pl load-test exec:java -Dexec.args="--customers=5000 --rate=300 --duration=2m"}.
+ * <p>
+ * Optionen (alle optional): {@code --customers}, {@code --users}, {@code --rate}, {@code --warmup},
+ * {@code --duration}, {@code --timeout}, {@code --mix} (z.B. {@code lookup:60,search:20,list:5,update:15}),
+ * {@code --miss-rate} (Anteil der Abrufe nach nicht vorhandenen Kunden, z.B. {@code 0.6}), {@code --gateway},
+ * {@code --external}, {@code --project-dir}.
+ * <p>
+ * Abrufe mit vielen Fehltreffern (404), wie sie bei der Suche nach Telefonnummern auftreten, misst z.B.
+ * {@code --mix=phone:100 --miss-rate=0.6}; der Vergleich mit {@code --miss-rate=0} zeigt in der CPU-Zeit je
+ * Anfrage, was ein Fehltreffer gegenüber einem Treffer kostet.
+ * <p>
+ * Für den Vergleich der Betriebsarten des Customer-Service (JPA, JPA mit virtuellen Threads, R2DBC) startet
+ * {@code --customer-profiles} ihn zusätzlich in den angegebenen Profilen; im Profil {@code reactive} beantwortet er
+ * dieselben Lesepfade über WebFlux und R2DBC. {@code --slow-clients=N} hält währenddessen N langsam lesende Abrufe
+ * von {@code --slow-path} offen, mit {@code --slow-url} auch direkt am Service statt über das Gateway; der Bericht
+ * zeigt dann auch Speicher und Threads der Services ({@code scripts/reactive-benchmark.sh} vergleicht alle
+ * Betriebsarten).
+ */
+public class LoadTestMainApp {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        try (ServiceLauncher launcher = options.external() ? null
+                : ServiceLauncher.start(options.projectDir(), options.customerProfiles())) {
+            Workload workload = new Workload(options.gatewayUrl(), options.timeout(), options.missRate());
+            workload.seed(options.users(), options.customers());
+
+            System.out.printf("Last: %d Anfragen/s, Aufwärmen %s, Messung %s, Mix %s, Fehltreffer %.0f %%%n",
+                    options.rate(), options.warmup(), options.duration(), options.mix(), options.missRate() * 100);
+            LatencyReport report = run(options, workload, launcher);
+            report.print(options.duration());
+        }
+    }
+
+    /**
+     * Erzeugt die Last mit fester Rate und erfasst alle Anfragen, die nach der Aufwärmphase geplant sind,
+     * sowie die CPU-Zeit der gestarteten Services ab dem Ende der Aufwärmphase. Langsame Clients starten
+     * gleichmäßig verteilt über die Aufwärmphase, damit ihre Abrufe während der Messung bereits offen sind, ohne
+     * dass alle gleichzeitig ihren ersten Abruf stellen.
+     */
+    private static LatencyReport run(LoadTestOptions options, Workload workload, ServiceLauncher launcher) {
+        LatencyReport report = new LatencyReport();
+        long intervalNanos = 1_000_000_000L / options.rate();
+        long start = System.nanoTime();
+        long measureStart = start + options.warmup().toNanos();
+        long end = measureStart + options.duration().toNanos();
+        Map<String, Duration> cpuBefore = null;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.slowClients(); i++) {
+                long slowStart = start + options.warmup().toNanos() * i / options.slowClients();
+                executor.execute(() -> {
+                    LockSupport.parkNanos(slowStart - System.nanoTime());
+                    workload.slowClient(options.slowUrl() + options.slowPath(), end);
+                });
+            }
+            if (launcher != null) {
+                executor.execute(() -> sampleProcessStatus(launcher, report, measureStart, end));
+            }
+            for (long intended = start; intended < end; intended += intervalNanos) {
+                long delay = intended - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                long scheduled = intended;
+                boolean measured = intended >= measureStart;
+                if (measured && cpuBefore == null && launcher != null) {
+                    cpuBefore = launcher.cpuTimes();
+                }
+                Operation operation = options.nextOperation();
+                executor.execute(() -> {
+                    int status = workload.execute(operation);
+                    if (measured) {
+                        report.record(operation, status, System.nanoTime() - scheduled);
+                    }
+                });
+            }
+            System.out.println("Last beendet, warte auf offene Anfragen (" + Duration.ofNanos(System.nanoTime() - start) + ")");
+        }
+        if (cpuBefore != null) {
+            report.recordCpuTimes(cpuBefore, launcher.cpuTimes());
+        }
+        report.recordSlowStreams(workload.getSlowStreams(), workload.getSlowStreamFailures());
+        return report;
+    }
+
+    /**
+     * Erfasst während der Messung jede Sekunde Speicher und Threads der Services.
+     */
+    private static void sampleProcessStatus(ServiceLauncher launcher, LatencyReport report, long measureStart, long end) {
+        try {
+            Thread.sleep(Duration.ofNanos(Math.max(0, measureStart - System.nanoTime())));
+            while (System.nanoTime() < end) {
+                report.recordProcessStatus(launcher.processStatus());
+                Thread.sleep(1000);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
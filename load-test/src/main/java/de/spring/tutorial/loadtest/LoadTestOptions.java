@@ -0,0 +1,123 @@
+package de.spring.tutorial.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Optionen des Lasttests, übergeben als {@code --name=wert}.
+ *
+ * @param projectDir Wurzelverzeichnis des Projekts mit den Modulen
+ * @param gatewayUrl Basis-URL des Gateways, über das alle Anfragen laufen
+ * @param external ob bereits laufende Services verwendet werden, statt sie zu starten
+ * @param customers Anzahl der vorab angelegten Kunden
+ * @param users Anzahl der vorab registrierten Benutzer
+ * @param rate Zielrate in Anfragen pro Sekunde über alle Operationen
+ * @param warmup Dauer der Aufwärmphase, die nicht ausgewertet wird
+ * @param duration Dauer der Messung
+ * @param timeout Timeout einer einzelnen Anfrage
+ * @param mix Gewichtung der Operationen
+ * @param missRate Anteil der Abrufe (ID, E-Mail, Telefonnummer), die nach einem nicht vorhandenen Kunden fragen
+ * @param customerProfiles zusätzliche Spring-Profile des Customer-Service, z.B. {@code reactive} oder {@code virtual}
+ * @param slowClients Anzahl der langsamen Clients, die während des Tests eine Liste abrufen
+ * @param slowPath Pfad, den die langsamen Clients abrufen
+ * @param slowUrl Basis-URL der langsamen Clients; ohne Angabe laufen auch sie über das Gateway
+ */
+public record LoadTestOptions(Path projectDir, String gatewayUrl, boolean external, int customers, int users,
+                              int rate, Duration warmup, Duration duration, Duration timeout,
+                              Map<Operation, Integer> mix, double missRate, String customerProfiles,
+                              int slowClients, String slowPath, String slowUrl) {
+
+    private static final String DEFAULT_MIX = "login:5,register:1,lookup:40,email:15,search:15,list:4,update:20";
+
+    /**
+     * Liest die Optionen aus den Programmargumenten; nicht angegebene Optionen erhalten Standardwerte.
+     *
+     * @param args die Programmargumente
+     * @return die Optionen
+     * @throws IllegalArgumentException bei unbekannten oder ungültigen Optionen
+     */
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Ungültiges Argument: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(separator < 0 ? arg.substring(2) : arg.substring(2, separator),
+                    separator < 0 ? "true" : arg.substring(separator + 1));
+        }
+
+        LoadTestOptions options = new LoadTestOptions(
+                Path.of(values.getOrDefault("project-dir", System.getProperty("loadtest.project-dir", "."))).normalize(),
+                values.getOrDefault("gateway", "http://localhost:8080"),
+                Boolean.parseBoolean(values.getOrDefault("external", "false")),
+                Integer.parseInt(values.getOrDefault("customers", "1000")),
+                Integer.parseInt(values.getOrDefault("users", "20")),
+                Integer.parseInt(values.getOrDefault("rate", "100")),
+                parseDuration(values.getOrDefault("warmup", "10s")),
+                parseDuration(values.getOrDefault("duration", "60s")),
+                parseDuration(values.getOrDefault("timeout", "10s")),
+                parseMix(values.getOrDefault("mix", DEFAULT_MIX)),
+                Double.parseDouble(values.getOrDefault("miss-rate", "0")),
+                values.getOrDefault("customer-profiles", ""),
+                Integer.parseInt(values.getOrDefault("slow-clients", "0")),
+                values.getOrDefault("slow-path", "/customers/active"),
+                values.getOrDefault("slow-url", values.getOrDefault("gateway", "http://localhost:8080")));
+        values.keySet().removeAll(Set.of("project-dir", "gateway", "external", "customers", "users",
+                "rate", "warmup", "duration", "timeout", "mix", "miss-rate", "customer-profiles",
+                "slow-clients", "slow-path", "slow-url"));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unbekannte Optionen: " + values.keySet());
+        }
+        return options;
+    }
+
+    /**
+     * Wählt zufällig eine Operation entsprechend der Gewichtung.
+     *
+     * @return die nächste Operation
+     */
+    public Operation nextOperation() {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int value = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            value -= entry.getValue();
+            if (value < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Leerer Mix");
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] entry = part.split(":");
+            int weight = Integer.parseInt(entry[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.fromKey(entry[0].trim()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Der Mix enthält keine Operation: " + value);
+        }
+        return mix;
+    }
+
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Ungültige Dauer: " + value);
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package de.spring.tutorial.loadtest;
+
+/**
+ * Operationen des Lasttests mit ihrem Schlüssel für {@code --mix} und der Route, unter der sie ausgewertet werden.
+ */
+public enum Operation {
+
+    REGISTER("register", "POST /auth/register"),
+    LOGIN("login", "POST /auth/login"),
+    LOOKUP("lookup", "GET /customers/{id}"),
+    LOOKUP_EMAIL("email", "GET /customers/email/{email}"),
+    LOOKUP_PHONE("phone", "GET /customers/phone/{phone}"),
+    SEARCH("search", "GET /customers/search/{query}"),
+    LIST("list", "GET /customers"),
+    ACTIVE("active", "GET /customers/active"),
+    UPDATE("update", "PATCH /customers/{id}");
+
+    private final String key;
+    private final String route;
+
+    Operation(String key, String route) {
+        this.key = key;
+        this.route = route;
+    }
+
+    /**
+     * @return der Schlüssel der Operation in {@code --mix}
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return die Route, unter der die Operation im Bericht erscheint
+     */
+    public String getRoute() {
+        return route;
+    }
+
+    /**
+     * Liefert die Operation zum angegebenen Schlüssel.
+     *
+     * @param key der Schlüssel aus {@code --mix}
+     * @return die Operation
+     * @throws IllegalArgumentException wenn der Schlüssel unbekannt ist
+     */
+    public static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unbekannte Operation: " + key);
+    }
+}
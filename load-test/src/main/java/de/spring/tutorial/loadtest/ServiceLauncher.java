@@ -0,0 +1,180 @@
+package de.spring.tutorial.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Startet Auth-Service, Customer-Service und Gateway als eigene Prozesse und beendet sie wieder.
+ * <p>
+ * Die Services laufen aus ihren gebauten Jars, die beiden Datenbank-Services im Profil {@code loadtest} mit H2
+ * im MySQL-Modus. Die Ausgaben werden nach {@code load-test/target/logs} geschrieben. Das Debug-Logging des
+ * Gateways wird abgeschaltet, da es die Messung sonst dominiert.
+ */
+public class ServiceLauncher implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final List<Process> processes = new ArrayList<>();
+    private final List<Service> services;
+
+    /**
+     * Speicher und Threads eines Service-Prozesses.
+     *
+     * @param rssKib belegter physischer Speicher in KiB
+     * @param threads Anzahl der Threads
+     */
+    public record ProcessStatus(long rssKib, int threads) {
+    }
+
+    /**
+     * Ein zu startender Service.
+     *
+     * @param module Name des Moduls
+     * @param readinessUrl URL, die antwortet, sobald der Service Anfragen annimmt
+     * @param args Argumente für die Anwendung
+     */
+    private record Service(String module, String readinessUrl, List<String> args) {
+    }
+
+    private ServiceLauncher(List<Service> services) {
+        this.services = services;
+    }
+
+    /**
+     * Startet alle Services und wartet, bis sie Anfragen annehmen.
+     *
+     * @param projectDir Wurzelverzeichnis des Projekts
+     * @param customerProfiles zusätzliche Spring-Profile des Customer-Service (kommagetrennt, darf leer sein)
+     * @return der Launcher, über den die Services wieder beendet werden
+     * @throws IOException wenn ein Service nicht gestartet werden kann
+     * @throws InterruptedException wenn das Warten unterbrochen wird
+     */
+    public static ServiceLauncher start(Path projectDir, String customerProfiles) throws IOException, InterruptedException {
+        // "loadtest" zuletzt, damit dessen Einstellungen (H2) die der übrigen Profile überschreiben
+        String customerProfile = customerProfiles.isBlank() ? "loadtest" : customerProfiles + ",loadtest";
+        ServiceLauncher launcher = new ServiceLauncher(List.of(
+                new Service("auth-service", "http://localhost:4040/auth/.well-known/jwks.json",
+                        List.of("--spring.profiles.active=loadtest")),
+                new Service("customer-service", "http://localhost:4041/actuator/health",
+                        List.of("--spring.profiles.active=" + customerProfile)),
+                new Service("api-gateway", "http://localhost:8081/actuator/health",
+                        List.of("--logging.level.org.springframework.cloud.gateway=INFO",
+                                "--logging.level.reactor.netty.http.client=INFO"))));
+        try {
+            Path logDir = Files.createDirectories(projectDir.resolve("load-test/target/logs"));
+            String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+            for (Service service : launcher.services) {
+                Path jar = projectDir.resolve(service.module() + "/target/" + service.module() + "-0.0.1-SNAPSHOT.jar");
+                if (!Files.isRegularFile(jar)) {
+                    throw new IllegalStateException(jar + " fehlt, zuerst 'mvn -Ploadtest package -DskipTests' ausführen");
+                }
+                List<String> command = new ArrayList<>(List.of(java, "-jar", jar.toString()));
+                command.addAll(service.args());
+                launcher.processes.add(new ProcessBuilder(command)
+                        .redirectErrorStream(true)
+                        .redirectOutput(logDir.resolve(service.module() + ".log").toFile())
+                        .start());
+                System.out.println(service.module() + " gestartet, Log: " + logDir.resolve(service.module() + ".log"));
+            }
+            launcher.awaitReadiness();
+            return launcher;
+        } catch (IOException | InterruptedException | RuntimeException ex) {
+            launcher.close();
+            throw ex;
+        }
+    }
+
+    private void awaitReadiness() throws InterruptedException {
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        for (int i = 0; i < services.size(); i++) {
+            Service service = services.get(i);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(service.readinessUrl()))
+                    .timeout(Duration.ofSeconds(1))
+                    .build();
+            while (true) {
+                if (!processes.get(i).isAlive()) {
+                    throw new IllegalStateException(service.module() + " wurde beendet, siehe Log");
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException(service.module() + " antwortet nach " + STARTUP_TIMEOUT + " nicht");
+                }
+                try {
+                    httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    break;
+                } catch (IOException ex) {
+                    Thread.sleep(200);
+                }
+            }
+        }
+        System.out.println("Alle Services sind bereit");
+    }
+
+    /**
+     * Liefert die bisher verbrauchte CPU-Zeit (User und System) je Service.
+     *
+     * @return CPU-Zeit je Modul, in der Reihenfolge des Starts
+     */
+    public Map<String, Duration> cpuTimes() {
+        Map<String, Duration> cpuTimes = new LinkedHashMap<>();
+        for (int i = 0; i < processes.size(); i++) {
+            String module = services.get(i).module();
+            processes.get(i).info().totalCpuDuration().ifPresent(cpu -> cpuTimes.put(module, cpu));
+        }
+        return cpuTimes;
+    }
+
+    /**
+     * Liest Speicher und Threads je Service aus {@code /proc} (nur unter Linux, sonst leer).
+     *
+     * @return Zustand je Modul, in der Reihenfolge des Starts
+     */
+    public Map<String, ProcessStatus> processStatus() {
+        Map<String, ProcessStatus> status = new LinkedHashMap<>();
+        for (int i = 0; i < processes.size(); i++) {
+            long rssKib = 0;
+            int threads = 0;
+            try {
+                for (String line : Files.readAllLines(Path.of("/proc", Long.toString(processes.get(i).pid()), "status"))) {
+                    if (line.startsWith("VmRSS:")) {
+                        rssKib = Long.parseLong(line.replaceAll("\\D", ""));
+                    } else if (line.startsWith("Threads:")) {
+                        threads = Integer.parseInt(line.replaceAll("\\D", ""));
+                    }
+                }
+            } catch (IOException ex) {
+                continue;
+            }
+            status.put(services.get(i).module(), new ProcessStatus(rssKib, threads));
+        }
+        return status;
+    }
+
+    /**
+     * Beendet alle gestarteten Services.
+     */
+    @Override
+    public void close() {
+        for (Process process : processes) {
+            process.destroy();
+        }
+        for (Process process : processes) {
+            try {
+                process.waitFor();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package de.spring.tutorial.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Testdaten und Ausführung der Operationen über das Gateway.
+ * <p>
+ * Beim Anlegen der Testdaten werden Benutzer registriert und angemeldet sowie Kunden angelegt. Alle Namen
+ * enthalten eine Kennung des Laufs, sodass der Test auch wiederholt gegen dieselben Services laufen kann.
+ * Die Operationen wählen ihre Benutzer und Kunden zufällig aus den Testdaten.
+ */
+public class Workload {
+
+    private static final String PASSWORD = "Passw0rd!";
+    private static final int SEED_CONCURRENCY = 8;
+    private static final int SEED_ATTEMPTS = 10;
+    private static final Pattern ID_PATTERN = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final int SLOW_CLIENT_CHUNK = 1024;
+    private static final long SLOW_CLIENT_PAUSE_MILLIS = 1000;
+    private static final long SLOW_CLIENT_MAX_BACKOFF_MILLIS = 30_000;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    private final String gatewayUrl;
+    private final Duration timeout;
+    private final double missRate;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong registrations = new AtomicLong();
+    private final AtomicLong slowStreams = new AtomicLong();
+    private final AtomicLong slowStreamFailures = new AtomicLong();
+    private final List<String> userEmails = new ArrayList<>();
+    private final List<String> tokens = new ArrayList<>();
+    private final List<SeededCustomer> customers = new ArrayList<>();
+
+    /**
+     * Ein angelegter Kunde.
+     */
+    private record SeededCustomer(long id, String email, String lastName, String phoneNumber) {
+    }
+
+    /**
+     * Konstruktor für den {@link Workload}.
+     *
+     * @param gatewayUrl Basis-URL des Gateways
+     * @param timeout Timeout einer einzelnen Anfrage
+     * @param missRate Anteil der Abrufe, die nach einem nicht vorhandenen Kunden fragen (404)
+     */
+    public Workload(String gatewayUrl, Duration timeout, double missRate) {
+        this.gatewayUrl = gatewayUrl;
+        this.timeout = timeout;
+        this.missRate = missRate;
+    }
+
+    /**
+     * Registriert die Benutzer, meldet sie an und legt die Kunden an.
+     *
+     * @param userCount Anzahl der Benutzer
+     * @param customerCount Anzahl der Kunden
+     * @throws Exception wenn die Testdaten nicht angelegt werden können
+     */
+    public void seed(int userCount, int customerCount) throws Exception {
+        for (int i = 0; i < userCount; i++) {
+            String email = "loadtest-" + runId + "-" + i + "@example.com";
+            seedRequest("POST", "/auth/register", null, credentials(email));
+            tokens.add(seedRequest("POST", "/auth/login", null, credentials(email)).trim());
+            userEmails.add(email);
+        }
+
+        Semaphore permits = new Semaphore(SEED_CONCURRENCY);
+        List<Future<SeededCustomer>> created = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < customerCount; i++) {
+                int number = i;
+                created.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return createCustomer(number);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+        for (Future<SeededCustomer> customer : created) {
+            customers.add(customer.get());
+        }
+        System.out.println(userCount + " Benutzer und " + customerCount + " Kunden angelegt");
+    }
+
+    /**
+     * Führt die Operation einmal aus.
+     *
+     * @param operation die Operation
+     * @return der HTTP-Status der Antwort oder 0, wenn keine Antwort eingegangen ist
+     */
+    public int execute(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String token = tokens.get(random.nextInt(tokens.size()));
+        SeededCustomer customer = random.nextDouble() < missRate
+                ? missingCustomer(random) : customers.get(random.nextInt(customers.size()));
+        try {
+            HttpResponse<String> response = switch (operation) {
+                case REGISTER -> send("POST", "/auth/register", null,
+                        credentials("loadtest-" + runId + "-new-" + registrations.incrementAndGet() + "@example.com"));
+                case LOGIN -> send("POST", "/auth/login", null,
+                        credentials(userEmails.get(random.nextInt(userEmails.size()))));
+                case LOOKUP -> send("GET", "/customers/" + customer.id(), token, null);
+                case LOOKUP_EMAIL -> send("GET", "/customers/email/" + customer.email(), token, null);
+                case LOOKUP_PHONE -> send("GET", "/customers/phone/" + customer.phoneNumber(), token, null);
+                case SEARCH -> send("GET", "/customers/search/" + customer.lastName(), token, null);
+                case LIST -> send("GET", "/customers", token, null);
+                case ACTIVE -> send("GET", "/customers/active", token, null);
+                case UPDATE -> send("PATCH", "/customers/" + customer.id(), token,
+                        "{\"firstName\":\"Vorname-" + random.nextInt(1000) + "\"}");
+            };
+            return response.statusCode();
+        } catch (IOException ex) {
+            return 0;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    /**
+     * Ruft die URL bis zum angegebenen Zeitpunkt immer wieder ab und liest die Antwort dabei langsam
+     * ({@value #SLOW_CLIENT_CHUNK} Byte alle {@value #SLOW_CLIENT_PAUSE_MILLIS} ms), wie ein Client mit schlechter
+     * Verbindung. Der Service muss die Antwort so lange offen halten. Nach einem fehlgeschlagenen Abruf wartet der
+     * Client vor dem nächsten Versuch, beginnend mit {@value #SLOW_CLIENT_PAUSE_MILLIS} ms und nach jedem weiteren
+     * Fehlschlag doppelt so lange (höchstens {@value #SLOW_CLIENT_MAX_BACKOFF_MILLIS} ms), damit abgewiesene
+     * Clients den Service nicht mit Wiederholungen überlasten.
+     *
+     * @param url die abgerufene URL, z.B. {@code http://localhost:8080/customers/active}
+     * @param deadlineNanos Zeitpunkt ({@link System#nanoTime()}), zu dem der Client aufhört
+     */
+    public void slowClient(String url, long deadlineNanos) {
+        String token = tokens.get(ThreadLocalRandom.current().nextInt(tokens.size()));
+        byte[] chunk = new byte[SLOW_CLIENT_CHUNK];
+        long backoffMillis = SLOW_CLIENT_PAUSE_MILLIS;
+        while (System.nanoTime() < deadlineNanos) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .header("Authorization", "Bearer " + token)
+                    .build();
+            try {
+                HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                try (InputStream body = response.body()) {
+                    while (System.nanoTime() < deadlineNanos && body.readNBytes(chunk, 0, chunk.length) > 0) {
+                        Thread.sleep(SLOW_CLIENT_PAUSE_MILLIS);
+                    }
+                }
+                if (response.statusCode() == 200) {
+                    slowStreams.incrementAndGet();
+                    backoffMillis = SLOW_CLIENT_PAUSE_MILLIS;
+                    continue;
+                }
+            } catch (IOException ex) {
+                // wie ein abgewiesener Abruf: zählen und nach einer Pause erneut versuchen
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            slowStreamFailures.incrementAndGet();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+            backoffMillis = Math.min(backoffMillis * 2, SLOW_CLIENT_MAX_BACKOFF_MILLIS);
+        }
+    }
+
+    /**
+     * @return Anzahl der Abrufe langsamer Clients mit Status 200
+     */
+    public long getSlowStreams() {
+        return slowStreams.get();
+    }
+
+    /**
+     * @return Anzahl der Abrufe langsamer Clients, die mit einem Fehler oder anderem Status endeten
+     */
+    public long getSlowStreamFailures() {
+        return slowStreamFailures.get();
+    }
+
+    /**
+     * Liefert einen Kunden, den es nicht gibt; Abrufe mit ihm enden mit 404. Die Telefonnummer liegt außerhalb
+     * der angelegten Nummern, lässt sich aber normalisieren, sodass der Service wirklich danach sucht.
+     */
+    private SeededCustomer missingCustomer(ThreadLocalRandom random) {
+        String suffix = runId + "-fehlt-" + random.nextInt(1_000_000);
+        return new SeededCustomer(Long.MAX_VALUE - random.nextInt(1_000_000), "kunde-" + suffix + "@example.com",
+                "Nachname" + suffix, "0399" + random.nextInt(1_000_000, 10_000_000));
+    }
+
+    private SeededCustomer createCustomer(int number) throws Exception {
+        String suffix = runId + "-" + number;
+        String email = "kunde-" + suffix + "@example.com";
+        String lastName = "Nachname" + suffix;
+        String body = "{\"nickName\":\"nick-" + suffix + "\",\"firstName\":\"Vorname\",\"lastName\":\"" + lastName
+                + "\",\"email\":\"" + email + "\",\"phoneNumber\":\"030" + number
+                + "\",\"mobileNumber\":\"0170" + String.format("%03d%06d", Math.floorMod(runId.hashCode(), 1000), number) + "\"}";
+        String token = tokens.get(number % tokens.size());
+        Matcher matcher = ID_PATTERN.matcher(seedRequest("POST", "/customers", token, body));
+        if (!matcher.find()) {
+            throw new IllegalStateException("Antwort ohne ID beim Anlegen von Kunde " + number);
+        }
+        return new SeededCustomer(Long.parseLong(matcher.group(1)), email, lastName, "030" + number);
+    }
+
+    /**
+     * Sendet eine Anfrage beim Anlegen der Testdaten; bei Überlast (503) wird sie mit wachsendem Abstand wiederholt.
+     */
+    private String seedRequest(String method, String path, String token, String body) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            HttpResponse<String> response = send(method, path, token, body);
+            if (response.statusCode() / 100 == 2) {
+                return response.body();
+            }
+            if (response.statusCode() != 503 || attempt == SEED_ATTEMPTS) {
+                throw new IllegalStateException(method + " " + path + " fehlgeschlagen: " + response.statusCode()
+                        + " " + response.body());
+            }
+            Thread.sleep(100L * attempt);
+        }
+    }
+
+    private HttpResponse<String> send(String method, String path, String token, String body)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(gatewayUrl + path))
+                .timeout(timeout)
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if (body != null) {
+            request.header("Content-Type", "application/json");
+        }
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String credentials(String email) {
+        return "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}";
+    }
+}
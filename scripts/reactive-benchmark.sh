@@ -0,0 +1,49 @@
+#!/usr/bin/env bash
+#
+# Vergleicht die Betriebsarten des Customer-Service unter derselben Last: JPA auf Plattform-Threads, JPA auf
+# virtuellen Threads (Profil "virtual") und dieselben Lesepfade über WebFlux und R2DBC (Profil "reactive").
+# Alle Betriebsarten erhalten denselben Mix aus Einzelabrufen, Suche und Liste über das Gateway. Zusätzlich halten
+# langsam lesende Clients Abrufe von /customers/active offen; sie gehen direkt an den Customer-Service, da das
+# Gateway die Verbindungen je Service auf einen festen Pool begrenzt. Der Lasttest gibt je Betriebsart
+# Latenz-Perzentile, CPU-Zeit sowie den höchsten Speicherverbrauch (RSS) und die höchste Threadzahl der Services aus.
+#
+# Voraussetzung: "mvn -Ploadtest package -DskipTests" (Jars aller Services mit H2 und r2dbc-h2).
+#
+# Aufruf:   scripts/reactive-benchmark.sh [jpa] [virtual] [reactive]
+# Umgebung: RATE          Zielrate in Anfragen/s (Default 20)
+#           WARMUP        Aufwärmphase, über die die langsamen Clients verteilt starten (Default 3m)
+#           DURATION      Dauer der Messung (Default 1m)
+#           CUSTOMERS     Anzahl der angelegten Kunden (Default 5000)
+#           SLOW_CLIENTS  Anzahl der langsam lesenden Clients (Default 2000)
+#           SLOW_URL      Ziel der langsamen Clients (Default http://localhost:4041, der Customer-Service)
+
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+RATE="${RATE:-20}"
+WARMUP="${WARMUP:-3m}"
+DURATION="${DURATION:-1m}"
+CUSTOMERS="${CUSTOMERS:-5000}"
+SLOW_CLIENTS="${SLOW_CLIENTS:-2000}"
+SLOW_URL="${SLOW_URL:-http://localhost:4041}"
+MIX=lookup:60,search:30,active:10
+MODES=("$@")
+[[ ${#MODES[@]} -eq 0 ]] && MODES=(jpa virtual reactive)
+
+# Betriebsart -> Profile des Customer-Service
+declare -A PROFILES=(
+    [jpa]=""
+    [virtual]=virtual
+    [reactive]=reactive
+)
+
+for mode in "${MODES[@]}"; do
+    if [[ -z "${PROFILES[$mode]+x}" ]]; then
+        echo "Unbekannte Betriebsart: $mode (jpa, virtual, reactive)" >&2
+        exit 1
+    fi
+    printf '\n=== %s ===\n' "$mode"
+    (cd "$ROOT" && mvn -B -q -pl load-test exec:java -Dexec.args="--customers=$CUSTOMERS --rate=$RATE \
+--warmup=$WARMUP --duration=$DURATION --mix=$MIX --customer-profiles=${PROFILES[$mode]} \
+--slow-clients=$SLOW_CLIENTS --slow-path=/customers/active --slow-url=$SLOW_URL")
+done
@@ -0,0 +1,94 @@
+#!/usr/bin/env bash
+#
+# Misst je Modul und Startvariante die Zeit vom Start der JVM bis zur ersten beantworteten Anfrage
+# (Time-to-First-Request). Gezählt wird jede HTTP-Antwort, unabhängig vom Statuscode.
+#
+# Voraussetzung: "mvn -Pstartup package" in den zu messenden Modulen (entpacktes Jar, AOT-Klassen und
+# AppCDS-Archiv unter target/cds). Alle Varianten starten das entpackte Jar, sodass sich die Messungen nur
+# in den genannten JVM-Optionen unterscheiden. auth-service und customer-service benötigen ihre Datenbank
+# wie im Normalbetrieb, auth-service zusätzlich JWT_KEY_ENCRYPTION_KEY (oder APP_ARGS=--spring.profiles.active=dev).
+#
+# Aufruf:   scripts/startup-benchmark.sh [auth-service] [customer-service] [api-gateway]
+# Umgebung: RUNS             Anzahl der Starts je Variante (Default 5)
+#           VARIANTS         zu messende Varianten (Default "default lazy aot cds aot+cds aot+cds+lazy")
+#           APP_ARGS         zusätzliche Argumente für die Anwendung (z.B. --spring.datasource.url=...)
+#           EXTRA_CLASSPATH  zusätzliche Jars (z.B. ein anderer JDBC-Treiber)
+#           JAVA             Java-Executable (Default $JAVA_HOME/bin/java bzw. java)
+
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+RUNS="${RUNS:-5}"
+VARIANTS="${VARIANTS:-default lazy aot cds aot+cds aot+cds+lazy}"
+JAVA="${JAVA:-${JAVA_HOME:+$JAVA_HOME/bin/}java}"
+TIMEOUT_SECONDS=120
+
+# Modul -> Hauptklasse und URL der ersten Anfrage
+declare -A MAIN_CLASS=(
+    [auth-service]=de.spring.tutorial.AuthServiceMainApp
+    [customer-service]=de.spring.tutorial.CustomerServiceMainApp
+    [api-gateway]=de.spring.tutorial.ApiGatewayMainApp
+)
+declare -A FIRST_REQUEST=(
+    [auth-service]=http://localhost:4040/auth/.well-known/jwks.json
+    [customer-service]=http://localhost:4041/actuator/health
+    [api-gateway]=http://localhost:8081/actuator/health
+)
+
+jvm_options() {
+    local module_dir="$1" variant="$2" options=""
+    [[ "+$variant+" == *+lazy+* ]] && options+=" -Dspring.main.lazy-initialization=true"
+    [[ "+$variant+" == *+aot+* ]] && options+=" -Dspring.aot.enabled=true"
+    [[ "+$variant+" == *+cds+* ]] && options+=" -XX:SharedArchiveFile=$module_dir/target/cds/application.jsa -Xlog:cds=error"
+    echo "$options"
+}
+
+# Startet das Modul einmal und gibt die Zeit bis zur ersten Antwort in Millisekunden aus.
+measure() {
+    local module="$1" variant="$2" module_dir="$ROOT/$1" jar pid start status=000
+    jar="$(ls "$module_dir"/target/cds/*.jar)"
+
+    start=$(date +%s%N)
+    # shellcheck disable=SC2086
+    "$JAVA" $(jvm_options "$module_dir" "$variant") -cp "$jar${EXTRA_CLASSPATH:+:$EXTRA_CLASSPATH}" \
+        "${MAIN_CLASS[$module]}" ${APP_ARGS:-} > "$module_dir/target/startup-benchmark.log" 2>&1 &
+    pid=$!
+
+    while [[ "$status" == 000 ]]; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "$module ($variant) wurde beendet, siehe $module_dir/target/startup-benchmark.log" >&2
+            exit 1
+        fi
+        if (( ($(date +%s%N) - start) / 1000000000 > TIMEOUT_SECONDS )); then
+            kill "$pid"
+            echo "$module ($variant) hat nach ${TIMEOUT_SECONDS}s nicht geantwortet" >&2
+            exit 1
+        fi
+        status=$(curl -s -o /dev/null -w '%{http_code}' --max-time 1 "${FIRST_REQUEST[$module]}" || true)
+        [[ "$status" == 000 ]] && sleep 0.02
+    done
+    echo $(( ($(date +%s%N) - start) / 1000000 ))
+
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+}
+
+modules=("$@")
+(( ${#modules[@]} == 0 )) && modules=(auth-service customer-service api-gateway)
+
+printf '%-18s %-14s %8s %8s %8s\n' Modul Variante Median Min Max
+for module in "${modules[@]}"; do
+    if [[ ! -f "$ROOT/$module/target/cds/application.jsa" ]]; then
+        echo "$module: target/cds fehlt, zuerst 'mvn -Pstartup package' ausführen" >&2
+        exit 1
+    fi
+    for variant in $VARIANTS; do
+        times=()
+        for (( run = 0; run < RUNS; run++ )); do
+            times+=("$(measure "$module" "$variant")")
+        done
+        mapfile -t sorted < <(printf '%s\n' "${times[@]}" | sort -n)
+        printf '%-18s %-14s %6sms %6sms %6sms\n' "$module" "$variant" \
+            "${sorted[$(( RUNS / 2 ))]}" "${sorted[0]}" "${sorted[$(( RUNS - 1 ))]}"
+    done
+done
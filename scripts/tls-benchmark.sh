@@ -0,0 +1,111 @@
+#!/usr/bin/env bash
+#
+# Vergleicht die TLS-Terminierung im Gateway mit OpenSSL (netty-tcnative) und mit der JDK-Implementierung.
+# Je Implementierung wird das Gateway im Profil "tls" gestartet und mit "openssl s_time" belastet: einmal mit
+# vollständigen Handshakes, einmal mit fortgesetzten Sitzungen. Ausgegeben werden Handshakes je Sekunde und
+# die CPU-Zeit des Gateways je Handshake.
+#
+# Voraussetzung: "mvn -Pnative package" im api-gateway (Jar mit netty-tcnative) und ein Zertifikat unter
+# api-gateway/tls (scripts/tls-dev-cert.sh). s_time arbeitet mit einer Verbindung nach der anderen; die
+# Zahlen zeigen daher die Kosten eines Handshakes, nicht den maximalen Durchsatz des Gateways.
+#
+# Aufruf:   scripts/tls-benchmark.sh
+# Umgebung: SECONDS_PER_RUN  Dauer je Messung in Sekunden (Default 10)
+#           PROVIDERS        zu messende Implementierungen (Default "openssl jdk")
+#           PROTOCOLS        zu messende TLS-Versionen (Default "tls1_3 tls1_2")
+#           JAR              Jar des Gateways (Default api-gateway/target/api-gateway-0.0.1-SNAPSHOT.jar)
+#           APP_ARGS         zusätzliche Argumente für das Gateway
+#           JAVA             Java-Executable (Default $JAVA_HOME/bin/java bzw. java)
+
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+SECONDS_PER_RUN="${SECONDS_PER_RUN:-10}"
+PROVIDERS="${PROVIDERS:-openssl jdk}"
+PROTOCOLS="${PROTOCOLS:-tls1_3 tls1_2}"
+JAR="${JAR:-$ROOT/api-gateway/target/api-gateway-0.0.1-SNAPSHOT.jar}"
+JAVA="${JAVA:-${JAVA_HOME:+$JAVA_HOME/bin/}java}"
+ADDRESS=localhost:8443
+TIMEOUT_SECONDS=120
+CLOCK_TICKS=$(getconf CLK_TCK)
+
+# CPU-Zeit (user + system) des Prozesses in Millisekunden
+cpu_millis() {
+    local fields
+    read -ra fields < "/proc/$1/stat"
+    echo $(( (fields[13] + fields[14]) * 1000 / CLOCK_TICKS ))
+}
+
+# Führt s_time aus und gibt die Anzahl der Verbindungen aus. -www liest die Antwort und damit auch die
+# Session-Tickets, die TLS 1.3 erst nach dem Handshake sendet.
+handshakes() {
+    local protocol="$1" mode="$2" seconds="$3"
+    openssl s_time -connect "$ADDRESS" "-$protocol" "-$mode" -time "$seconds" -www / 2> /dev/null \
+        | awk '/connections in .* real seconds/ { print $1; exit }'
+}
+
+start_gateway() {
+    local provider="$1" start pid
+    start=$(date +%s)
+    # Zertifikat und Schlüssel werden relativ zum Modulverzeichnis gelesen
+    # shellcheck disable=SC2086
+    (cd "$ROOT/api-gateway" && exec "$JAVA" -jar "$JAR" --spring.profiles.active=tls \
+        --app.tls.provider="$provider" ${APP_ARGS:-} > "$ROOT/api-gateway/target/tls-benchmark.log" 2>&1) &
+    pid=$!
+    until openssl s_client -connect "$ADDRESS" < /dev/null > /dev/null 2>&1; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "Gateway ($provider) wurde beendet, siehe api-gateway/target/tls-benchmark.log" >&2
+            exit 1
+        fi
+        if (( $(date +%s) - start > TIMEOUT_SECONDS )); then
+            kill "$pid"
+            echo "Gateway ($provider) hat nach ${TIMEOUT_SECONDS}s nicht geantwortet" >&2
+            exit 1
+        fi
+        sleep 0.2
+    done
+    echo "$pid"
+}
+
+if [[ ! -f "$JAR" ]]; then
+    echo "$JAR fehlt, zuerst 'mvn -Pnative package' im api-gateway ausführen" >&2
+    exit 1
+fi
+if [[ ! -f "$ROOT/api-gateway/tls/gateway.crt" ]]; then
+    echo "Zertifikat fehlt, zuerst scripts/tls-dev-cert.sh ausführen" >&2
+    exit 1
+fi
+
+if openssl s_client -connect "$ADDRESS" < /dev/null > /dev/null 2>&1; then
+    echo "$ADDRESS ist bereits belegt, zuerst das laufende Gateway beenden" >&2
+    exit 1
+fi
+
+printf '%-8s %-7s %-11s %14s %14s\n' TLS Impl. Handshake Handshakes/s CPU-ms/Handsh.
+for provider in $PROVIDERS; do
+    pid=$(start_gateway "$provider")
+    # Aufwärmen, damit der JIT-Compiler die Handshake-Pfade übersetzt hat
+    for protocol in $PROTOCOLS; do
+        handshakes "$protocol" new 3 > /dev/null
+    done
+
+    for protocol in $PROTOCOLS; do
+        for mode in new reuse; do
+            cpu_before=$(cpu_millis "$pid")
+            count=$(handshakes "$protocol" "$mode" "$SECONDS_PER_RUN")
+            cpu=$(( $(cpu_millis "$pid") - cpu_before ))
+            label=$([[ "$mode" == new ]] && echo neu || echo fortgesetzt)
+            if [[ -z "$count" || "$count" == 0 ]]; then
+                printf '%-8s %-7s %-11s %14s %14s\n' "$protocol" "$provider" "$label" - -
+                continue
+            fi
+            printf '%-8s %-7s %-11s %14s %14s\n' "$protocol" "$provider" "$label" \
+                "$(( count / SECONDS_PER_RUN ))" "$(awk -v c="$cpu" -v n="$count" 'BEGIN { printf "%.3f", c / n }')"
+        done
+    done
+
+    kill "$pid"
+    while kill -0 "$pid" 2> /dev/null; do
+        sleep 0.1
+    done
+done
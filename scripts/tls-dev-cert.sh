@@ -0,0 +1,21 @@
+#!/usr/bin/env bash
+#
+# Erzeugt ein selbstsigniertes Zertifikat (ECDSA P-256) für localhost, mit dem das Gateway im Profil "tls"
+# gestartet werden kann. Nur für Entwicklung und Benchmarks; im Betrieb kommen Zertifikat und Schlüssel aus
+# der jeweiligen PKI.
+#
+# Aufruf:   scripts/tls-dev-cert.sh [Zielverzeichnis]   (Default api-gateway/tls)
+# Umgebung: DAYS   Gültigkeit in Tagen (Default 365)
+
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+TARGET="${1:-$ROOT/api-gateway/tls}"
+DAYS="${DAYS:-365}"
+
+mkdir -p "$TARGET"
+openssl req -x509 -newkey ec -pkeyopt ec_paramgen_curve:prime256v1 -nodes -days "$DAYS" \
+    -subj "/CN=localhost" -addext "subjectAltName=DNS:localhost,IP:127.0.0.1" \
+    -keyout "$TARGET/gateway.key" -out "$TARGET/gateway.crt" 2> /dev/null
+chmod 600 "$TARGET/gateway.key"
+echo "Zertifikat und Schlüssel unter $TARGET"